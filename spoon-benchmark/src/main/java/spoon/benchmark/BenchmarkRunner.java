@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the JMH command line, writing the results as JSON unless another format is given.
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * The file the results are written to by default
+	 */
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	private BenchmarkRunner() { }
+
+	public static void main(String[] args) throws Exception {
+		List<String> arguments = new ArrayList<>(Arrays.asList(args));
+		if (!arguments.contains("-rf")) {
+			arguments.addAll(Arrays.asList("-rf", "json", "-rff", DEFAULT_RESULT_FILE));
+		}
+		org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+	}
+}
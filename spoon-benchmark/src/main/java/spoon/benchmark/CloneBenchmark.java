@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import spoon.reflect.declaration.CtType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cloning the types of the model and comparing them with their clones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CloneBenchmark {
+
+	private List<CtType<?>> clones;
+
+	@Setup
+	public void setUp(CorpusState state) {
+		clones = new ArrayList<>();
+		for (CtType<?> type : state.types) {
+			clones.add(type.clone());
+		}
+	}
+
+	@Benchmark
+	public void cloneTypes(CorpusState state, Blackhole blackhole) {
+		for (CtType<?> type : state.types) {
+			blackhole.consume(type.clone());
+		}
+	}
+
+	@Benchmark
+	public int equalTypes(CorpusState state) {
+		int equal = 0;
+		for (int i = 0; i < clones.size(); i++) {
+			if (state.types.get(i).equals(clones.get(i))) {
+				equal++;
+			}
+		}
+		return equal;
+	}
+}
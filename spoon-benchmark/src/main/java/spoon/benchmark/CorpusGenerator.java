@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Generates the Java sources the benchmarks work on.
+ * The same parameters always give the same sources, so that results can be compared across releases.
+ */
+public final class CorpusGenerator {
+
+	/**
+	 * The package which contains all the generated packages
+	 */
+	public static final String ROOT_PACKAGE = "corpus";
+
+	private static final int METHOD_COUNT = 6;
+
+	private CorpusGenerator() { }
+
+	/**
+	 * Writes `packageCount` packages of `classCount` classes each into `directory`.
+	 * The classes have fields, generic collections, loops, nested and anonymous classes,
+	 * and call the methods of other generated classes chosen from `seed`.
+	 * @return `directory`
+	 */
+	public static File generate(File directory, int packageCount, int classCount, long seed) throws IOException {
+		Random random = new Random(seed);
+		for (int p = 0; p < packageCount; p++) {
+			File packageDirectory = new File(directory, ROOT_PACKAGE + File.separator + "p" + p);
+			Files.createDirectories(packageDirectory.toPath());
+			for (int c = 0; c < classCount; c++) {
+				String source = generateClass(random, p, c, packageCount, classCount);
+				Files.write(new File(packageDirectory, "C" + c + ".java").toPath(), source.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return directory;
+	}
+
+	private static String generateClass(Random random, int p, int c, int packageCount, int classCount) {
+		String other = ROOT_PACKAGE + ".p" + random.nextInt(packageCount) + ".C" + random.nextInt(classCount);
+		StringBuilder sb = new StringBuilder();
+		sb.append("package ").append(ROOT_PACKAGE).append(".p").append(p).append(";\n\n");
+		sb.append("public class C").append(c).append(" implements java.lang.Comparable<C").append(c).append("> {\n");
+		sb.append("\tprivate int counter;\n");
+		sb.append("\tprivate java.util.List<").append(other).append("> items = new java.util.ArrayList<>();\n");
+		sb.append("\tprivate java.util.Map<java.lang.String, java.lang.Integer> names = new java.util.HashMap<>();\n\n");
+		for (int m = 0; m < METHOD_COUNT; m++) {
+			sb.append("\tpublic int m").append(m).append("(int a, java.lang.String b) {\n");
+			sb.append("\t\tint sum = ").append(random.nextInt(100)).append(";\n");
+			sb.append("\t\tfor (int i = 0; i < a; i++) {\n");
+			sb.append("\t\t\tsum += b.length() * i;\n");
+			sb.append("\t\t\tif (sum > ").append(random.nextInt(1000)).append(") {\n");
+			sb.append("\t\t\t\tsum = helper(sum) + names.getOrDefault(b, 0);\n");
+			sb.append("\t\t\t} else {\n");
+			sb.append("\t\t\t\tnames.put(b + i, sum);\n");
+			sb.append("\t\t\t}\n");
+			sb.append("\t\t}\n");
+			sb.append("\t\tfor (").append(other).append(" item : items) {\n");
+			sb.append("\t\t\tsum += item.m").append(random.nextInt(METHOD_COUNT)).append("(a - 1, b);\n");
+			sb.append("\t\t}\n");
+			sb.append("\t\treturn sum;\n");
+			sb.append("\t}\n\n");
+		}
+		sb.append("\tprivate int helper(int v) {\n");
+		sb.append("\t\treturn v % ").append(1 + random.nextInt(10)).append(";\n");
+		sb.append("\t}\n\n");
+		sb.append("\tpublic java.lang.Runnable task() {\n");
+		sb.append("\t\treturn new java.lang.Runnable() {\n");
+		sb.append("\t\t\t@java.lang.Override\n");
+		sb.append("\t\t\tpublic void run() {\n");
+		sb.append("\t\t\t\tcounter++;\n");
+		sb.append("\t\t\t}\n");
+		sb.append("\t\t};\n");
+		sb.append("\t}\n\n");
+		sb.append("\t@java.lang.Override\n");
+		sb.append("\tpublic int compareTo(C").append(c).append(" o) {\n");
+		sb.append("\t\treturn java.lang.Integer.compare(counter, o.counter);\n");
+		sb.append("\t}\n\n");
+		sb.append("\tstatic class Node {\n");
+		sb.append("\t\tint value;\n");
+		sb.append("\t\tNode next;\n");
+		sb.append("\t}\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A generated corpus and the model built from it, shared by the iterations of a benchmark.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+	@Param({"10"})
+	public int packageCount;
+
+	@Param({"20"})
+	public int classCount;
+
+	@Param({"42"})
+	public long seed;
+
+	public File sourceDirectory;
+	public Factory factory;
+	public CtModel model;
+	public List<CtType<?>> types;
+
+	@Setup
+	public void setUp() throws IOException {
+		sourceDirectory = CorpusGenerator.generate(Files.createTempDirectory("spoon-corpus").toFile(), packageCount, classCount, seed);
+		Launcher launcher = createLauncher();
+		model = launcher.buildModel();
+		factory = launcher.getFactory();
+		types = new ArrayList<>(model.getAllTypes());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		delete(sourceDirectory);
+	}
+
+	/**
+	 * @return a launcher whose input is the generated corpus
+	 */
+	public Launcher createLauncher() {
+		Launcher launcher = new Launcher();
+		launcher.addInputResource(sourceDirectory.getPath());
+		launcher.getEnvironment().setComplianceLevel(8);
+		return launcher;
+	}
+
+	static void delete(File directory) throws IOException {
+		if (directory == null || !directory.exists()) {
+			return;
+		}
+		try (Stream<File> files = Files.walk(directory.toPath()).map(java.nio.file.Path::toFile)) {
+			files.sorted(Comparator.reverseOrder()).forEach(File::delete);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import spoon.IncrementalLauncher;
+import spoon.reflect.CtModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a warm start of {@link IncrementalLauncher}, when no source changed since the cache was saved.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IncrementalLauncherBenchmark {
+
+	private Set<File> inputs;
+	private File cacheDirectory;
+
+	@Setup
+	public void setUp(CorpusState state) throws IOException {
+		inputs = Collections.singleton(state.sourceDirectory);
+		cacheDirectory = Files.createTempDirectory("spoon-cache").toFile();
+		IncrementalLauncher launcher = new IncrementalLauncher(inputs, Collections.<String>emptySet(), cacheDirectory, true);
+		launcher.buildModel();
+		launcher.saveCache();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		CorpusState.delete(cacheDirectory);
+	}
+
+	@Benchmark
+	public CtModel warmStart() {
+		return new IncrementalLauncher(inputs, Collections.<String>emptySet(), cacheDirectory).buildModel();
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+
+/**
+ * Measures the heap retained by the model of the generated corpus, built with and without compact references
+ * (see {@link spoon.compiler.Environment#setCompactReferences(boolean)}), and prints both numbers.
+ * The optional arguments are the package count, the class count and the seed of the corpus, see {@link CorpusGenerator}.
+ */
+public final class ModelHeapMeasurement {
+
+	private ModelHeapMeasurement() { }
+
+	public static void main(String[] args) throws IOException {
+		CorpusState corpus = new CorpusState();
+		corpus.packageCount = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		corpus.classCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		corpus.seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+		corpus.sourceDirectory = CorpusGenerator.generate(Files.createTempDirectory("spoon-corpus").toFile(), corpus.packageCount, corpus.classCount, corpus.seed);
+		try {
+			// the first model fills the caches shared by all the models, so it is not measured
+			buildModel(corpus, false);
+			long standard = measureRetainedHeap(corpus, false);
+			long compact = measureRetainedHeap(corpus, true);
+			System.out.printf("corpus: %d packages of %d classes, seed %d%n", corpus.packageCount, corpus.classCount, corpus.seed);
+			System.out.printf("standard references: %,d bytes%n", standard);
+			System.out.printf("compact references:  %,d bytes (%.1f%% less)%n", compact, 100.0 * (standard - compact) / standard);
+		} finally {
+			corpus.tearDown();
+		}
+	}
+
+	private static CtModel buildModel(CorpusState corpus, boolean compactReferences) {
+		Launcher launcher = corpus.createLauncher();
+		launcher.getEnvironment().setCompactReferences(compactReferences);
+		return launcher.buildModel();
+	}
+
+	/**
+	 * @return the heap used once the model is built, minus the heap used before, both after a garbage collection
+	 */
+	private static long measureRetainedHeap(CorpusState corpus, boolean compactReferences) {
+		long before = usedHeap();
+		CtModel model = buildModel(corpus, compactReferences);
+		long after = usedHeap();
+		// the model must stay reachable until the heap is measured
+		if (model.getAllTypes().isEmpty()) {
+			throw new IllegalStateException("the corpus has no type");
+		}
+		return after - before;
+	}
+
+	private static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
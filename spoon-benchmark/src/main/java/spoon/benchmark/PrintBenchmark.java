@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import spoon.compiler.Environment;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures printing the top-level types of the model with automatic imports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PrintBenchmark {
+
+	private Environment environment;
+
+	@Setup
+	public void setUp(CorpusState state) {
+		environment = state.factory.getEnvironment();
+		environment.setAutoImports(true);
+	}
+
+	@Benchmark
+	public void print(CorpusState state, Blackhole blackhole) {
+		for (CtType<?> type : state.types) {
+			if (!type.isTopLevel()) {
+				continue;
+			}
+			DefaultJavaPrettyPrinter printer = new DefaultJavaPrettyPrinter(environment);
+			printer.calculate(type.getPosition().getCompilationUnit(), Collections.<CtType<?>>singletonList(type));
+			blackhole.consume(printer.getResult());
+		}
+	}
+}
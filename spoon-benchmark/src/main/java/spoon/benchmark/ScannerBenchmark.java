@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.path.CtElementPathBuilder;
+import spoon.reflect.visitor.CtScanner;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures traversals and queries of a built model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ScannerBenchmark {
+
+	private static final int SAMPLE_STEP = 50;
+
+	private List<CtElement> sample;
+
+	@Setup
+	public void setUp(CorpusState state) {
+		List<CtElement> elements = state.model.getRootPackage().getElements(new TypeFilter<>(CtElement.class));
+		sample = new ArrayList<>();
+		for (int i = 0; i < elements.size(); i += SAMPLE_STEP) {
+			sample.add(elements.get(i));
+		}
+	}
+
+	@Benchmark
+	public int scan(CorpusState state) {
+		int[] count = new int[1];
+		new CtScanner() {
+			@Override
+			protected void enter(CtElement e) {
+				count[0]++;
+			}
+		}.scan(state.model.getRootPackage());
+		return count[0];
+	}
+
+	@Benchmark
+	public int filterChildren(CorpusState state) {
+		return state.model.getRootPackage().filterChildren(new TypeFilter<>(CtInvocation.class)).list().size();
+	}
+
+	/**
+	 * Paths are computed from the role of each element in its parent.
+	 */
+	@Benchmark
+	public void elementPaths(Blackhole blackhole) {
+		CtElementPathBuilder builder = new CtElementPathBuilder();
+		for (CtElement element : sample) {
+			blackhole.consume(builder.fromElement(element, null));
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import spoon.reflect.ModelStreamer;
+import spoon.reflect.factory.Factory;
+import spoon.support.BinaryModelStreamer;
+import spoon.support.SerializationModelStreamer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving and loading the model with the available {@link ModelStreamer}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+	private byte[] binary;
+	private byte[] serialized;
+
+	@Setup
+	public void setUp(CorpusState state) throws IOException {
+		binary = save(new BinaryModelStreamer(), state.factory);
+		serialized = save(new SerializationModelStreamer(), state.factory);
+	}
+
+	@Benchmark
+	public byte[] saveBinary(CorpusState state) throws IOException {
+		return save(new BinaryModelStreamer(), state.factory);
+	}
+
+	@Benchmark
+	public Factory loadBinary() throws IOException {
+		return new BinaryModelStreamer().load(new ByteArrayInputStream(binary));
+	}
+
+	@Benchmark
+	public byte[] saveSerialized(CorpusState state) throws IOException {
+		return save(new SerializationModelStreamer(), state.factory);
+	}
+
+	@Benchmark
+	public Factory loadSerialized() throws IOException {
+		return new SerializationModelStreamer().load(new ByteArrayInputStream(serialized));
+	}
+
+	private static byte[] save(ModelStreamer streamer, Factory factory) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		streamer.save(factory, out);
+		return out.toByteArray();
+	}
+}
@@ -26,13 +26,24 @@ import java.io.InvalidClassException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
@@ -40,11 +51,21 @@ import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.commons.io.filefilter.TrueFileFilter;
 import org.codehaus.plexus.util.CollectionUtils;
 
+import spoon.reflect.CtModel;
 import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.declaration.CtAnnotationMethod;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtConstructor;
+import spoon.reflect.declaration.CtEnum;
+import spoon.reflect.declaration.CtEnumValue;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.factory.Factory;
-import spoon.support.SerializationModelStreamer;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.support.BinaryModelStreamer;
+import spoon.support.compiler.ClasspathIndex;
 
 /**
  * Create a Spoon launcher for incremental build
@@ -60,17 +81,167 @@ public class IncrementalLauncher extends Launcher {
 		public Map<File, Set<File>> inputSourcesMap;
 	}
 
+	/**
+	 * Dependencies between the input source files, which is persisted next to the cache info
+	 * and updated incrementally for the source files built during the last run.
+	 */
+	private static class DependencyIndex implements Serializable {
+		/** Index version */
+		public static final long serialVersionUID = 1L;
+		/** Map of input source files and the input source files declaring the types they refer to */
+		public Map<File, Set<File>> dependencies = new HashMap<>();
+		/** Map of input source files and the digest of their API (signatures of the declared types and members) */
+		public Map<File, String> apiDigests = new HashMap<>();
+
+		/** Returns the source files which depend, directly or transitively, on one of the given files. */
+		Set<File> getTransitiveDependents(Collection<File> files) {
+			// reverse the dependencies: file -> files which refer to it
+			Map<File, Set<File>> dependents = new HashMap<>();
+			for (Entry<File, Set<File>> e : dependencies.entrySet()) {
+				for (File dependency : e.getValue()) {
+					dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(e.getKey());
+				}
+			}
+			Set<File> result = new HashSet<>();
+			Deque<File> toVisit = new ArrayDeque<>(files);
+			while (!toVisit.isEmpty()) {
+				for (File dependent : dependents.getOrDefault(toVisit.pop(), Collections.emptySet())) {
+					if (result.add(dependent)) {
+						toVisit.push(dependent);
+					}
+				}
+			}
+			result.removeAll(files);
+			return result;
+		}
+
+		/** Recomputes the dependencies and the API digest of the given source files. */
+		void update(Factory factory, Set<File> builtSources) {
+			// the referenced types are looked up one by one, so that only them are loaded from a lazily loaded model
+			Map<String, File> typeFiles = new HashMap<>();
+			Function<String, File> typeFile = qualifiedName -> typeFiles.computeIfAbsent(qualifiedName, name -> {
+				CtType<?> type = factory.Type().get(name);
+				return type == null ? null : type.getPosition().getFile();
+			});
+			for (Entry<String, CompilationUnit> e : factory.CompilationUnit().getMap().entrySet()) {
+				File file = new File(e.getKey());
+				if (!builtSources.contains(file)) {
+					continue;
+				}
+				Set<File> fileDependencies = new HashSet<>();
+				for (CtType<?> type : e.getValue().getDeclaredTypes()) {
+					for (CtTypeReference<?> reference : type.getReferencedTypes()) {
+						File dependency = typeFile.apply(reference.getTopLevelType().getQualifiedName());
+						if (dependency != null && !dependency.equals(file)) {
+							fileDependencies.add(dependency);
+						}
+					}
+				}
+				dependencies.put(file, fileDependencies);
+				apiDigests.put(file, getApiDigest(e.getValue()));
+			}
+		}
+
+		/** Removes the given source files from the index. */
+		void remove(Set<File> removedSources) {
+			for (File r : removedSources) {
+				dependencies.remove(r);
+				apiDigests.remove(r);
+			}
+			for (Set<File> fileDependencies : dependencies.values()) {
+				fileDependencies.removeAll(removedSources);
+			}
+		}
+	}
+
+	/**
+	 * Returns a digest of what other source files can see of a compilation unit:
+	 * the declarations of its types and members, without the bodies of executables.
+	 * A change which keeps this digest does not require to rebuild the dependent source files.
+	 */
+	private static String getApiDigest(CompilationUnit cu) {
+		StringBuilder api = new StringBuilder();
+		for (CtType<?> type : cu.getDeclaredTypes()) {
+			appendApi(type, api);
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(api.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-1, keep the plain API otherwise
+			return api.toString();
+		}
+	}
+
+	private static void appendApi(CtType<?> type, StringBuilder api) {
+		api.append(new TreeSet<>(type.getModifiers())).append(' ').append(type.getQualifiedName());
+		api.append(type.getFormalCtTypeParameters()).append(" extends ").append(type.getSuperclass());
+		api.append(" implements ").append(toSortedStrings(type.getSuperInterfaces())).append(" {\n");
+		if (type instanceof CtEnum) {
+			for (CtEnumValue<?> value : ((CtEnum<?>) type).getEnumValues()) {
+				api.append(value.getSimpleName()).append(",\n");
+			}
+		}
+		for (CtField<?> field : type.getFields()) {
+			api.append(new TreeSet<>(field.getModifiers())).append(' ').append(field.getType()).append(' ').append(field.getSimpleName());
+			if (field.isFinal() && field.getDefaultExpression() != null) {
+				// the value of constants is inlined in the dependent source files
+				api.append(" = ").append(field.getDefaultExpression());
+			}
+			api.append(";\n");
+		}
+		if (type instanceof CtClass) {
+			for (CtConstructor<?> constructor : ((CtClass<?>) type).getConstructors()) {
+				api.append(new TreeSet<>(constructor.getModifiers())).append(' ').append(constructor.getFormalCtTypeParameters());
+				api.append(constructor.getSignature()).append(" throws ").append(toSortedStrings(constructor.getThrownTypes())).append(";\n");
+			}
+		}
+		for (CtMethod<?> method : type.getMethods()) {
+			api.append(new TreeSet<>(method.getModifiers())).append(' ').append(method.getFormalCtTypeParameters());
+			api.append(method.getType()).append(' ').append(method.getSignature());
+			api.append(" throws ").append(toSortedStrings(method.getThrownTypes()));
+			if (method instanceof CtAnnotationMethod && ((CtAnnotationMethod<?>) method).getDefaultExpression() != null) {
+				api.append(" default ").append(((CtAnnotationMethod<?>) method).getDefaultExpression());
+			}
+			api.append(";\n");
+		}
+		List<CtType<?>> nestedTypes = new ArrayList<>(type.getNestedTypes());
+		nestedTypes.sort(Comparator.comparing(CtType::getQualifiedName));
+		for (CtType<?> nestedType : nestedTypes) {
+			appendApi(nestedType, api);
+		}
+		api.append("}\n");
+	}
+
+	private static List<String> toSortedStrings(Collection<? extends CtTypeReference<?>> references) {
+		List<String> strings = new ArrayList<>();
+		for (CtTypeReference<?> reference : references) {
+			strings.add(reference.toString());
+		}
+		Collections.sort(strings);
+		return strings;
+	}
+
 	private final Set<File> mInputSources;
 	private final File mIncrementalCacheDirectory;
 	private final File mModelFile;
 	private final File mCacheInfoFile;
+	private final File mDependencyIndexFile;
+	private final File mClasspathIndexFile;
 	private final File mClassFilesDir;
 	private final boolean mChangesPresent;
 	private Set<String> mSourceClasspath;
 	private Set<File> mRemovedSources = new HashSet<>();
 	private Set<File> mAddedSources = new HashSet<>();
 	private Set<File> mCommonSources = new HashSet<>();
+	private Set<File> mModifiedSources = new HashSet<>();
+	private Set<File> mBuiltSources = new HashSet<>();
 	private CacheInfo mCacheInfo = null;
+	private DependencyIndex mDependencyIndex = null;
 
 	private static CacheInfo loadCacheInfo(File file) throws InvalidClassException {
 		try (FileInputStream fileStream = new FileInputStream(file);
@@ -93,9 +264,30 @@ public class IncrementalLauncher extends Launcher {
 		}
 	}
 
+	private static DependencyIndex loadDependencyIndex(File file) throws InvalidClassException {
+		try (FileInputStream fileStream = new FileInputStream(file);
+			ObjectInputStream objectStream = new ObjectInputStream(new BufferedInputStream(fileStream))) {
+			return (DependencyIndex) objectStream.readObject();
+		} catch (InvalidClassException e) {
+			throw e;
+		} catch (ClassNotFoundException | IOException e) {
+			throw new SpoonException("unable to load dependency index");
+		}
+	}
+
+	private static void saveDependencyIndex(DependencyIndex dependencyIndex, File file) {
+		try (FileOutputStream fileStream = new FileOutputStream(file);
+			ObjectOutputStream objectStream = new ObjectOutputStream(new BufferedOutputStream(fileStream))) {
+			objectStream.writeObject(dependencyIndex);
+			objectStream.flush();
+		} catch (IOException e) {
+			throw new SpoonException("unable to save dependency index");
+		}
+	}
+
 	private static Factory loadFactory(File file) {
 		try {
-			return new SerializationModelStreamer().load(new FileInputStream(file));
+			return new BinaryModelStreamer().loadLazily(new FileInputStream(file));
 		} catch (IOException e) {
 			throw new SpoonException("unable to load factory from cache");
 		}
@@ -103,12 +295,33 @@ public class IncrementalLauncher extends Launcher {
 
 	private static void saveFactory(Factory factory, File file) {
 		try {
-			new SerializationModelStreamer().save(factory, new FileOutputStream(file));
+			new BinaryModelStreamer().save(factory, new FileOutputStream(file));
 		} catch (IOException e) {
 			throw new SpoonException("unable to save factory");
 		}
 	}
 
+	/**
+	 * Deletes the types declared in the given source files.
+	 * @return the packages of the deleted types
+	 */
+	private static Set<CtPackage> deleteTypes(Factory factory, Set<File> sources) {
+		Set<CtPackage> packages = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (File f : sources) {
+			CompilationUnit cu = factory.CompilationUnit().getMap().get(f.getPath());
+			if (cu == null) {
+				continue;
+			}
+			for (CtType<?> type : new ArrayList<>(cu.getDeclaredTypes())) {
+				if (type.getPackage() != null) {
+					packages.add(type.getPackage());
+				}
+				type.delete();
+			}
+		}
+		return packages;
+	}
+
 	private static Set<File> getAllJavaFiles(Set<File> resources) {
 		Set<File> javaFiles = new HashSet<>();
 		for (File e : resources) {
@@ -152,12 +365,28 @@ public class IncrementalLauncher extends Launcher {
 		mModelFile = new File(cacheDirectory, "model");
 		mCacheInfoFile = new File(cacheDirectory, "cache-info");
 		mClassFilesDir = new File(cacheDirectory, "class-files");
+		mDependencyIndexFile = new File(cacheDirectory, "dependency-index");
+		mClasspathIndexFile = new File(cacheDirectory, "classpath-index");
+
+		if (mClasspathIndexFile.exists()) {
+			try {
+				ClasspathIndex.load(mClasspathIndexFile);
+			} catch (SpoonException e) {
+				// The jars of the classpath are indexed again.
+			}
+		}
 
-		if (!mIncrementalCacheDirectory.exists() || !mModelFile.exists() || !mCacheInfoFile.exists() || !mClassFilesDir.exists()) {
+		Factory oldFactory = null;
+		if (!mIncrementalCacheDirectory.exists() || !mModelFile.exists() || !mCacheInfoFile.exists() || !mClassFilesDir.exists()
+				|| !mDependencyIndexFile.exists()) {
 			forceRebuild = true;
 		} else {
 			try {
 				mCacheInfo = loadCacheInfo(mCacheInfoFile);
+				mDependencyIndex = loadDependencyIndex(mDependencyIndexFile);
+				if (!forceRebuild) {
+					oldFactory = loadFactory(mModelFile);
+				}
 			} catch (InvalidClassException | SpoonException e) {
 				// Incompatible cache version or unable to load cache. So force rebuild.
 				forceRebuild = true;
@@ -177,11 +406,12 @@ public class IncrementalLauncher extends Launcher {
 			factory = createFactory();
 			processArguments();
 			mInputSources.forEach(f -> addInputResource(f.getPath()));
+			mBuiltSources.addAll(mInputSources);
+			mDependencyIndex = new DependencyIndex();
 			mChangesPresent = true;
 			setBinaryOutputDirectory(mClassFilesDir);
 		} else {
-			// Load model from cache.
-			Factory oldFactory = loadFactory(mModelFile);
+			// Model loaded from cache.
 			oldFactory.getModel().setBuildModelIsFinished(false);
 
 			// Build model incrementally.
@@ -192,32 +422,30 @@ public class IncrementalLauncher extends Launcher {
 			Set<File> incrementalSources = new HashSet<>(mAddedSources);
 			for (File e : mCommonSources) {
 				if (e.lastModified() >= mCacheInfo.lastBuildTime) {
-					incrementalSources.add(e);
+					mModifiedSources.add(e);
 				}
 			}
-
-			List<CtType<?>> oldTypes = oldFactory.Type().getAll();
-
-			Set<CtType<?>> changedTypes = new HashSet<>();
-			for (CtType<?> type : oldTypes) {
-				File typeFile = type.getPosition().getFile();
-				if (incrementalSources.contains(typeFile)) {
-					changedTypes.add(type);
-				}
+			incrementalSources.addAll(mModifiedSources);
+			// The dependents of modified sources are rebuilt by buildModel() only if the API of the modified sources changed,
+			// but the API of removed sources is always gone.
+			Set<File> dependentSources = mDependencyIndex.getTransitiveDependents(mRemovedSources);
+			dependentSources.retainAll(mCommonSources);
+			incrementalSources.addAll(dependentSources);
+
+			// the types of the cached model are loaded lazily, only the types of the deleted files are loaded here.
+			// The types of the modified files are deleted too, so that a type renamed or removed in them does not survive
+			Set<File> deletedSources = new HashSet<>(mRemovedSources);
+			deletedSources.addAll(mModifiedSources);
+			deletedSources.addAll(dependentSources);
+			Set<CtPackage> oldPackages = deleteTypes(oldFactory, deletedSources);
+			// the compilation units of the cached model are reused when their sources are built again
+			for (File f : mRemovedSources) {
+				oldFactory.CompilationUnit().removeFromCache(f.getPath());
 			}
-
-			for (CtType<?> type : oldTypes) {
-				File typeFile = type.getPosition().getFile();
-				if (mRemovedSources.contains(typeFile)) {
-					type.delete();
-					continue;
-				}
-				for (CtType<?> changedType : changedTypes) {
-					// We should also rebuild types, that refer to changed types.
-					if (type.getReferencedTypes().contains(changedType.getReference())) {
-						incrementalSources.add(typeFile);
-						type.delete();
-					}
+			for (File f : incrementalSources) {
+				CompilationUnit cu = oldFactory.CompilationUnit().getMap().get(f.getPath());
+				if (cu != null) {
+					cu.setDeclaredTypes(new ArrayList<>());
 				}
 			}
 
@@ -227,7 +455,6 @@ public class IncrementalLauncher extends Launcher {
 				throw new SpoonException("unable to locate class files dir: " + mClassFilesDir);
 			}
 
-			Collection<CtPackage> oldPackages = oldFactory.Package().getAll();
 			for (CtPackage pkg : oldPackages) {
 				if (pkg.getTypes().isEmpty() && pkg.getPackages().isEmpty() && !pkg.isUnnamedPackage()) {
 					pkg.delete();
@@ -237,6 +464,7 @@ public class IncrementalLauncher extends Launcher {
 			factory = oldFactory;
 			processArguments();
 			incrementalSources.forEach(f ->  addInputResource(f.getPath()));
+			mBuiltSources.addAll(incrementalSources);
 			mChangesPresent = !mRemovedSources.isEmpty() || !mAddedSources.isEmpty() || !incrementalSources.isEmpty();
 			setBinaryOutputDirectory(mClassFilesDir);
 		}
@@ -256,6 +484,52 @@ public class IncrementalLauncher extends Launcher {
 		this(inputResources, sourceClasspath, cacheDirectory, false);
 	}
 
+	/**
+	 * Builds the model of the changed source files. When the API of a modified source file has changed,
+	 * the source files which depend on it, directly or transitively, are then rebuilt as well.
+	 */
+	@Override
+	public CtModel buildModel() {
+		CtModel model = super.buildModel();
+		if (mModifiedSources.isEmpty()) {
+			return model;
+		}
+
+		Set<File> apiChangedSources = new HashSet<>();
+		for (File modifiedSource : mModifiedSources) {
+			CompilationUnit cu = getFactory().CompilationUnit().getMap().get(modifiedSource.getPath());
+			if (cu == null || !getApiDigest(cu).equals(mDependencyIndex.apiDigests.get(modifiedSource))) {
+				apiChangedSources.add(modifiedSource);
+			}
+		}
+		Set<File> dependentSources = mDependencyIndex.getTransitiveDependents(apiChangedSources);
+		dependentSources.retainAll(mCommonSources);
+		dependentSources.removeAll(mBuiltSources);
+		if (dependentSources.isEmpty()) {
+			return model;
+		}
+
+		deleteTypes(getFactory(), dependentSources);
+		// the sources with a changed API are built again, so that the dependent sources are resolved against them and not against the stale class files
+		SpoonModelBuilder dependentsBuilder = createCompiler();
+		for (File f : apiChangedSources) {
+			CompilationUnit cu = getFactory().CompilationUnit().getMap().get(f.getPath());
+			if (cu != null) {
+				cu.setDeclaredTypes(new ArrayList<>());
+			}
+			dependentsBuilder.addInputSource(f);
+		}
+		for (File f : dependentSources) {
+			dependentsBuilder.addInputSource(f);
+			// so that they are compiled by saveCache()
+			getModelBuilder().addInputSource(f);
+		}
+		mBuiltSources.addAll(dependentSources);
+		model.setBuildModelIsFinished(false);
+		dependentsBuilder.build();
+		return model;
+	}
+
 	/** Returns true, if any source code changes after previous build are present, and false otherwise. */
 	public boolean changesPresent() {
 		return mChangesPresent;
@@ -299,5 +573,12 @@ public class IncrementalLauncher extends Launcher {
 
 		newCacheInfo.inputSourcesMap = newSourcesMap;
 		saveCacheInfo(newCacheInfo, mCacheInfoFile);
+
+		mDependencyIndex.remove(mRemovedSources);
+		mDependencyIndex.update(factory, mBuiltSources);
+		saveDependencyIndex(mDependencyIndex, mDependencyIndexFile);
+
+		// the folder of the class files is not indexed, only the jars of the classpath are saved
+		new ClasspathIndex(mSourceClasspath.toArray(new String[0])).save(mClasspathIndexFile);
 	}
 }
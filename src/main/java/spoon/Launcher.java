@@ -425,6 +425,29 @@ public class Launcher implements SpoonAPI {
 			opt2.setRequired(false);
 			jsap.registerParameter(opt2);
 
+			// Number of threads used to build the model.
+			opt2 = new FlaggedOption("building-threads");
+			opt2.setLongFlag("building-threads");
+			opt2.setHelp("Number of threads used to build the model (default: 1, the model is built sequentially).");
+			opt2.setStringParser(JSAP.INTEGER_PARSER);
+			opt2.setDefault("1");
+			jsap.registerParameter(opt2);
+
+			// Drop the source positions of the references to save memory.
+			sw1 = new Switch("compact-references");
+			sw1.setLongFlag("compact-references");
+			sw1.setHelp("Do not keep the source positions of the references, to reduce the memory used by the model.");
+			sw1.setDefault("false");
+			jsap.registerParameter(sw1);
+
+			// Number of threads used to print the source files.
+			opt2 = new FlaggedOption("printing-threads");
+			opt2.setLongFlag("printing-threads");
+			opt2.setHelp("Number of threads used to print the source files (default: 1, the files are printed sequentially).");
+			opt2.setStringParser(JSAP.INTEGER_PARSER);
+			opt2.setDefault("1");
+			jsap.registerParameter(opt2);
+
 			// Disable checks.
 			sw1 = new Switch("disable-model-self-checks");
 			sw1.setShortFlag('a');
@@ -491,6 +514,9 @@ public class Launcher implements SpoonAPI {
 		}
 
 		environment.setShouldCompile(jsapActualArgs.getBoolean("compile"));
+		environment.setBuildingThreads(jsapActualArgs.getInt("building-threads"));
+		environment.setPrintingThreads(jsapActualArgs.getInt("printing-threads"));
+		environment.setCompactReferences(jsapActualArgs.getBoolean("compact-references"));
 		if (jsapActualArgs.getBoolean("disable-model-self-checks")) {
 			environment.disableConsistencyChecks();
 		}
@@ -681,6 +707,7 @@ public class Launcher implements SpoonAPI {
 
 	public JavaOutputProcessor createOutputWriter() {
 		JavaOutputProcessor outputProcessor = new JavaOutputProcessor(createPrettyPrinter());
+		outputProcessor.setPrettyPrinterCreator(this::createPrettyPrinter);
 		outputProcessor.setFactory(this.getFactory());
 		return outputProcessor;
 	}
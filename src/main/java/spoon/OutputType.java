@@ -35,7 +35,14 @@ public enum OutputType {
 	/**
 	 * Follows the compilation units given by the input.
 	 */
-	COMPILATION_UNITS;
+	COMPILATION_UNITS,
+
+	/**
+	 * Like {@link #COMPILATION_UNITS}, but only the compilation units which contain changes are printed.
+	 * The other ones are copied from the input.
+	 * The changes are the ones recorded by the {@link spoon.support.modelobs.ChangeCollector} attached to the environment.
+	 */
+	CHANGED_COMPILATION_UNITS;
 
 	@Override
 	public String toString() {
@@ -93,7 +93,8 @@ public interface Environment {
 	 * Helper method called by a processor to report an error, warning or
 	 * message as dictated by the severity parameter. Note that this does not
 	 * stop the processing or any remaining task. To do so, use
-	 * {@link #setProcessingStopped(boolean)}.
+	 * {@link #setProcessingStopped(boolean)}. It may be called by several
+	 * threads at the same time, see {@link spoon.support.ParallelProcessingManager}.
 	 *
 	 * @param processor
 	 *            The processor that report this message. Can be null.
@@ -412,4 +413,47 @@ public interface Environment {
 	 * Set the type of serialization to be used by default
 	 */
 	void setCompressionType(CompressionType serializationType);
+
+	/**
+	 * Gets the number of threads used to build the model.
+	 * 1 (the default) means that the model is built sequentially on the calling thread.
+	 */
+	int getBuildingThreads();
+
+	/**
+	 * Sets the number of threads used to build the model.
+	 * The per-compilation-unit phases of model building (such as comment attachment) are then run on a pool of this size.
+	 * The resulting model is the same as the one built sequentially.
+	 */
+	void setBuildingThreads(int buildingThreads);
+
+	/**
+	 * Gets the number of threads used to print the source files.
+	 * 1 (the default) means that the files are printed sequentially on the calling thread.
+	 */
+	int getPrintingThreads();
+
+	/**
+	 * Sets the number of threads used to print the source files.
+	 * The top-level types are then printed by the {@link spoon.support.JavaOutputProcessor} on a pool of this size, with one printer per thread.
+	 * The printed files are the same as the ones printed sequentially.
+	 */
+	void setPrintingThreads(int printingThreads);
+
+	/**
+	 * Tells if the references of the model are compacted after the model building.
+	 */
+	boolean isCompactReferences();
+
+	/**
+	 * Sets the memory-optimised mode of the model building.
+	 * In this mode, the source positions of the references (type, executable, variable and package references)
+	 * are replaced by {@link spoon.reflect.cu.SourcePosition#NOPOSITION} once the model is built,
+	 * and the lists of parameters, type arguments and bounds of the references are trimmed to their size,
+	 * which cuts the retained heap of large models.
+	 * The positions of the other elements are kept, so that the comments and the line numbers are unchanged,
+	 * but the sniper mode of printing, which needs the position of every element, should not be used with this mode.
+	 * Disabled by default.
+	 */
+	void setCompactReferences(boolean compactReferences);
 }
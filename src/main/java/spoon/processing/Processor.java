@@ -37,6 +37,18 @@ public interface Processor<E extends CtElement> extends FactoryAccessor {
 	 */
 	TraversalStrategy getTraversalStrategy();
 
+	/**
+	 * Tells if this processor leaves the model unchanged (default is false).
+	 * Consecutive read-only processors are applied in a single traversal of
+	 * the model by {@link spoon.support.QueueProcessingManager}: each element
+	 * is given to all of them before the next element is visited.
+	 * Programmers should override this method to return true for analysis
+	 * processors which only read the model.
+	 */
+	default boolean isReadOnly() {
+		return false;
+	}
+
 	/**
 	 * Gets the environment of this processor.
 	 */
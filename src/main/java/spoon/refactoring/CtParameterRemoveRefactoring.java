@@ -18,7 +18,9 @@ package spoon.refactoring;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import spoon.SpoonException;
 import spoon.reflect.code.CtAnnotationFieldAccess;
@@ -35,11 +37,13 @@ import spoon.reflect.declaration.CtExecutable;
 import spoon.reflect.declaration.CtParameter;
 import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtParameterReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.visitor.CtAbstractVisitor;
 import spoon.reflect.visitor.chain.CtConsumer;
 import spoon.reflect.visitor.filter.AllMethodsSameSignatureFunction;
 import spoon.reflect.visitor.filter.ExecutableReferenceFilter;
 import spoon.reflect.visitor.filter.ParameterReferenceFunction;
+import spoon.support.modelobs.ReferenceIndex;
 
 /**
  * Removes target {@link CtParameter} from the parent target {@link CtExecutable}
@@ -156,12 +160,14 @@ public class CtParameterRemoveRefactoring implements CtRefactoring {
 	 */
 	private void computeAllInvocations() {
 		ExecutableReferenceFilter execRefFilter = new ExecutableReferenceFilter();
+		Set<String> execNames = new HashSet<>();
 		for (CtExecutable<?> exec : getTargetExecutables()) {
 			execRefFilter.addExecutable(exec);
+			execNames.add(exec.getSimpleName());
 		}
 		//all the invocations, which belongs to same inheritance tree
 		final List<CtInvocation<?>> invocations = new ArrayList<>();
-		target.getFactory().getModel().filterChildren(execRefFilter).forEach(new CtConsumer<CtExecutableReference<?>>() {
+		CtConsumer<CtExecutableReference<?>> consumer = new CtConsumer<CtExecutableReference<?>>() {
 			@Override
 			public void accept(CtExecutableReference<?> t) {
 				CtElement parent = t.getParent();
@@ -169,7 +175,20 @@ public class CtParameterRemoveRefactoring implements CtRefactoring {
 					invocations.add((CtInvocation<?>) parent);
 				} //else ignore other hits, which are not in context of invocation
 			}
-		});
+		};
+		ReferenceIndex index = ReferenceIndex.getReferenceIndex(target.getFactory().getEnvironment());
+		if (index != null) {
+			//only the references named like one of the executables may refer to them
+			for (String execName : execNames) {
+				for (CtReference ref : index.getReferences(target.getFactory().getModel().getUnnamedModule(), execName)) {
+					if (ref instanceof CtExecutableReference && execRefFilter.matches((CtExecutableReference<?>) ref)) {
+						consumer.accept((CtExecutableReference<?>) ref);
+					}
+				}
+			}
+		} else {
+			target.getFactory().getModel().filterChildren(execRefFilter).forEach(consumer);
+		}
 		targetInvocations = Collections.unmodifiableList(invocations);
 	}
 
@@ -23,12 +23,17 @@ import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtExecutableReference;
+import spoon.reflect.factory.Factory;
 import spoon.reflect.reference.CtFieldReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.CtScanner;
 import spoon.reflect.visitor.Query;
+import spoon.reflect.visitor.filter.AbstractFilter;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.modelobs.ReferenceIndex;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -48,7 +53,7 @@ public final class Refactoring {
 	public static void changeTypeName(final CtType<?> type, String name) {
 
 		final String typeQFN = type.getQualifiedName();
-		final List<CtTypeReference<?>> references = Query.getElements(type.getFactory(), new TypeFilter<CtTypeReference<?>>(CtTypeReference.class) {
+		final List<CtTypeReference<?>> references = getReferences(type.getFactory(), type.getSimpleName(), new TypeFilter<CtTypeReference<?>>(CtTypeReference.class) {
 			@Override
 			public boolean matches(CtTypeReference<?> reference) {
 				String refFQN = reference.getQualifiedName();
@@ -67,7 +72,7 @@ public final class Refactoring {
 	 */
 	public static void changeMethodName(final CtMethod<?> method, String newName) {
 
-		final List<CtExecutableReference<?>> references = Query.getElements(method.getFactory(), new TypeFilter<CtExecutableReference<?>>(CtExecutableReference.class) {
+		final List<CtExecutableReference<?>> references = getReferences(method.getFactory(), method.getSimpleName(), new TypeFilter<CtExecutableReference<?>>(CtExecutableReference.class) {
 			@Override
 			public boolean matches(CtExecutableReference<?> reference) {
 				return reference.getDeclaration() == method;
@@ -81,6 +86,25 @@ public final class Refactoring {
 		}
 	}
 
+	/**
+	 * @return the references of the model named `simpleName` and matched by `filter`.
+	 * They are taken from the {@link ReferenceIndex} when one is attached to the environment, else the model is scanned.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends CtReference> List<T> getReferences(Factory factory, String simpleName, AbstractFilter<T> filter) {
+		ReferenceIndex index = ReferenceIndex.getReferenceIndex(factory.getEnvironment());
+		if (index == null) {
+			return Query.getElements(factory, filter);
+		}
+		List<T> result = new ArrayList<>();
+		for (CtReference reference : index.getReferences(factory.Package().getRootPackage(), simpleName)) {
+			if (filter.getType().isInstance(reference) && filter.matches((T) reference)) {
+				result.add((T) reference);
+			}
+		}
+		return result;
+	}
+
 	/** See doc in {@link CtMethod#copyMethod()} */
 	public static CtMethod<?> copyMethod(final CtMethod<?> method) {
 		CtMethod<?> clone = method.clone();
@@ -374,6 +374,29 @@ public class FactoryImpl implements Factory, Serializable {
 		return module;
 	}
 
+	/**
+	 * Creates all the sub-factories, which are otherwise created on first use,
+	 * so that this factory can then be used by several threads.
+	 */
+	public void createSubFactories() {
+		Annotation();
+		Class();
+		Code();
+		Constructor();
+		Core();
+		Enum();
+		Executable();
+		Eval();
+		Field();
+		Interface();
+		Method();
+		Package();
+		CompilationUnit();
+		Type();
+		Query();
+		Module();
+	}
+
 
 	/**
 	 * A constructor that takes the parent factory
@@ -432,6 +455,27 @@ public class FactoryImpl implements Factory, Serializable {
 		}
 	}
 
+	/**
+	 * The number of changes of the references of the model of this factory, see {@link #onReferenceChange()}
+	 */
+	private transient int referenceChangeCount;
+
+	/**
+	 * Records that a reference which already has a parent changed an existing value, for instance that a type reference was renamed.
+	 * It is called by {@link spoon.support.reflect.reference.CtReferenceImpl}, not when a fresh reference is built.
+	 * The signatures and the member tables computed before may contain the former value of the reference, they are computed again.
+	 */
+	public void onReferenceChange() {
+		referenceChangeCount++;
+	}
+
+	/**
+	 * @return the number of changes of the references of the model of this factory, see {@link #onReferenceChange()}
+	 */
+	public int getReferenceChangeCount() {
+		return referenceChangeCount;
+	}
+
 	/**
 	 * Needed to restore state of transient fields during reading from stream
 	 */
@@ -20,7 +20,9 @@ package spoon.reflect.factory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import spoon.reflect.declaration.CtModule;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
@@ -33,6 +35,11 @@ import spoon.reflect.reference.CtPackageReference;
 public class PackageFactory extends SubFactory {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The packages already found by {@link #get(String)}, by qualified name
+	 */
+	private final Map<String, CtPackage> packageIndex = new ConcurrentHashMap<>();
+
 	/**
 	 * Creates a new package sub-factory.
 	 *
@@ -150,6 +157,10 @@ public class PackageFactory extends SubFactory {
 		if (qualifiedName.contains(CtType.INNERTTYPE_SEPARATOR)) {
 			throw new RuntimeException("Invalid package name " + qualifiedName);
 		}
+		CtPackage indexed = packageIndex.get(qualifiedName);
+		if (indexed != null) {
+			return indexed;
+		}
 		StringTokenizer token = new StringTokenizer(qualifiedName, CtPackage.PACKAGE_SEPARATOR);
 		CtPackage current = factory.getModel().getRootPackage();
 		if (token.hasMoreElements()) {
@@ -158,10 +169,21 @@ public class PackageFactory extends SubFactory {
 				current = current.getPackage(token.nextToken());
 			}
 		}
-
+		if (current != null) {
+			packageIndex.put(qualifiedName, current);
+		}
 		return current;
 	}
 
+	/**
+	 * Forgets the packages and the types found by {@link #get(String)} and {@link TypeFactory#get(String)}.
+	 * It is called by the model each time a package is removed or renamed.
+	 */
+	public void clearIndex() {
+		packageIndex.clear();
+		factory.Type().clearIndex();
+	}
+
 	/**
 	 * Gets the list of all created packages. It includes all the top-level
 	 * packages and their sub-packages.
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.reflect.factory;
+
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeMember;
+import spoon.support.DefaultCoreFactory;
+import spoon.support.SpoonClassNotFoundException;
+import spoon.support.StandardEnvironment;
+import spoon.support.reflect.declaration.CtTypeImpl;
+import spoon.support.visitor.equals.CloneHelper;
+import spoon.support.visitor.java.JavaReflectionTreeBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shadow types of the top-level classes of the JDK, built once for all the factories of the process.
+ * Each type is built from the reflection in a factory of its own and is never modified:
+ * {@link TypeFactory#get(Class)} gives each factory its own copy of it (see {@link #copy(CtType, Factory)}),
+ * so that the elements of a factory keep this factory.
+ * Copying a type is cheaper than building it again from the reflection.
+ * The cache is bounded, the least recently used types are removed first.
+ */
+final class SharedShadowTypeCache {
+
+	/**
+	 * The maximum number of cached types
+	 */
+	static final int MAX_SIZE = 1000;
+
+	private static final Map<Class<?>, CtType<?>> TYPES = new LinkedHashMap<Class<?>, CtType<?>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Class<?>, CtType<?>> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private SharedShadowTypeCache() {
+	}
+
+	/**
+	 * The classes of the bootstrap class loader cannot be replaced by other classes with the same name,
+	 * and caching them keeps no class loader alive.
+	 * @return true if the shadow type of `cl` is shared by all the factories
+	 */
+	static boolean isShared(Class<?> cl) {
+		return cl.getClassLoader() == null && !cl.isPrimitive() && !cl.isArray() && cl.getEnclosingClass() == null && cl.getPackage() != null;
+	}
+
+	/**
+	 * The type is built outside of the lock of the cache, so that the factories which need other types do not wait for it.
+	 * When two threads need the same type at the same time, both build it and the first one built is kept.
+	 * @return the shared shadow type of `cl`, which must not be modified. See {@link #isShared(Class)}
+	 */
+	static CtType<?> get(Class<?> cl) {
+		CtType<?> type;
+		synchronized (TYPES) {
+			type = TYPES.get(cl);
+		}
+		if (type != null) {
+			return type;
+		}
+		CtType<?> newType;
+		try {
+			newType = new JavaReflectionTreeBuilder(new FactoryImpl(new DefaultCoreFactory(), new StandardEnvironment())).scan(cl);
+		} catch (Throwable e) {
+			throw new SpoonClassNotFoundException("cannot create shadow class: " + cl.getName(), e);
+		}
+		synchronized (TYPES) {
+			type = TYPES.putIfAbsent(cl, newType);
+		}
+		return type == null ? newType : type;
+	}
+
+	/**
+	 * Copies a shared type in a single pass: each copied element is given `factory` when it is created.
+	 * The members of the type are copied the first time they are accessed.
+	 * @return a copy of `sharedType` whose elements belong to `factory`
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> CtType<T> copy(CtType<T> sharedType, Factory factory) {
+		if (!(sharedType instanceof CtTypeImpl)) {
+			return new FactoryCloneHelper(factory, null).clone(sharedType);
+		}
+		CtTypeImpl<T> copy = (CtTypeImpl<T>) new FactoryCloneHelper(factory, sharedType).clone(sharedType);
+		List<CtTypeMember> members = sharedType.getTypeMembers();
+		copy.setLazyTypeMembers(() -> {
+			FactoryCloneHelper cloneHelper = new FactoryCloneHelper(factory, null);
+			List<CtTypeMember> copies = new ArrayList<>(members.size());
+			for (CtTypeMember member : members) {
+				copies.add(cloneHelper.clone(member));
+			}
+			return copies;
+		});
+		return copy;
+	}
+
+	/**
+	 * Clones the elements of a shared type, and gives each clone its factory.
+	 */
+	private static final class FactoryCloneHelper extends CloneHelper {
+		private final Factory factory;
+		/** the type whose members are not cloned, or null */
+		private final CtType<?> typeWithoutMembers;
+
+		FactoryCloneHelper(Factory factory, CtType<?> typeWithoutMembers) {
+			this.factory = factory;
+			this.typeWithoutMembers = typeWithoutMembers;
+		}
+
+		@Override
+		public <T extends CtElement> T clone(T element) {
+			T clone = super.clone(element);
+			if (clone != null) {
+				clone.setFactory(factory);
+			}
+			return clone;
+		}
+
+		@Override
+		public <T extends CtElement> List<T> clone(List<T> elements) {
+			if (typeWithoutMembers != null && isTypeMembers(elements)) {
+				return new ArrayList<>();
+			}
+			return super.clone(elements);
+		}
+
+		private boolean isTypeMembers(List<?> elements) {
+			List<CtTypeMember> members = typeWithoutMembers.getTypeMembers();
+			if (elements.isEmpty() || elements.size() != members.size()) {
+				return false;
+			}
+			for (int i = 0; i < elements.size(); i++) {
+				if (elements.get(i) != members.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public void tailor(CtElement topLevelElement, CtElement topLevelClone) {
+			// nothing to adapt, the clones only get their factory
+		}
+	}
+}
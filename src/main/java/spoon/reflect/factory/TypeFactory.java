@@ -16,6 +16,7 @@
  */
 package spoon.reflect.factory;
 
+import spoon.reflect.code.CtBlock;
 import spoon.reflect.code.CtNewClass;
 import spoon.reflect.declaration.CtAnnotation;
 import spoon.reflect.declaration.CtClass;
@@ -51,6 +52,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -100,6 +102,16 @@ public class TypeFactory extends SubFactory {
 
 	private final Map<Class<?>, CtType<?>> shadowCache = new ConcurrentHashMap<>();
 
+	/**
+	 * See {@link #getShadowFactory()}
+	 */
+	private Factory shadowFactory;
+
+	/**
+	 * The types already found by {@link #get(String)}, by qualified name
+	 */
+	private final Map<String, CtType<?>> typeIndex = new ConcurrentHashMap<>();
+
 	/**
 	 * Returns a reference on the null type (type of null).
 	 */
@@ -431,6 +443,13 @@ public class TypeFactory extends SubFactory {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> CtType<T> get(final String qualifiedName) {
+		CtType<T> indexed = (CtType<T>) typeIndex.get(qualifiedName);
+		if (indexed != null) {
+			if (isDeclared(indexed)) {
+				return indexed;
+			}
+			typeIndex.remove(qualifiedName, indexed);
+		}
 		int packageIndex = qualifiedName.lastIndexOf(CtPackage.PACKAGE_SEPARATOR);
 		CtPackage pack;
 		if (packageIndex > 0) {
@@ -442,6 +461,7 @@ public class TypeFactory extends SubFactory {
 		if (pack != null) {
 			CtType<T> type = pack.getType(qualifiedName.substring(packageIndex + 1));
 			if (type != null) {
+				typeIndex.put(qualifiedName, type);
 				return type;
 			}
 		}
@@ -455,40 +475,87 @@ public class TypeFactory extends SubFactory {
 			}
 			String className = qualifiedName.substring(inertTypeIndex + 1);
 			final CtTypeReference<T> reference = t.getReference();
+			CtType<T> type;
 			if (reference.isLocalType()) {
-				final List<CtClass<T>> enclosingClasses = t.getElements(new TypeFilter<CtClass<T>>(CtClass.class) {
-					@Override
-					public boolean matches(CtClass<T> element) {
-						return super.matches(element) && element.getQualifiedName().equals(qualifiedName);
-					}
-				});
-				if (enclosingClasses.isEmpty()) {
-					return null;
+				type = (CtType<T>) indexClasses(t).get(qualifiedName);
+			} else if (isAnonymousClassName(className)) {
+				type = (CtType<T>) indexClasses(t).get(qualifiedName);
+				if (type != null && !type.isAnonymous()) {
+					type = null;
 				}
-				return enclosingClasses.get(0);
+			} else {
+				type = t.getNestedType(className);
 			}
-			try {
-				// If the class name can't be parsed in integer, the method throws an exception.
-				// If the class name is an integer, the class is an anonymous class, otherwise,
-				// it is a standard class.
-				Integer.parseInt(className);
-				final List<CtNewClass> anonymousClasses = t.getElements(new TypeFilter<CtNewClass>(CtNewClass.class) {
-					@Override
-					public boolean matches(CtNewClass element) {
-						return super.matches(element) && element.getAnonymousClass().getQualifiedName().equals(qualifiedName);
-					}
-				});
-				if (anonymousClasses.isEmpty()) {
-					return null;
-				}
-				return anonymousClasses.get(0).getAnonymousClass();
-			} catch (NumberFormatException e) {
-				return t.getNestedType(className);
+			if (type != null) {
+				typeIndex.put(qualifiedName, type);
 			}
+			return type;
 		}
 		return null;
 	}
 
+	/**
+	 * Forgets the types found by {@link #get(String)}.
+	 * It is called by the model each time a type is removed or renamed.
+	 */
+	public void clearIndex() {
+		typeIndex.clear();
+	}
+
+	/**
+	 * @return true if the name of an inner type is the one of an anonymous class, that is an integer
+	 */
+	private static boolean isAnonymousClassName(String className) {
+		if (className.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < className.length(); i++) {
+			if (!Character.isDigit(className.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Indexes all the classes declared in `type`, including the local and the anonymous ones,
+	 * so that the next lookups of its local and anonymous classes do not scan it again.
+	 * @return the classes of `type` by qualified name, the first one wins when names collide
+	 */
+	private Map<String, CtClass<?>> indexClasses(CtType<?> type) {
+		Map<String, CtClass<?>> classes = new HashMap<>();
+		for (CtClass<?> ctClass : type.getElements(new TypeFilter<CtClass<?>>(CtClass.class))) {
+			classes.putIfAbsent(ctClass.getQualifiedName(), ctClass);
+		}
+		typeIndex.putAll(classes);
+		return classes;
+	}
+
+	/**
+	 * Top-level and member types leave the index when they are removed or renamed, see {@link #clearIndex()}.
+	 * Local and anonymous types may be removed together with any enclosing statement,
+	 * so they are checked to be still reachable from their closest member type.
+	 * @return true if the indexed `type` is still declared in the model
+	 */
+	private static boolean isDeclared(CtType<?> type) {
+		CtElement element = type;
+		while (!(element instanceof CtType) || isLocalOrAnonymous(element)) {
+			if (!element.isParentInitialized() || element.getRoleInParent() == null) {
+				return false;
+			}
+			element = element.getParent();
+		}
+		return true;
+	}
+
+	private static boolean isLocalOrAnonymous(CtElement type) {
+		if (!type.isParentInitialized()) {
+			return false;
+		}
+		CtElement parent = type.getParent();
+		return parent instanceof CtBlock || parent instanceof CtNewClass;
+	}
+
 	/**
 	 * Gets the list of all top-level created types.
 	 */
@@ -536,23 +603,7 @@ public class TypeFactory extends SubFactory {
 		if (aType == null) {
 			final CtType<T> shadowClass = (CtType<T>) this.shadowCache.get(cl);
 			if (shadowClass == null) {
-				CtType<T> newShadowClass;
-				try {
-					newShadowClass = new JavaReflectionTreeBuilder(createFactory()).scan((Class<T>) cl);
-				} catch (Throwable e) {
-					throw new SpoonClassNotFoundException("cannot create shadow class: " + cl.getName(), e);
-				}
-				newShadowClass.setFactory(factory);
-				newShadowClass.accept(new CtScanner() {
-					@Override
-					public void scan(CtElement element) {
-						if (element != null) {
-							element.setFactory(factory);
-						}
-					}
-				});
-				this.shadowCache.put(cl, newShadowClass);
-				return newShadowClass;
+				return createShadowType(cl);
 			} else {
 				return shadowClass;
 			}
@@ -560,6 +611,55 @@ public class TypeFactory extends SubFactory {
 		return aType;
 	}
 
+	@SuppressWarnings("unchecked")
+	private synchronized <T> CtType<T> createShadowType(Class<?> cl) {
+		CtType<T> newShadowClass = (CtType<T>) this.shadowCache.get(cl);
+		if (newShadowClass != null) {
+			//created by another thread in the meantime
+			return newShadowClass;
+		}
+		if (cl.isMemberClass()) {
+			//a nested type is created with its enclosing type, so that both are the same elements
+			CtType<?> enclosingType = get(cl.getEnclosingClass());
+			newShadowClass = enclosingType == null ? null : enclosingType.getNestedType(cl.getSimpleName());
+		}
+		if (newShadowClass == null && SharedShadowTypeCache.isShared(cl)) {
+			//a copy of the type built once for all the factories, which is cheaper than the reflection
+			CtType<T> sharedType = (CtType<T>) SharedShadowTypeCache.get(cl);
+			newShadowClass = SharedShadowTypeCache.copy(sharedType, factory);
+			getShadowFactory().Package().getOrCreate(sharedType.getPackage().getQualifiedName()).addType(newShadowClass);
+		}
+		if (newShadowClass == null) {
+			try {
+				newShadowClass = new JavaReflectionTreeBuilder(getShadowFactory()).scan((Class<T>) cl);
+			} catch (Throwable e) {
+				throw new SpoonClassNotFoundException("cannot create shadow class: " + cl.getName(), e);
+			}
+			newShadowClass.setFactory(factory);
+			newShadowClass.accept(new CtScanner() {
+				@Override
+				public void scan(CtElement element) {
+					if (element != null) {
+						element.setFactory(factory);
+					}
+				}
+			});
+		}
+		this.shadowCache.put(cl, newShadowClass);
+		return newShadowClass;
+	}
+
+	/**
+	 * @return the factory whose model contains the packages of the shadow types of this factory,
+	 * so that they are not in the model of this factory
+	 */
+	private Factory getShadowFactory() {
+		if (shadowFactory == null) {
+			shadowFactory = createFactory();
+		}
+		return shadowFactory;
+	}
+
 	/**
 	 * Gets the declaring type name for a given Java qualified name.
 	 */
@@ -121,6 +121,8 @@ import spoon.reflect.visitor.PrintingContext.Writable;
 import spoon.reflect.visitor.filter.PotentialVariableDeclarationFunction;
 import spoon.reflect.visitor.printer.CommentOffset;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
 import java.util.HashSet;
@@ -863,7 +865,8 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 				boolean isImportedField = this.isImported(f.getVariable());
 
 				if (!isInitializeStaticFinalField && !(isStaticField && isImportedField)) {
-					if (target.isImplicit() && !(f.getVariable().getFieldDeclaration() == null && this.env.getNoClasspath())) {
+					boolean isImplicitTarget = target.isImplicit();
+					if (isImplicitTarget && !(f.getVariable().getFieldDeclaration() == null && this.env.getNoClasspath())) {
 						/*
 						 * target is implicit, check whether there is no conflict with an local variable, catch variable or parameter
 						 * in case of conflict make it explicit, otherwise the field access is shadowed by that variable.
@@ -875,7 +878,9 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 							CtVariable<?> var = f.getVariable().map(new PotentialVariableDeclarationFunction(fieldName)).first();
 							if (var != field) {
 								//another variable declaration was found which is hiding the field declaration for this field access. Make the field access expicit
-								target.setImplicit(false);
+								//in the printed code only: the printer never changes the model, so that several printers can print it at the same time
+								isImplicitTarget = false;
+								_context.forceExplicit(target);
 							}
 						} else {
 							//There is a model inconsistency
@@ -883,7 +888,7 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 						}
 					}
 					// the implicit drives the separator
-					if (!target.isImplicit()) {
+					if (!isImplicitTarget) {
 						scan(target);
 						printer.writeSeparator(".");
 					}
@@ -931,7 +936,7 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 			CtTypeReference targetType = target.getAccessedType();
 
 			// readable mode as close as possible to the original code
-			if (thisAccess.isImplicit()) {
+			if (thisAccess.isImplicit() && !context.isForcedExplicit(thisAccess)) {
 				// write nothing, "this" is implicit and we unfortunately cannot always know
 				// what the good target is in JDTTreeBuilder
 				return;
@@ -1792,7 +1797,7 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 
 	@Override
 	public <T> void visitCtTypeAccess(CtTypeAccess<T> typeAccess) {
-		if (typeAccess.isImplicit()) {
+		if (typeAccess.isImplicit() && !context.isForcedExplicit(typeAccess)) {
 			return;
 		}
 		enterCtExpression(typeAccess);
@@ -1950,6 +1955,11 @@ public class DefaultJavaPrettyPrinter implements CtVisitor, PrettyPrinter {
 		return printer.getPrinterHelper().toString();
 	}
 
+	@Override
+	public void writeResult(Writer writer) throws IOException {
+		printer.getPrinterHelper().writeTo(writer);
+	}
+
 	private void reset() {
 		printer.reset();
 		context = new PrintingContext();
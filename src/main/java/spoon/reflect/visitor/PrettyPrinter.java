@@ -21,6 +21,8 @@ import spoon.reflect.declaration.CtModule;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +48,14 @@ public interface PrettyPrinter {
 	 */
 	String getResult();
 
+	/**
+	 * Writes the contents of the compilation unit to `writer`.
+	 * The printers which keep the contents in a buffer write it directly, without creating a String.
+	 */
+	default void writeResult(Writer writer) throws IOException {
+		writer.write(getResult());
+	}
+
 	/**
 	 * Calculates the resulting source file for a list of types. The source
 	 * compilation unit is required for calculating the line numbers mapping.
@@ -22,6 +22,8 @@ import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.CtElement;
 import spoon.support.reflect.cu.position.PartialSourcePositionImpl;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -287,6 +289,21 @@ public class PrinterHelper {
 		return sbf.toString();
 	}
 
+	/**
+	 * Writes the generated code to `writer` by chunks, without creating a String of the whole code.
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		int length = sbf.length();
+		char[] chunk = new char[Math.min(length, WRITE_CHUNK_SIZE)];
+		for (int start = 0; start < length; start += chunk.length) {
+			int end = Math.min(start + chunk.length, length);
+			sbf.getChars(start, end, chunk, 0);
+			writer.write(chunk, 0, end - start);
+		}
+	}
+
+	private static final int WRITE_CHUNK_SIZE = 8192;
+
 	/**
 	 * @return current line separator. By default there is CR LF, LF or CR depending on the Operation system
 	 * defined by System.getProperty("line.separator")
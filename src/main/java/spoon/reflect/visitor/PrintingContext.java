@@ -37,6 +37,7 @@ public class PrintingContext {
 
 	private long state;
 	private CtStatement statement;
+	private CtElement explicitElement;
 
 	/**
 	 * @return true if we are printing first variable declaration of CtFor statement
@@ -78,19 +79,28 @@ public class PrintingContext {
 	public boolean isStatement(CtStatement stmt) {
 		return this.statement == stmt;
 	}
+	/**
+	 * @return true if `element` has to be printed even if it is implicit
+	 */
+	public boolean isForcedExplicit(CtElement element) {
+		return this.explicitElement == element;
+	}
 
 	public class Writable implements AutoCloseable {
 		private long oldState;
 		private CtStatement oldStatement;
+		private CtElement oldExplicitElement;
 
 		protected Writable() {
 			oldState = state;
 			oldStatement = statement;
+			oldExplicitElement = explicitElement;
 		}
 		@Override
 		public void close() {
 			state = oldState;
 			statement = oldStatement;
+			explicitElement = oldExplicitElement;
 		}
 
 		/**
@@ -144,6 +154,17 @@ public class PrintingContext {
 			statement = stmt;
 			return (T) this;
 		}
+		/**
+		 * Prints `element` even if it is implicit, without changing the model.
+		 * It is used when the implicit element would be ambiguous in the printed code,
+		 * e.g. an implicit `this` of a field shadowed by a local variable.
+		 *
+		 * @param element the instance of the element, which has to be printed
+		 */
+		public <T extends Writable> T forceExplicit(CtElement element) {
+			explicitElement = element;
+			return (T) this;
+		}
 		private void setState(long mask, boolean v) {
 			state = v ? state | mask : state & ~mask;
 		}
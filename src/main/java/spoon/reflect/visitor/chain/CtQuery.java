@@ -65,6 +65,25 @@ public interface CtQuery extends CtQueryable {
 	 */
 	<R extends CtElement> CtQuery select(Filter<R> filter);
 
+	/**
+	 * Same as {@link CtQuery#filterChildren(Filter)}, but only the children which are instances of `itemClass` are given to the filter.
+	 * The type is checked before calling the filter, so no {@link ClassCastException} is needed to exclude the other children.
+	 *
+	 * @param itemClass the type of the children to select
+	 * @param filter used to filter the children of type `itemClass`. If null then all of them pass to next step.
+	 * @return this to support fluent API
+	 */
+	<R extends CtElement> CtQuery filterChildren(Class<R> itemClass, Filter<R> filter);
+
+	/**
+	 * Same as {@link CtQuery#select(Filter)}, but only the elements which are instances of `itemClass` are given to the filter.
+	 *
+	 * @param itemClass the type of the elements to select
+	 * @param filter used to detect if input element can pass to next query step. If null then all the elements of type `itemClass` pass.
+	 * @return this to support fluent API
+	 */
+	<R extends CtElement> CtQuery select(Class<R> itemClass, Filter<R> filter);
+
 	/**
 	 * Query elements based on a function, the behavior depends on the return type of the function.
 	 * <table summary="">
@@ -81,6 +100,18 @@ public interface CtQuery extends CtQueryable {
 	@Override
 	<I, R> CtQuery map(CtFunction<I, R> function);
 
+	/**
+	 * Same as {@link CtQuery#map(CtFunction)}, but `function` is only called with the inputs which are instances of `inputClass`,
+	 * the other inputs are skipped whatever the {@link QueryFailurePolicy} is.
+	 * The type is checked before each call, instead of being detected from a {@link ClassCastException},
+	 * which is faster for lambda expressions.
+	 *
+	 * @param inputClass the type of the input parameter of `function`
+	 * @param function a Function with one parameter of type I returning a value of type R
+	 * @return this to support fluent API
+	 */
+	<I, R> CtQuery map(Class<I> inputClass, CtFunction<I, R> function);
+
 	/**
 	 * Sets (binds) the input of the query.
 	 * If the query is created by {@link CtElement#map} or {@link CtElement#filterChildren(Filter)},
@@ -102,6 +133,14 @@ public interface CtQuery extends CtQueryable {
 	 */
 	<R> void forEach(CtConsumer<R> consumer);
 
+	/**
+	 * Same as {@link CtQuery#forEach(CtConsumer)}, but `consumer` only accepts the output elements which are instances of `itemClass`.
+	 *
+	 * @param itemClass the type of the elements accepted by the consumer
+	 * @param consumer The consumer which accepts the results of the query
+	 */
+	<R> void forEach(Class<R> itemClass, CtConsumer<R> consumer);
+
 	/**
 	 * Actually evaluates the query and returns all the elements produced in the last step.<br>
 	 * Note: The type R of the list is not checked by the query. So use the type, which matches the results of your query,
@@ -167,6 +206,15 @@ public interface CtQuery extends CtQueryable {
 	@Override
 	<I> CtQuery map(CtConsumableFunction<I> queryStep);
 
+	/**
+	 * Same as {@link CtQuery#map(CtConsumableFunction)}, but `queryStep` is only called with the inputs which are instances of `inputClass`.
+	 *
+	 * @param inputClass the type of the input parameter of `queryStep`
+	 * @param queryStep
+	 * @return this to support fluent API
+	 */
+	<I> CtQuery map(Class<I> inputClass, CtConsumableFunction<I> queryStep);
+
 	/**
 	 * Terminates the evaluation of this query.
 	 * The query still returns all results collected before termination.
@@ -19,9 +19,13 @@ package spoon.reflect.visitor.chain;
 import spoon.Launcher;
 import spoon.SpoonException;
 import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.visitor.Filter;
 import spoon.reflect.visitor.filter.CtScannerFunction;
+import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.modelobs.ElementKindIndex;
 import spoon.support.util.RtHelper;
 
 import java.lang.reflect.Array;
@@ -105,6 +109,15 @@ public class CtQueryImpl implements CtQuery {
 		}
 	}
 
+	@Override
+	public <R> void forEach(Class<R> itemClass, CtConsumer<R> consumer) {
+		outputStep.setNext(consumer);
+		outputStep.setInputClass(itemClass);
+		for (Object input : inputs) {
+			firstStep.accept(input);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <R extends Object> List<R> list() {
@@ -167,15 +180,42 @@ public class CtQueryImpl implements CtQuery {
 		return this;
 	}
 
+	@Override
+	public <I> CtQueryImpl map(Class<I> inputClass, CtConsumableFunction<I> code) {
+		LazyFunctionWrapper step = new LazyFunctionWrapper(code);
+		step.setInputClass(inputClass);
+		addStep(step);
+		return this;
+	}
+
+	@Override
+	public <I, R> CtQueryImpl map(Class<I> inputClass, CtFunction<I, R> function) {
+		FunctionWrapper step = new FunctionWrapper(function);
+		step.setInputClass(inputClass);
+		addStep(step);
+		return this;
+	}
+
 	@Override
 	public <R extends CtElement> CtQueryImpl filterChildren(Filter<R> filter) {
-		map(new CtScannerFunction());
+		if (filter instanceof TypeFilter) {
+			map(new ChildrenOfTypeFunction(((TypeFilter<R>) filter).getType()));
+		} else {
+			map(new CtScannerFunction());
+		}
 		if (filter != null) {
 			select(filter);
 		}
 		return this;
 	}
 
+	@Override
+	public <R extends CtElement> CtQueryImpl filterChildren(Class<R> itemClass, Filter<R> filter) {
+		map(new ChildrenOfTypeFunction(itemClass));
+		select(itemClass, filter);
+		return this;
+	}
+
 	@Override
 	public <R extends CtElement> CtQueryImpl select(final Filter<R> filter) {
 		CtFunction fnc = new CtFunction<R, Boolean>() {
@@ -192,6 +232,20 @@ public class CtQueryImpl implements CtQuery {
 		return this;
 	}
 
+	@Override
+	public <R extends CtElement> CtQueryImpl select(Class<R> itemClass, final Filter<R> filter) {
+		CtFunction<R, Boolean> fnc = new CtFunction<R, Boolean>() {
+			@Override
+			public Boolean apply(R input) {
+				return filter == null || filter.matches(input);
+			}
+		};
+		FunctionWrapper fw = new FunctionWrapper(fnc);
+		fw.setInputClass(itemClass);
+		addStep(fw);
+		return this;
+	}
+
 	@Override
 	public boolean isTerminated() {
 		return terminated;
@@ -302,6 +356,11 @@ public class CtQueryImpl implements CtQuery {
 		QueryFailurePolicy localFailurePolicy = null;
 		CtConsumer<Object> nextStep;
 		Class<?> expectedClass;
+		/**
+		 * true if {@link #expectedClass} was given by the client, so that the inputs are checked before each call
+		 * and the ones of another type are skipped, whatever the failure policy is
+		 */
+		boolean typed = false;
 		String cceStacktraceClass;
 		String cceStacktraceMethodName;
 
@@ -365,6 +424,13 @@ public class CtQueryImpl implements CtQuery {
 		 * @return true if it can be used or if we do not know that yet
 		 */
 		protected boolean isAcceptableType(Object input) {
+			if (typed) {
+				if (expectedClass.isInstance(input)) {
+					return true;
+				}
+				log(this, input.getClass().getName() + " is not an instance of " + expectedClass.getName(), input);
+				return false;
+			}
 			if (isFailOnCCE()) {
 				//do not check type if it has to fail on cce
 				return true;
@@ -388,6 +454,7 @@ public class CtQueryImpl implements CtQuery {
 		protected void onCallbackSet(String stackClass, String stackMethodName, Class<?> callbackClass, String callbackMethod, int nrOfParams, int idxOfInputParam) {
 			this.cceStacktraceClass = stackClass;
 			this.cceStacktraceMethodName = stackMethodName;
+			this.typed = false;
 			if (callbackClass.getName().indexOf("$$Lambda$") >= 0) {
 				//lambda expressions does not provide runtime information about type of input parameter
 				//clear it now. We can detect input type from first ClassCastException
@@ -401,6 +468,19 @@ public class CtQueryImpl implements CtQuery {
 			}
 		}
 
+		/**
+		 * Sets the type of the inputs accepted by the callback.
+		 * The inputs are then checked by {@link Class#isInstance(Object)} before each call, so no {@link ClassCastException} is thrown to detect it.
+		 * @param inputClass the type of the input parameter of the callback
+		 */
+		protected void setInputClass(Class<?> inputClass) {
+			if (inputClass == null) {
+				throw new SpoonException("The input class of a query step must not be null");
+			}
+			this.expectedClass = inputClass;
+			this.typed = true;
+		}
+
 		/**
 		 * Is used to log that invocation was not processed
 		 * @param e - the CCE caught during last call of callback
@@ -483,6 +563,46 @@ public class CtQueryImpl implements CtQuery {
 		}
 	}
 
+	/**
+	 * Sends the input element and its children which are instances of a type to the next step.
+	 * They are taken from the {@link ElementKindIndex} when one is attached and the input is a module or a package,
+	 * else they are found by scanning the input.
+	 */
+	private static class ChildrenOfTypeFunction implements CtConsumableFunction<CtElement>, CtQueryAware {
+		private final Class<? extends CtElement> type;
+		private final CtScannerFunction scannerFunction = new CtScannerFunction();
+		private CtQuery query;
+
+		ChildrenOfTypeFunction(Class<? extends CtElement> type) {
+			this.type = type;
+		}
+
+		@Override
+		public void apply(CtElement input, CtConsumer<Object> outputConsumer) {
+			ElementKindIndex index = null;
+			//all the elements are instances of CtElement, so the index does not help
+			if (type != CtElement.class && (input instanceof CtModule || input instanceof CtPackage)) {
+				index = ElementKindIndex.getElementKindIndex(input.getFactory().getEnvironment());
+			}
+			if (index == null) {
+				scannerFunction.apply(input, outputConsumer);
+				return;
+			}
+			for (CtElement element : index.getElements(input, type)) {
+				if (query.isTerminated()) {
+					return;
+				}
+				outputConsumer.accept(element);
+			}
+		}
+
+		@Override
+		public void setQuery(CtQuery query) {
+			this.query = query;
+			scannerFunction.setQuery(query);
+		}
+	}
+
 	/**
 	 * Called before query is evaluated again
 	 */
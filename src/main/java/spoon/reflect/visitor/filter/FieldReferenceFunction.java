@@ -20,8 +20,10 @@ import spoon.SpoonException;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtField;
 import spoon.reflect.reference.CtFieldReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.visitor.chain.CtConsumableFunction;
 import spoon.reflect.visitor.chain.CtConsumer;
+import spoon.support.modelobs.ReferenceIndex;
 
 /**
  * This Query expects a {@link CtField} as input
@@ -35,6 +37,7 @@ import spoon.reflect.visitor.chain.CtConsumer;
  *   .forEach((CtFieldReference ref)->...process references...);
  * }
  * </pre>
+ * The references are taken from the {@link ReferenceIndex} when one is attached to the environment.
  */
 public class FieldReferenceFunction implements CtConsumableFunction<CtElement> {
 	private final CtField<?> field;
@@ -61,8 +64,18 @@ public class FieldReferenceFunction implements CtConsumableFunction<CtElement> {
 		} else {
 			scope = fieldOrScope;
 		}
+		DirectReferenceFilter<CtFieldReference<?>> filter = new DirectReferenceFilter<>(field.getReference());
+		ReferenceIndex index = ReferenceIndex.getReferenceIndex(field.getFactory().getEnvironment());
+		if (index != null) {
+			for (CtReference reference : index.getReferences(scope, field.getSimpleName())) {
+				if (reference instanceof CtFieldReference && filter.matches((CtFieldReference<?>) reference)) {
+					outputConsumer.accept(reference);
+				}
+			}
+			return;
+		}
 		scope
-			.filterChildren(new DirectReferenceFilter<CtFieldReference<?>>(field.getReference()))
+			.filterChildren(filter)
 			.forEach(outputConsumer);
 	}
 }
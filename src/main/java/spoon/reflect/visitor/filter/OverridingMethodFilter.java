@@ -17,7 +17,9 @@
 package spoon.reflect.visitor.filter;
 
 import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtType;
 import spoon.reflect.visitor.Filter;
+import spoon.support.modelobs.TypeHierarchyIndex;
 
 /**
  * Gets all overriding method from the method given.
@@ -50,6 +52,18 @@ public class OverridingMethodFilter implements Filter<CtMethod<?>> {
 		if (method == element) {
 			return this.includingSelf;
 		}
+		if (!method.getSimpleName().equals(element.getSimpleName()) || method.getParameters().size() != element.getParameters().size()) {
+			//cheap checks first: an overriding method has the same name and the same number of parameters
+			return false;
+		}
+		TypeHierarchyIndex index = TypeHierarchyIndex.getTypeHierarchyIndex(method.getFactory().getEnvironment());
+		if (index != null) {
+			CtType<?> declaringType = element.getDeclaringType();
+			CtType<?> superType = method.getDeclaringType();
+			if (declaringType != null && superType != null && !index.isSubtypeOf(declaringType.getQualifiedName(), superType.getQualifiedName())) {
+				return false;
+			}
+		}
 		return element.isOverriding(method);
 	}
 }
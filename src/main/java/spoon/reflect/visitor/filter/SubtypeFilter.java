@@ -19,6 +19,7 @@ package spoon.reflect.visitor.filter;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.Filter;
+import spoon.support.modelobs.TypeHierarchyIndex;
 
 /**
  * Matches all CtType elements, which are sub type of {@link #superType}
@@ -52,6 +53,10 @@ public class SubtypeFilter extends AbstractFilter<CtType<?>> {
 			//we should not accept superType
 			return false;
 		}
+		TypeHierarchyIndex index = TypeHierarchyIndex.getTypeHierarchyIndex(mayBeSubType.getFactory().getEnvironment());
+		if (index != null && !index.isSubtypeOf(mayBeSubType.getQualifiedName(), superType.getQualifiedName())) {
+			return false;
+		}
 		return mayBeSubType.isSubtypeOf(superType);
 	}
 }
@@ -0,0 +1,1160 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import spoon.OutputType;
+import spoon.SpoonException;
+import spoon.compiler.Environment;
+import spoon.metamodel.Metamodel;
+import spoon.metamodel.MetamodelConcept;
+import spoon.metamodel.MetamodelProperty;
+import spoon.reflect.ModelStreamer;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.cu.position.BodyHolderSourcePosition;
+import spoon.reflect.cu.position.CompoundSourcePosition;
+import spoon.reflect.cu.position.DeclarationSourcePosition;
+import spoon.reflect.cu.position.NoSourcePosition;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtImport;
+import spoon.reflect.declaration.CtModifiable;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ModifierKind;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.factory.FactoryImpl;
+import spoon.reflect.meta.RoleHandler;
+import spoon.reflect.meta.impl.RoleHandlerHelper;
+import spoon.reflect.path.CtRole;
+import spoon.support.reflect.CtExtendedModifier;
+import spoon.support.reflect.cu.CompilationUnitImpl;
+import spoon.support.reflect.declaration.CtPackageImpl;
+
+/**
+ * A compact binary implementation of the model streamer.
+ *
+ * Instead of relying on Java serialization, each element is written as a
+ * descriptor of its implementation class followed by the values of its
+ * non-derived roles (see {@link Metamodel}). Strings and descriptors are
+ * interned, integers are written as variable-length values and source
+ * positions are delta-encoded. The types of each compilation unit are written
+ * in an independent section, so that sections are encoded and decoded on
+ * several threads.
+ *
+ * The metadata of elements and the cached original source code of the
+ * compilation units are not saved.
+ */
+public class BinaryModelStreamer implements ModelStreamer {
+
+	private static final int MAGIC = 0x53504D44;
+	private static final int FORMAT_VERSION = 2;
+
+	/** index of the section which holds the types without compilation unit */
+	private static final int NO_COMPILATION_UNIT = -1;
+
+	private static final int TAG_NULL = 0;
+	private static final int TAG_NEW_DESCRIPTOR = 1;
+	private static final int FIRST_DESCRIPTOR = 2;
+
+	private static final int VALUE_NULL = 0;
+	private static final int VALUE_ELEMENT = 1;
+	private static final int VALUE_STRING = 2;
+	private static final int VALUE_TRUE = 3;
+	private static final int VALUE_FALSE = 4;
+	private static final int VALUE_ENUM = 5;
+	private static final int VALUE_INTEGER = 6;
+	private static final int VALUE_LONG = 7;
+	private static final int VALUE_CHARACTER = 8;
+	private static final int VALUE_BYTE = 9;
+	private static final int VALUE_SHORT = 10;
+	private static final int VALUE_FLOAT = 11;
+	private static final int VALUE_DOUBLE = 12;
+	private static final int VALUE_LIST = 13;
+	private static final int VALUE_SET = 14;
+	private static final int VALUE_MAP = 15;
+	private static final int VALUE_POSITION = 16;
+	private static final int VALUE_MODIFIER = 17;
+
+	private static final int POSITION_NONE = 0;
+	private static final int POSITION_PARTIAL = 1;
+	private static final int POSITION_SIMPLE = 2;
+	private static final int POSITION_COMPOUND = 3;
+	private static final int POSITION_DECLARATION = 4;
+	private static final int POSITION_BODY_HOLDER = 5;
+
+	private static final Map<Class<?>, List<RoleHandler>> PERSISTED_ROLE_HANDLERS = new HashMap<>();
+
+	/**
+	 * Default constructor.
+	 */
+	public BinaryModelStreamer() {
+	}
+
+	@Override
+	public void save(Factory f, OutputStream out) throws IOException {
+		Environment env = f.getEnvironment();
+		if (env.getCompressionType() == CompressionType.GZIP) {
+			out = new GZIPOutputStream(out);
+		}
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		ElementWriter header = new ElementWriter(data, Collections.emptyMap());
+		writeEnvironment(env, header);
+
+		// the compilation units, shared by all the sections
+		Map<CompilationUnit, List<String>> unitKeys = new LinkedHashMap<>();
+		for (Map.Entry<String, CompilationUnit> entry : f.CompilationUnit().getMap().entrySet()) {
+			List<String> keys = unitKeys.get(entry.getValue());
+			if (keys == null) {
+				keys = new ArrayList<>();
+				unitKeys.put(entry.getValue(), keys);
+			}
+			keys.add(entry.getKey());
+		}
+		List<CompilationUnit> units = new ArrayList<>(unitKeys.keySet());
+		Map<CompilationUnit, Integer> unitIndexes = new IdentityHashMap<>();
+		header.writeVarInt(units.size());
+		for (CompilationUnit cu : units) {
+			unitIndexes.put(cu, unitIndexes.size());
+			List<String> keys = unitKeys.get(cu);
+			header.writeVarInt(keys.size());
+			for (String key : keys) {
+				header.writeString(key);
+			}
+			header.writeString(cu.getFile() == null ? null : cu.getFile().getPath());
+			int[] lineSeparators = cu.getLineSeparatorPositions();
+			if (lineSeparators == null) {
+				header.writeVarInt(0);
+			} else {
+				header.writeVarInt(lineSeparators.length + 1);
+				int previous = 0;
+				for (int lineSeparator : lineSeparators) {
+					header.writeSignedVarInt(lineSeparator - previous);
+					previous = lineSeparator;
+				}
+			}
+			data.writeBoolean(cu instanceof CompilationUnitImpl && ((CompilationUnitImpl) cu).isAutoImport());
+		}
+
+		// the skeleton: modules and packages, without their types
+		List<CtModule> modules = new ArrayList<>(f.Module().getAllModules());
+		CtModule unnamedModule = f.getModel().getUnnamedModule();
+		modules.removeIf(module -> module == unnamedModule);
+		modules.sort(Comparator.comparing(CtModule::getSimpleName));
+		modules.add(0, unnamedModule);
+		ElementWriter skeleton = new ElementWriter(data, unitIndexes);
+		skeleton.packageIndexes = new IdentityHashMap<>();
+		skeleton.writeVarInt(modules.size());
+		for (int i = 0; i < modules.size(); i++) {
+			if (i > 0) {
+				skeleton.writeString(modules.get(i).getSimpleName());
+			}
+			skeleton.writeElement(modules.get(i));
+		}
+		Map<CtPackage, Integer> packageIndexes = skeleton.packageIndexes;
+
+		// the types, grouped by compilation unit
+		Map<CtType<?>, Integer> declaringUnits = new IdentityHashMap<>();
+		for (CompilationUnit cu : units) {
+			for (CtType<?> type : cu.getDeclaredTypes()) {
+				declaringUnits.putIfAbsent(type, unitIndexes.get(cu));
+			}
+		}
+		Map<Integer, Section> sections = new LinkedHashMap<>();
+		for (int i = 0; i < units.size(); i++) {
+			sections.put(i, new Section(i));
+		}
+		sections.put(NO_COMPILATION_UNIT, new Section(NO_COMPILATION_UNIT));
+		List<CtPackage> packages = new ArrayList<>(packageIndexes.keySet());
+		packages.sort(Comparator.comparing(packageIndexes::get));
+		for (CtPackage ctPackage : packages) {
+			for (CtType<?> type : ctPackage.getTypes()) {
+				Integer unitIndex = declaringUnits.get(type);
+				if (unitIndex == null) {
+					unitIndex = unitIndexes.getOrDefault(type.getPosition().getCompilationUnit(), NO_COMPILATION_UNIT);
+				}
+				Section section = sections.get(unitIndex);
+				section.packageIndexes.add(packageIndexes.get(ctPackage));
+				section.types.add(type);
+			}
+		}
+		List<Section> sectionList = new ArrayList<>(sections.values());
+		// the index of the sections, so that the types are found without decoding the sections
+		skeleton.writeVarInt(sectionList.size());
+		for (Section section : sectionList) {
+			skeleton.writeSignedVarInt(section.unitIndex);
+			skeleton.writeVarInt(section.types.size());
+			for (int i = 0; i < section.types.size(); i++) {
+				skeleton.writeVarInt(section.packageIndexes.get(i));
+				skeleton.writeString(section.types.get(i).getSimpleName());
+			}
+			if (section.unitIndex >= 0) {
+				CompilationUnit cu = units.get(section.unitIndex);
+				skeleton.writeSignedVarInt(packageIndexes.getOrDefault(cu.getDeclaredPackage(), -1));
+				skeleton.writeSignedVarInt(cu.getDeclaredModule() == null ? -1 : modules.indexOf(cu.getDeclaredModule()));
+			}
+		}
+		List<byte[]> encodedSections = sectionList.parallelStream()
+				.map(section -> encodeSection(section, section.unitIndex < 0 ? null : units.get(section.unitIndex), unitIndexes))
+				.collect(Collectors.toList());
+		for (byte[] encodedSection : encodedSections) {
+			data.writeInt(encodedSection.length);
+			data.write(encodedSection);
+		}
+		data.flush();
+		data.close();
+	}
+
+	@Override
+	public Factory load(InputStream in) throws IOException {
+		return read(in, false);
+	}
+
+	/**
+	 * Loads a factory like {@link #load(InputStream)}, but the types are only decoded when they are first accessed:
+	 * a package decodes its types when they are requested (eg. by {@link spoon.reflect.factory.TypeFactory#get(String)}
+	 * or {@link spoon.reflect.CtModel#getAllTypes()}), a compilation unit when its declared types or imports are requested.
+	 * The types of a compilation unit are always decoded together.
+	 *
+	 * The returned model must not be read concurrently before all its types are decoded.
+	 */
+	public Factory loadLazily(InputStream in) throws IOException {
+		return read(in, true);
+	}
+
+	private Factory read(InputStream in, boolean lazy) throws IOException {
+		BufferedInputStream buffered = new BufferedInputStream(in, 2);
+
+		// Check if it is a GZIP
+		buffered.mark(2);
+		int[] buffer = new int[2];
+		buffer[0] = buffered.read();
+		buffer[1] = buffered.read();
+		buffered.reset();
+
+		int header = (buffer[1] << 8) | buffer[0];
+		if (header == GZIPInputStream.GZIP_MAGIC) {
+			in = new GZIPInputStream(buffered);
+		} else {
+			in = buffered;
+		}
+
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		try {
+			if (data.readInt() != MAGIC) {
+				throw new IOException("Not a binary Spoon model");
+			}
+			int version = data.readInt();
+			if (version != FORMAT_VERSION) {
+				throw new IOException("Unsupported binary Spoon model version " + version);
+			}
+			Factory f = new FactoryImpl(new DefaultCoreFactory(), new StandardEnvironment());
+			ElementReader headerReader = new ElementReader(data, f, Collections.emptyList());
+			readEnvironment(f.getEnvironment(), headerReader);
+
+			int unitCount = headerReader.readVarInt();
+			List<CompilationUnit> units = new ArrayList<>(unitCount);
+			for (int i = 0; i < unitCount; i++) {
+				CompilationUnit cu = f.Core().createCompilationUnit();
+				int keyCount = headerReader.readVarInt();
+				for (int k = 0; k < keyCount; k++) {
+					f.CompilationUnit().getMap().put(headerReader.readString(), cu);
+				}
+				String path = headerReader.readString();
+				if (path != null) {
+					cu.setFile(new File(path));
+				}
+				int lineSeparatorCount = headerReader.readVarInt() - 1;
+				if (lineSeparatorCount >= 0) {
+					int[] lineSeparators = new int[lineSeparatorCount];
+					int previous = 0;
+					for (int l = 0; l < lineSeparatorCount; l++) {
+						previous += headerReader.readSignedVarInt();
+						lineSeparators[l] = previous;
+					}
+					cu.setLineSeparatorPositions(lineSeparators);
+				}
+				boolean autoImport = data.readBoolean();
+				if (cu instanceof CompilationUnitImpl) {
+					((CompilationUnitImpl) cu).setAutoImport(autoImport);
+				}
+				units.add(cu);
+			}
+
+			ElementReader skeleton = new ElementReader(data, f, units);
+			skeleton.packages = new ArrayList<>();
+			int moduleCount = skeleton.readVarInt();
+			List<CtModule> modules = new ArrayList<>(moduleCount);
+			for (int i = 0; i < moduleCount; i++) {
+				CtModule module = i == 0 ? f.getModel().getUnnamedModule() : f.Module().getOrCreate(skeleton.readString());
+				skeleton.readElementInto(module);
+				modules.add(module);
+			}
+			List<CtPackage> packages = skeleton.packages;
+
+			int sectionCount = skeleton.readVarInt();
+			List<Section> sections = new ArrayList<>(sectionCount);
+			for (int i = 0; i < sectionCount; i++) {
+				Section section = new Section(skeleton.readSignedVarInt());
+				int typeCount = skeleton.readVarInt();
+				for (int t = 0; t < typeCount; t++) {
+					section.packageIndexes.add(skeleton.readVarInt());
+					section.typeNames.add(skeleton.readString());
+				}
+				if (section.unitIndex >= 0) {
+					CompilationUnit cu = units.get(section.unitIndex);
+					int declaredPackageIndex = skeleton.readSignedVarInt();
+					if (declaredPackageIndex >= 0) {
+						cu.setDeclaredPackage(packages.get(declaredPackageIndex));
+					}
+					int declaredModuleIndex = skeleton.readSignedVarInt();
+					if (declaredModuleIndex >= 0) {
+						cu.setDeclaredModule(modules.get(declaredModuleIndex));
+					}
+				}
+				sections.add(section);
+			}
+			for (Section section : sections) {
+				section.encoded = new byte[data.readInt()];
+				data.readFully(section.encoded);
+			}
+			data.close();
+
+			// the sub factories are lazily created, create them before decoding on several threads
+			prepareFactory(f);
+			if (lazy) {
+				new LazySections(f, units, packages, sections).install();
+				return f;
+			}
+			sections.parallelStream().forEach(section -> decodeSection(section, f, units, packages));
+			for (Section section : sections) {
+				attachSection(section, units, packages);
+			}
+			return f;
+		} catch (SpoonException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	private static void writeEnvironment(Environment env, ElementWriter out) throws IOException {
+		out.writeVarInt(env.getComplianceLevel());
+		out.writeBoolean(env.isAutoImports());
+		out.writeBoolean(env.isCommentsEnabled());
+		out.writeBoolean(env.isPreserveLineNumbers());
+		out.writeBoolean(env.isCopyResources());
+		out.writeVarInt(env.getTabulationSize());
+		out.writeBoolean(env.isUsingTabulations());
+		out.writeBoolean(env.shouldCompile());
+		out.writeBoolean(env.checksAreSkipped());
+		out.writeString(env.getEncoding().name());
+		out.writeString(env.getOutputType().name());
+		out.writeString(env.getCompressionType().name());
+		out.writeVarInt(env.getBuildingThreads());
+	}
+
+	private static void readEnvironment(Environment env, ElementReader in) throws IOException {
+		env.setComplianceLevel(in.readVarInt());
+		env.setAutoImports(in.readBoolean());
+		env.setCommentEnabled(in.readBoolean());
+		env.setPreserveLineNumbers(in.readBoolean());
+		env.setCopyResources(in.readBoolean());
+		env.setTabulationSize(in.readVarInt());
+		env.useTabulations(in.readBoolean());
+		env.setShouldCompile(in.readBoolean());
+		env.setSelfChecks(in.readBoolean());
+		env.setEncoding(Charset.forName(in.readString()));
+		env.setOutputType(OutputType.valueOf(in.readString()));
+		env.setCompressionType(CompressionType.valueOf(in.readString()));
+		env.setBuildingThreads(in.readVarInt());
+	}
+
+	private static void prepareFactory(Factory f) {
+		((FactoryImpl) f).createSubFactories();
+		Metamodel.getInstance();
+	}
+
+	private static byte[] encodeSection(Section section, CompilationUnit cu, Map<CompilationUnit, Integer> unitIndexes) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ElementWriter out = new ElementWriter(new DataOutputStream(bytes), unitIndexes);
+		try {
+			Map<CtType<?>, Integer> typeIndexes = new IdentityHashMap<>();
+			for (int i = 0; i < section.types.size(); i++) {
+				out.writeElement(section.types.get(i));
+				typeIndexes.put(section.types.get(i), i);
+			}
+			if (cu != null) {
+				List<Integer> declaredTypeIndexes = new ArrayList<>();
+				for (CtType<?> type : cu.getDeclaredTypes()) {
+					Integer index = typeIndexes.get(type);
+					if (index != null) {
+						declaredTypeIndexes.add(index);
+					}
+				}
+				out.writeVarInt(declaredTypeIndexes.size());
+				for (int index : declaredTypeIndexes) {
+					out.writeVarInt(index);
+				}
+				out.writeValue(cu.getImports());
+			}
+			out.out.flush();
+		} catch (IOException e) {
+			throw new SpoonException("Cannot encode the types of " + cu, e);
+		}
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void decodeSection(Section section, Factory f, List<CompilationUnit> units, List<CtPackage> packages) {
+		ElementReader in = new ElementReader(new DataInputStream(new ByteArrayInputStream(section.encoded)), f, units);
+		try {
+			for (int packageIndex : section.packageIndexes) {
+				section.types.add((CtType<?>) in.readElement(packages.get(packageIndex)));
+			}
+			if (section.unitIndex >= 0) {
+				int declaredTypeCount = in.readVarInt();
+				for (int i = 0; i < declaredTypeCount; i++) {
+					section.declaredTypeIndexes.add(in.readVarInt());
+				}
+				Object imports = in.readValue(null);
+				if (imports != null) {
+					section.imports = (Set<CtImport>) imports;
+				}
+			}
+			section.encoded = null;
+		} catch (IOException e) {
+			throw new SpoonException("Cannot decode a section of the binary model", e);
+		}
+	}
+
+	/**
+	 * Adds the decoded types of `section` to their packages and compilation unit
+	 */
+	private static void attachSection(Section section, List<CompilationUnit> units, List<CtPackage> packages) {
+		for (int i = 0; i < section.types.size(); i++) {
+			packages.get(section.packageIndexes.get(i)).addType(section.types.get(i));
+		}
+		if (section.unitIndex < 0) {
+			return;
+		}
+		CompilationUnit cu = units.get(section.unitIndex);
+		List<CtType<?>> declaredTypes = new ArrayList<>(section.declaredTypeIndexes.size());
+		for (int index : section.declaredTypeIndexes) {
+			declaredTypes.add(section.types.get(index));
+		}
+		cu.setDeclaredTypes(declaredTypes);
+		if (!section.imports.isEmpty()) {
+			cu.setImports(section.imports);
+		}
+	}
+
+	/**
+	 * @return the role handlers of the non-derived and settable roles of `elementClass`, values first then children, in role order.
+	 * The position is excluded, it is written separately.
+	 */
+	private static List<RoleHandler> getPersistedRoleHandlers(Class<?> elementClass) {
+		synchronized (PERSISTED_ROLE_HANDLERS) {
+			List<RoleHandler> handlers = PERSISTED_ROLE_HANDLERS.get(elementClass);
+			if (handlers == null) {
+				MetamodelConcept concept = getConcept(elementClass);
+				List<RoleHandler> valueHandlers = new ArrayList<>();
+				List<RoleHandler> elementHandlers = new ArrayList<>();
+				for (CtRole role : CtRole.values()) {
+					if (role == CtRole.POSITION) {
+						continue;
+					}
+					@SuppressWarnings("unchecked")
+					RoleHandler handler = RoleHandlerHelper.getOptionalRoleHandler((Class<? extends CtElement>) elementClass, role);
+					if (handler == null) {
+						continue;
+					}
+					MetamodelProperty property = concept.getProperty(role);
+					if (property == null || property.isDerived() || property.isUnsettable()) {
+						continue;
+					}
+					if (CtElement.class.isAssignableFrom(handler.getValueClass())) {
+						elementHandlers.add(handler);
+					} else {
+						valueHandlers.add(handler);
+					}
+				}
+				handlers = new ArrayList<>(valueHandlers);
+				handlers.addAll(elementHandlers);
+				PERSISTED_ROLE_HANDLERS.put(elementClass, handlers);
+			}
+			return handlers;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static MetamodelConcept getConcept(Class<?> elementClass) {
+		Class<?> clazz = elementClass;
+		while (clazz != null && CtElement.class.isAssignableFrom(clazz)) {
+			try {
+				return Metamodel.getInstance().getConcept((Class<? extends CtElement>) clazz);
+			} catch (SpoonException e) {
+				clazz = clazz.getSuperclass();
+			}
+		}
+		throw new SpoonException("There is no Spoon metamodel concept for class " + elementClass.getName());
+	}
+
+	/**
+	 * @return the class which is instantiated when `elementClass` is read back, anonymous and local classes cannot be instantiated
+	 */
+	private static Class<?> getPersistedClass(Class<?> elementClass) {
+		Class<?> clazz = elementClass;
+		while (clazz.isAnonymousClass() || clazz.isLocalClass()) {
+			clazz = clazz.getSuperclass();
+		}
+		return clazz;
+	}
+
+	private static boolean isEmpty(Object value) {
+		if (value == null) {
+			return true;
+		}
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).isEmpty();
+		}
+		if (value instanceof Map) {
+			return ((Map<?, ?>) value).isEmpty();
+		}
+		return false;
+	}
+
+	/**
+	 * The types of one compilation unit, with the information needed to attach them back
+	 */
+	private static class Section {
+		final int unitIndex;
+		final List<Integer> packageIndexes = new ArrayList<>();
+		/** the simple names of the types, as read from the index of the sections */
+		final List<String> typeNames = new ArrayList<>();
+		/** the encoded types, null once they are decoded */
+		byte[] encoded;
+		final List<CtType<?>> types = new ArrayList<>();
+		final List<Integer> declaredTypeIndexes = new ArrayList<>();
+		Set<CtImport> imports = Collections.emptySet();
+
+		Section(int unitIndex) {
+			this.unitIndex = unitIndex;
+		}
+	}
+
+	/**
+	 * Decodes the sections of a lazily loaded model when their types are first accessed
+	 */
+	private static class LazySections implements LazyTypeLoader {
+		final Factory factory;
+		final List<CompilationUnit> units;
+		final List<CtPackage> packages;
+		final Map<CtPackage, Map<String, Section>> sectionsByPackage = new IdentityHashMap<>();
+		final Map<CompilationUnit, Section> sectionsByUnit = new IdentityHashMap<>();
+
+		LazySections(Factory factory, List<CompilationUnit> units, List<CtPackage> packages, List<Section> sections) {
+			this.factory = factory;
+			this.units = units;
+			this.packages = packages;
+			for (Section section : sections) {
+				for (int i = 0; i < section.typeNames.size(); i++) {
+					sectionsByPackage.computeIfAbsent(packages.get(section.packageIndexes.get(i)), p -> new HashMap<>())
+						.put(section.typeNames.get(i), section);
+				}
+				if (section.unitIndex >= 0) {
+					sectionsByUnit.put(units.get(section.unitIndex), section);
+				}
+			}
+		}
+
+		void install() {
+			for (CtPackage ctPackage : sectionsByPackage.keySet()) {
+				((CtPackageImpl) ctPackage).setLazyTypeLoader(this);
+			}
+			for (CompilationUnit cu : sectionsByUnit.keySet()) {
+				((CompilationUnitImpl) cu).setLazyTypeLoader(this);
+			}
+		}
+
+		@Override
+		public synchronized void loadTypes(CtPackage ctPackage, String simpleName) {
+			Map<String, Section> sections = sectionsByPackage.get(ctPackage);
+			if (sections == null) {
+				return;
+			}
+			if (simpleName == null) {
+				for (Section section : new ArrayList<>(sections.values())) {
+					load(section);
+				}
+			} else {
+				Section section = sections.get(simpleName);
+				if (section != null) {
+					load(section);
+				}
+			}
+		}
+
+		@Override
+		public synchronized void loadTypes(CompilationUnit cu) {
+			Section section = sectionsByUnit.get(cu);
+			if (section != null) {
+				load(section);
+			}
+		}
+
+		private void load(Section section) {
+			// unregister the section first, attaching its types calls back the package and the compilation unit
+			for (int i = 0; i < section.typeNames.size(); i++) {
+				CtPackage ctPackage = packages.get(section.packageIndexes.get(i));
+				Map<String, Section> sections = sectionsByPackage.get(ctPackage);
+				if (sections == null) {
+					continue;
+				}
+				sections.remove(section.typeNames.get(i), section);
+				if (sections.isEmpty()) {
+					sectionsByPackage.remove(ctPackage);
+					((CtPackageImpl) ctPackage).setLazyTypeLoader(null);
+				}
+			}
+			if (section.unitIndex >= 0) {
+				CompilationUnit cu = units.get(section.unitIndex);
+				sectionsByUnit.remove(cu);
+				((CompilationUnitImpl) cu).setLazyTypeLoader(null);
+			}
+			decodeSection(section, factory, units, packages);
+			attachSection(section, units, packages);
+		}
+	}
+
+	/**
+	 * Writes elements and values, with its own tables of strings and descriptors
+	 */
+	private static class ElementWriter {
+		final DataOutputStream out;
+		final Map<CompilationUnit, Integer> unitIndexes;
+		final Map<String, Integer> strings = new HashMap<>();
+		final Map<Class<?>, Integer> descriptors = new HashMap<>();
+		/** when not null, collects the written packages in stream order */
+		Map<CtPackage, Integer> packageIndexes;
+
+		ElementWriter(DataOutputStream out, Map<CompilationUnit, Integer> unitIndexes) {
+			this.out = out;
+			this.unitIndexes = unitIndexes;
+		}
+
+		void writeVarInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+
+		void writeSignedVarInt(int value) throws IOException {
+			writeVarInt((value << 1) ^ (value >> 31));
+		}
+
+		void writeSignedVarLong(long value) throws IOException {
+			long zigzag = (value << 1) ^ (value >> 63);
+			while ((zigzag & ~0x7FL) != 0) {
+				out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+				zigzag >>>= 7;
+			}
+			out.writeByte((int) zigzag);
+		}
+
+		void writeBoolean(boolean value) throws IOException {
+			out.writeBoolean(value);
+		}
+
+		/**
+		 * Writes 0 for null, the index + 1 of an already written string or the new string
+		 */
+		void writeString(String value) throws IOException {
+			if (value == null) {
+				writeVarInt(0);
+				return;
+			}
+			Integer index = strings.get(value);
+			if (index != null) {
+				writeVarInt(index + 1);
+				return;
+			}
+			strings.put(value, strings.size());
+			writeVarInt(strings.size());
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length);
+			out.write(bytes);
+		}
+
+		void writeElement(CtElement element) throws IOException {
+			if (element == null) {
+				writeVarInt(TAG_NULL);
+				return;
+			}
+			Class<?> elementClass = getPersistedClass(element.getClass());
+			List<RoleHandler> handlers = getPersistedRoleHandlers(elementClass);
+			Integer descriptor = descriptors.get(elementClass);
+			if (descriptor == null) {
+				descriptors.put(elementClass, FIRST_DESCRIPTOR + descriptors.size());
+				writeVarInt(TAG_NEW_DESCRIPTOR);
+				writeString(elementClass.getName());
+				writeVarInt(handlers.size());
+				for (RoleHandler handler : handlers) {
+					writeString(handler.getRole().name());
+				}
+			} else {
+				writeVarInt(descriptor);
+			}
+			if (packageIndexes != null && element instanceof CtPackage) {
+				packageIndexes.put((CtPackage) element, packageIndexes.size());
+			}
+			writePosition(element.getPosition());
+			for (RoleHandler handler : handlers) {
+				CtRole role = handler.getRole();
+				if (role == CtRole.CONTAINED_TYPE && element instanceof CtPackage) {
+					// the types are written in the sections of their compilation units
+					writeValue(Collections.emptySet());
+				} else if (role == CtRole.MODIFIER && element instanceof CtModifiable) {
+					// keep the implicit modifiers and their positions
+					writeValue(new ArrayList<>(((CtModifiable) element).getExtendedModifiers()));
+				} else {
+					writeValue(handler.getValue(element));
+				}
+			}
+		}
+
+		void writeValue(Object value) throws IOException {
+			if (value == null) {
+				writeVarInt(VALUE_NULL);
+			} else if (value instanceof CtElement) {
+				writeVarInt(VALUE_ELEMENT);
+				writeElement((CtElement) value);
+			} else if (value instanceof String) {
+				writeVarInt(VALUE_STRING);
+				writeString((String) value);
+			} else if (value instanceof Boolean) {
+				writeVarInt((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+			} else if (value instanceof Enum) {
+				writeVarInt(VALUE_ENUM);
+				writeString(((Enum<?>) value).getDeclaringClass().getName());
+				writeString(((Enum<?>) value).name());
+			} else if (value instanceof Integer) {
+				writeVarInt(VALUE_INTEGER);
+				writeSignedVarInt((Integer) value);
+			} else if (value instanceof Long) {
+				writeVarInt(VALUE_LONG);
+				writeSignedVarLong((Long) value);
+			} else if (value instanceof Character) {
+				writeVarInt(VALUE_CHARACTER);
+				writeVarInt((Character) value);
+			} else if (value instanceof Byte) {
+				writeVarInt(VALUE_BYTE);
+				out.writeByte((Byte) value);
+			} else if (value instanceof Short) {
+				writeVarInt(VALUE_SHORT);
+				writeSignedVarInt((Short) value);
+			} else if (value instanceof Float) {
+				writeVarInt(VALUE_FLOAT);
+				out.writeFloat((Float) value);
+			} else if (value instanceof Double) {
+				writeVarInt(VALUE_DOUBLE);
+				out.writeDouble((Double) value);
+			} else if (value instanceof Set) {
+				writeVarInt(VALUE_SET);
+				writeCollection((Set<?>) value);
+			} else if (value instanceof Collection) {
+				writeVarInt(VALUE_LIST);
+				writeCollection((Collection<?>) value);
+			} else if (value instanceof Map) {
+				writeVarInt(VALUE_MAP);
+				Map<?, ?> map = (Map<?, ?>) value;
+				writeVarInt(map.size());
+				for (Map.Entry<?, ?> entry : map.entrySet()) {
+					writeValue(entry.getKey());
+					writeValue(entry.getValue());
+				}
+			} else if (value instanceof SourcePosition) {
+				writeVarInt(VALUE_POSITION);
+				writePosition((SourcePosition) value);
+			} else if (value instanceof CtExtendedModifier) {
+				CtExtendedModifier modifier = (CtExtendedModifier) value;
+				writeVarInt(VALUE_MODIFIER);
+				writeString(modifier.getKind().name());
+				writeBoolean(modifier.isImplicit());
+				writePosition(modifier.getPosition());
+			} else {
+				throw new SpoonException("Cannot write a value of type " + value.getClass().getName());
+			}
+		}
+
+		void writeCollection(Collection<?> values) throws IOException {
+			writeVarInt(values.size());
+			for (Object value : values) {
+				writeValue(value);
+			}
+		}
+
+		void writePosition(SourcePosition position) throws IOException {
+			Integer unitIndex = position == null ? null : unitIndexes.get(position.getCompilationUnit());
+			if (unitIndex == null) {
+				writeVarInt(POSITION_NONE);
+				return;
+			}
+			if (position instanceof BodyHolderSourcePosition) {
+				BodyHolderSourcePosition bodyHolder = (BodyHolderSourcePosition) position;
+				writeVarInt(POSITION_BODY_HOLDER);
+				writeDeclaration(unitIndex, bodyHolder);
+				writeSignedVarInt(bodyHolder.getBodyStart() - bodyHolder.getNameEnd());
+				writeSignedVarInt(bodyHolder.getBodyEnd() - bodyHolder.getBodyStart());
+			} else if (position instanceof DeclarationSourcePosition) {
+				writeVarInt(POSITION_DECLARATION);
+				writeDeclaration(unitIndex, (DeclarationSourcePosition) position);
+			} else if (position instanceof CompoundSourcePosition) {
+				writeVarInt(POSITION_COMPOUND);
+				writeCompound(unitIndex, (CompoundSourcePosition) position);
+			} else if (position instanceof NoSourcePosition) {
+				writeVarInt(POSITION_PARTIAL);
+				writeVarInt(unitIndex);
+			} else {
+				writeVarInt(POSITION_SIMPLE);
+				writeVarInt(unitIndex);
+				writeVarInt(position.getSourceStart());
+				writeSignedVarInt(position.getSourceEnd() - position.getSourceStart());
+			}
+		}
+
+		void writeCompound(int unitIndex, CompoundSourcePosition position) throws IOException {
+			writeVarInt(unitIndex);
+			writeVarInt(position.getSourceStart());
+			writeSignedVarInt(position.getSourceEnd() - position.getSourceStart());
+			writeSignedVarInt(position.getNameStart() - position.getSourceStart());
+			writeSignedVarInt(position.getNameEnd() - position.getNameStart());
+		}
+
+		void writeDeclaration(int unitIndex, DeclarationSourcePosition position) throws IOException {
+			writeCompound(unitIndex, position);
+			writeSignedVarInt(position.getModifierSourceStart() - position.getSourceStart());
+			writeSignedVarInt(position.getModifierSourceEnd() - position.getModifierSourceStart());
+		}
+	}
+
+	/**
+	 * Reads the elements and values written by {@link ElementWriter}
+	 */
+	private static class ElementReader {
+		final DataInputStream in;
+		final Factory factory;
+		final List<CompilationUnit> units;
+		final List<String> strings = new ArrayList<>();
+		final List<Descriptor> descriptors = new ArrayList<>();
+		/** when not null, collects the read packages in stream order */
+		List<CtPackage> packages;
+
+		ElementReader(DataInputStream in, Factory factory, List<CompilationUnit> units) {
+			this.in = in;
+			this.factory = factory;
+			this.units = units;
+		}
+
+		int readVarInt() throws IOException {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		int readSignedVarInt() throws IOException {
+			int zigzag = readVarInt();
+			return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+
+		long readSignedVarLong() throws IOException {
+			long zigzag = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = in.readUnsignedByte();
+				zigzag |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+
+		boolean readBoolean() throws IOException {
+			return in.readBoolean();
+		}
+
+		String readString() throws IOException {
+			int index = readVarInt();
+			if (index == 0) {
+				return null;
+			}
+			if (index <= strings.size()) {
+				return strings.get(index - 1);
+			}
+			byte[] bytes = new byte[readVarInt()];
+			in.readFully(bytes);
+			String value = new String(bytes, StandardCharsets.UTF_8);
+			strings.add(value);
+			return value;
+		}
+
+		Descriptor readDescriptor() throws IOException {
+			int tag = readVarInt();
+			if (tag == TAG_NULL) {
+				return null;
+			}
+			if (tag != TAG_NEW_DESCRIPTOR) {
+				return descriptors.get(tag - FIRST_DESCRIPTOR);
+			}
+			String className = readString();
+			int roleCount = readVarInt();
+			Descriptor descriptor = new Descriptor();
+			descriptor.roles = new CtRole[roleCount];
+			descriptor.handlers = new RoleHandler[roleCount];
+			try {
+				descriptor.constructor = Class.forName(className).getDeclaredConstructor();
+				descriptor.constructor.setAccessible(true);
+			} catch (ClassNotFoundException | NoSuchMethodException e) {
+				throw new SpoonException("Cannot instantiate " + className, e);
+			}
+			List<RoleHandler> persistedHandlers = getPersistedRoleHandlers(descriptor.constructor.getDeclaringClass());
+			for (int i = 0; i < roleCount; i++) {
+				CtRole role = CtRole.fromName(readString());
+				descriptor.roles[i] = role;
+				for (RoleHandler handler : persistedHandlers) {
+					if (handler.getRole() == role) {
+						descriptor.handlers[i] = handler;
+					}
+				}
+			}
+			descriptors.add(descriptor);
+			return descriptor;
+		}
+
+		CtElement readElement(CtElement parent) throws IOException {
+			Descriptor descriptor = readDescriptor();
+			if (descriptor == null) {
+				return null;
+			}
+			CtElement element;
+			try {
+				element = (CtElement) descriptor.constructor.newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new SpoonException("Cannot instantiate " + descriptor.constructor.getDeclaringClass().getName(), e);
+			}
+			element.setFactory(factory);
+			if (parent != null) {
+				element.setParent(parent);
+			}
+			readRoles(descriptor, element);
+			return element;
+		}
+
+		/**
+		 * Reads an element into an already existing instance, eg. the unnamed module
+		 */
+		void readElementInto(CtElement element) throws IOException {
+			Descriptor descriptor = readDescriptor();
+			if (descriptor == null) {
+				throw new SpoonException("Missing element " + element);
+			}
+			readRoles(descriptor, element);
+		}
+
+		@SuppressWarnings("unchecked")
+		void readRoles(Descriptor descriptor, CtElement element) throws IOException {
+			if (packages != null && element instanceof CtPackage) {
+				packages.add((CtPackage) element);
+			}
+			SourcePosition position = readPosition();
+			if (position != SourcePosition.NOPOSITION) {
+				element.setPosition(position);
+			}
+			for (int i = 0; i < descriptor.roles.length; i++) {
+				Object value = readValue(element);
+				RoleHandler handler = descriptor.handlers[i];
+				if (handler == null) {
+					// the role is not known or derived in this version of Spoon
+					continue;
+				}
+				if (descriptor.roles[i] == CtRole.MODIFIER && element instanceof CtModifiable) {
+					if (!isEmpty(value)) {
+						((CtModifiable) element).setExtendedModifiers(new LinkedHashSet<>((List<CtExtendedModifier>) value));
+					}
+					continue;
+				}
+				if (isEmpty(value) && isEmpty(handler.getValue(element))) {
+					continue;
+				}
+				handler.setValue(element, value);
+			}
+		}
+
+		/**
+		 * @param owner the parent of the read elements
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Object readValue(CtElement owner) throws IOException {
+			int tag = readVarInt();
+			switch (tag) {
+			case VALUE_NULL:
+				return null;
+			case VALUE_ELEMENT:
+				return readElement(owner);
+			case VALUE_STRING:
+				return readString();
+			case VALUE_TRUE:
+				return Boolean.TRUE;
+			case VALUE_FALSE:
+				return Boolean.FALSE;
+			case VALUE_ENUM:
+				String enumClassName = readString();
+				String constantName = readString();
+				try {
+					return Enum.valueOf((Class<? extends Enum>) Class.forName(enumClassName), constantName);
+				} catch (ClassNotFoundException e) {
+					throw new SpoonException("Cannot load enum " + enumClassName, e);
+				}
+			case VALUE_INTEGER:
+				return readSignedVarInt();
+			case VALUE_LONG:
+				return readSignedVarLong();
+			case VALUE_CHARACTER:
+				return (char) readVarInt();
+			case VALUE_BYTE:
+				return in.readByte();
+			case VALUE_SHORT:
+				return (short) readSignedVarInt();
+			case VALUE_FLOAT:
+				return in.readFloat();
+			case VALUE_DOUBLE:
+				return in.readDouble();
+			case VALUE_LIST: {
+				int size = readVarInt();
+				List<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					list.add(readValue(owner));
+				}
+				return list;
+			}
+			case VALUE_SET: {
+				int size = readVarInt();
+				Set<Object> set = new LinkedHashSet<>();
+				for (int i = 0; i < size; i++) {
+					set.add(readValue(owner));
+				}
+				return set;
+			}
+			case VALUE_MAP: {
+				int size = readVarInt();
+				Map<Object, Object> map = new LinkedHashMap<>();
+				for (int i = 0; i < size; i++) {
+					Object key = readValue(owner);
+					map.put(key, readValue(owner));
+				}
+				return map;
+			}
+			case VALUE_POSITION:
+				return readPosition();
+			case VALUE_MODIFIER:
+				CtExtendedModifier modifier = new CtExtendedModifier(ModifierKind.valueOf(readString()), readBoolean());
+				SourcePosition position = readPosition();
+				if (position != SourcePosition.NOPOSITION) {
+					modifier.setPosition(position);
+				}
+				return modifier;
+			default:
+				throw new SpoonException("Unexpected value tag " + tag);
+			}
+		}
+
+		SourcePosition readPosition() throws IOException {
+			int kind = readVarInt();
+			if (kind == POSITION_NONE) {
+				return SourcePosition.NOPOSITION;
+			}
+			CompilationUnit cu = units.get(readVarInt());
+			if (kind == POSITION_PARTIAL) {
+				return factory.Core().createPartialSourcePosition(cu);
+			}
+			int start = readVarInt();
+			int end = start + readSignedVarInt();
+			if (kind == POSITION_SIMPLE) {
+				return factory.Core().createSourcePosition(cu, start, end, cu.getLineSeparatorPositions());
+			}
+			int nameStart = start + readSignedVarInt();
+			int nameEnd = nameStart + readSignedVarInt();
+			if (kind == POSITION_COMPOUND) {
+				return factory.Core().createCompoundSourcePosition(cu, nameStart, nameEnd, start, end, cu.getLineSeparatorPositions());
+			}
+			int modifierStart = start + readSignedVarInt();
+			int modifierEnd = modifierStart + readSignedVarInt();
+			if (kind == POSITION_DECLARATION) {
+				return factory.Core().createDeclarationSourcePosition(cu, nameStart, nameEnd, modifierStart, modifierEnd, start, end, cu.getLineSeparatorPositions());
+			}
+			int bodyStart = nameEnd + readSignedVarInt();
+			int bodyEnd = bodyStart + readSignedVarInt();
+			return factory.Core().createBodyHolderSourcePosition(cu, nameStart, nameEnd, modifierStart, modifierEnd, start, end, bodyStart, bodyEnd, cu.getLineSeparatorPositions());
+		}
+	}
+
+	/**
+	 * How to instantiate an element and set the values of its roles
+	 */
+	private static class Descriptor {
+		Constructor<?> constructor;
+		CtRole[] roles;
+		/** the handlers of the roles, null for a role which is not known or derived */
+		RoleHandler[] handlers;
+	}
+}
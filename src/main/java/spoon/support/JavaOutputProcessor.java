@@ -30,15 +30,29 @@ import spoon.reflect.declaration.CtType;
 import spoon.reflect.visitor.PrettyPrinter;
 import spoon.support.compiler.SpoonProgress;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 /**
  * A processor that generates compilable Java source files from the meta-model.
@@ -48,6 +62,16 @@ public class JavaOutputProcessor extends AbstractProcessor<CtNamedElement> imple
 
 	List<File> printedFiles = new ArrayList<>();
 
+	/**
+	 * creates the printers used to print on several threads, see {@link Environment#getPrintingThreads()}
+	 */
+	Supplier<? extends PrettyPrinter> prettyPrinterCreator;
+
+	/**
+	 * the top-level types which are printed in parallel when the processing is done
+	 */
+	List<CtType<?>> pendingTypes = new ArrayList<>();
+
 	/**
 	 * @param printer  the PrettyPrinter to use for written the files
 	 */
@@ -70,6 +94,14 @@ public class JavaOutputProcessor extends AbstractProcessor<CtNamedElement> imple
 		return printer;
 	}
 
+	/**
+	 * Sets the creator of the printers used when the files are printed on several threads, see {@link Environment#getPrintingThreads()}.
+	 * Without it, the files are printed sequentially with {@link #getPrinter()}.
+	 */
+	public void setPrettyPrinterCreator(Supplier<? extends PrettyPrinter> prettyPrinterCreator) {
+		this.prettyPrinterCreator = prettyPrinterCreator;
+	}
+
 	public List<File> getCreatedFiles() {
 		return printedFiles;
 	}
@@ -112,31 +144,169 @@ public class JavaOutputProcessor extends AbstractProcessor<CtNamedElement> imple
 		}
 
 		CompilationUnit cu = this.getFactory().CompilationUnit().getOrCreate(element);
-		List<CtType<?>> toBePrinted = new ArrayList<>();
-		toBePrinted.add(element);
+		File file = typePath.toFile();
+		try {
+			Map<Integer, Integer> lineNumberMapping = printJavaFile(printer, element, cu, file, getEnvironment().getEncoding());
+			addPrintedFile(file, element, lineNumberMapping);
+		} catch (IOException e) {
+			Launcher.LOGGER.error(e.getMessage(), e);
+		}
+		if (getEnvironment().getSpoonProgress() != null) {
+			getEnvironment().getSpoonProgress().step(SpoonProgress.Process.PRINT, element.getQualifiedName());
+		}
+	}
 
-		printer.calculate(cu, toBePrinted);
+	/**
+	 * Creates the Java files of the given top-level types on a pool of {@link Environment#getPrintingThreads()} threads.
+	 * Each thread has its own printer, created by {@link #setPrettyPrinterCreator(Supplier)}.
+	 * The printers do not change the model, so the printed files are the same as the ones printed by {@link #createJavaFile(CtType)}.
+	 */
+	public void createJavaFiles(List<CtType<?>> types) {
+		if (prettyPrinterCreator == null) {
+			throw new SpoonException("A pretty printer creator is needed to print in parallel");
+		}
+		if (types.isEmpty()) {
+			return;
+		}
+		int nbThreads = Math.min(getEnvironment().getPrintingThreads(), types.size());
+		final ThreadLocal<PrettyPrinter> printers = ThreadLocal.withInitial(prettyPrinterCreator);
+		final Charset encoding = getEnvironment().getEncoding();
 
+		// the folders and the compilation units are created on the calling thread, because they are shared
+		List<File> files = new ArrayList<>(types.size());
+		List<Callable<Map<Integer, Integer>>> tasks = new ArrayList<>(types.size());
+		for (CtType<?> type : types) {
+			if (!type.isTopLevel()) {
+				throw new IllegalArgumentException();
+			}
+			final File file = getElementPath(type).toFile();
+			final CompilationUnit cu = this.getFactory().CompilationUnit().getOrCreate(type);
+			files.add(file);
+			tasks.add(() -> printJavaFile(printers.get(), type, cu, file, encoding));
+		}
 
+		ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
 		try {
-			File file = typePath.toFile();
-			file.createNewFile();
-			if (!printedFiles.contains(file)) {
-				printedFiles.add(file);
+			List<Future<Map<Integer, Integer>>> results = executor.invokeAll(tasks);
+			for (int i = 0; i < results.size(); i++) {
+				CtType<?> type = types.get(i);
+				try {
+					addPrintedFile(files.get(i), type, results.get(i).get());
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						Launcher.LOGGER.error(e.getCause().getMessage(), e.getCause());
+					} else if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					} else {
+						throw new SpoonException(e.getCause());
+					}
+				}
+				if (getEnvironment().getSpoonProgress() != null) {
+					getEnvironment().getSpoonProgress().step(SpoonProgress.Process.PRINT, type.getQualifiedName());
+				}
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpoonException("Interrupted while printing", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Prints `type` into `file` using `printer`.
+	 * The printed code is streamed to the file, which is not written when it already has this content.
+	 * @return the line number mapping of the printed type
+	 */
+	private static Map<Integer, Integer> printJavaFile(PrettyPrinter printer, CtType<?> type, CompilationUnit cu, File file, Charset encoding) throws IOException {
+		List<CtType<?>> toBePrinted = new ArrayList<>();
+		toBePrinted.add(type);
+
+		printer.calculate(cu, toBePrinted);
+
+		// an unchanged file keeps its modification time, so that it is not compiled again by incremental compilers
+		if (!hasContent(file, printer, encoding)) {
 			// print type
-			try (PrintStream stream = new PrintStream(file)) {
-				stream.print(printer.getResult());
-				for (CtType<?> t : toBePrinted) {
-					lineNumberMappings.put(t.getQualifiedName(), printer.getLineNumberMapping());
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), encoding))) {
+				printer.writeResult(writer);
+			}
+		}
+		return printer.getLineNumberMapping();
+	}
+
+	/**
+	 * @return true if `file` exists and contains the result of `printer`
+	 */
+	private static boolean hasContent(File file, PrettyPrinter printer, Charset encoding) throws IOException {
+		if (!file.isFile()) {
+			return false;
+		}
+		try (ContentCheckingWriter checker = new ContentCheckingWriter(new InputStreamReader(new FileInputStream(file), encoding))) {
+			printer.writeResult(checker);
+			return checker.hasSameContent();
+		}
+	}
+
+	/**
+	 * A writer which compares the written characters with the ones of a reader, instead of writing them
+	 */
+	private static class ContentCheckingWriter extends Writer {
+		private final Reader reader;
+		private char[] buffer = new char[0];
+		private boolean sameContent = true;
+
+		ContentCheckingWriter(Reader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if (!sameContent) {
+				return;
+			}
+			if (buffer.length < len) {
+				buffer = new char[len];
+			}
+			int read = 0;
+			while (read < len) {
+				int n = reader.read(buffer, read, len - read);
+				if (n < 0) {
+					// the file is shorter
+					sameContent = false;
+					return;
+				}
+				read += n;
+			}
+			for (int i = 0; i < len; i++) {
+				if (buffer[i] != cbuf[off + i]) {
+					sameContent = false;
+					return;
 				}
 			}
-		} catch (IOException e) {
-			Launcher.LOGGER.error(e.getMessage(), e);
 		}
-		if (getEnvironment().getSpoonProgress() != null) {
-			getEnvironment().getSpoonProgress().step(SpoonProgress.Process.PRINT, element.getQualifiedName());
+
+		/**
+		 * @return true if all the characters of the reader were written
+		 */
+		boolean hasSameContent() throws IOException {
+			return sameContent && reader.read() < 0;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	private void addPrintedFile(File file, CtType<?> type, Map<Integer, Integer> lineNumberMapping) {
+		if (!printedFiles.contains(file)) {
+			printedFiles.add(file);
 		}
+		lineNumberMappings.put(type.getQualifiedName(), lineNumberMapping);
 	}
 
 	@Override
@@ -150,7 +320,12 @@ public class JavaOutputProcessor extends AbstractProcessor<CtNamedElement> imple
 	 */
 	public void process(CtNamedElement nameElement) {
 		if (nameElement instanceof CtType && ((CtType) nameElement).isTopLevel()) {
-			createJavaFile((CtType<?>) nameElement);
+			if (isPrintingInParallel()) {
+				// printed all together by processingDone
+				pendingTypes.add((CtType<?>) nameElement);
+			} else {
+				createJavaFile((CtType<?>) nameElement);
+			}
 		} else if (nameElement instanceof CtPackage) {
 			createPackageFile((CtPackage) nameElement);
 		} else if (nameElement instanceof CtModule) {
@@ -158,6 +333,19 @@ public class JavaOutputProcessor extends AbstractProcessor<CtNamedElement> imple
 		}
 	}
 
+	@Override
+	public void processingDone() {
+		if (!pendingTypes.isEmpty()) {
+			List<CtType<?>> types = pendingTypes;
+			pendingTypes = new ArrayList<>();
+			createJavaFiles(types);
+		}
+	}
+
+	private boolean isPrintingInParallel() {
+		return prettyPrinterCreator != null && getEnvironment().getPrintingThreads() > 1;
+	}
+
 	private void createPackageFile(CtPackage pack) {
 		// Create package annotation file
 		File packageAnnot = getElementPath(pack).toFile();
@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support;
+
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.declaration.CtPackage;
+
+/**
+ * Adds to a lazily loaded model the types which are not loaded yet.
+ * See {@link BinaryModelStreamer#loadLazily(java.io.InputStream)}.
+ */
+public interface LazyTypeLoader {
+
+	/**
+	 * Loads the type of `ctPackage` called `simpleName`, or all the types of `ctPackage` if `simpleName` is null
+	 */
+	void loadTypes(CtPackage ctPackage, String simpleName);
+
+	/**
+	 * Loads the types declared in `cu`
+	 */
+	void loadTypes(CompilationUnit cu);
+}
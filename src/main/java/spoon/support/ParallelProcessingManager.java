@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support;
+
+import spoon.SpoonException;
+import spoon.processing.ProcessInterruption;
+import spoon.processing.ProcessingManager;
+import spoon.processing.Processor;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.factory.FactoryImpl;
+import spoon.support.compiler.SpoonProgress;
+import spoon.support.visitor.FusedProcessingVisitor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This processing manager applies read-only processors on several threads.
+ *
+ * The processed elements are split into their top-level types. All the
+ * processors are applied together to each top-level type (see
+ * {@link FusedProcessingVisitor}), on a {@link ForkJoinPool}. The elements
+ * which are not in a type (modules, packages) are processed on the calling
+ * thread. Elements are therefore not processed in the order of the model.
+ *
+ * Only the processors which are read-only (see {@link Processor#isReadOnly()})
+ * are accepted. Their {@link Processor#process(CtElement)} method must be safe
+ * to call from several threads at the same time, eg. by collecting their
+ * results in concurrent collections or by reporting them with
+ * {@link spoon.compiler.Environment#report(Processor, org.apache.log4j.Level, CtElement, String)}.
+ * {@link Processor#init()}, {@link Processor#process()} and
+ * {@link Processor#processingDone()} are called on the calling thread.
+ * A processor which is interrupted while processing a type goes on with the
+ * other types.
+ */
+public class ParallelProcessingManager implements ProcessingManager {
+
+	Factory factory;
+
+	Queue<Processor<?>> processors;
+
+	int parallelism;
+
+	/**
+	 * Creates a new processing manager which uses as many threads as available processors.
+	 *
+	 * @param factory
+	 * 		the factory on which the processing applies (contains the
+	 * 		meta-model)
+	 */
+	public ParallelProcessingManager(Factory factory) {
+		this(factory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new processing manager.
+	 *
+	 * @param factory
+	 * 		the factory on which the processing applies (contains the
+	 * 		meta-model)
+	 * @param parallelism
+	 * 		the number of threads which process the types
+	 */
+	public ParallelProcessingManager(Factory factory, int parallelism) {
+		super();
+		if (parallelism < 1) {
+			throw new SpoonException("The parallelism must be at least 1, not " + parallelism);
+		}
+		this.parallelism = parallelism;
+		setFactory(factory);
+	}
+
+	public void addProcessor(Class<? extends Processor<?>> type) {
+		Processor<?> p;
+		try {
+			p = type.newInstance();
+		} catch (Exception e) {
+			throw new SpoonException("Unable to instantiate processor \"" + type.getName() + "\" - Your processor should have a constructor with no arguments", e);
+		}
+		addProcessor(p);
+	}
+
+	/**
+	 * Adds a processor.
+	 *
+	 * @throws SpoonException if the processor is not read-only
+	 */
+	public boolean addProcessor(Processor<?> p) {
+		if (!p.isReadOnly()) {
+			throw new SpoonException("Processor \"" + p.getClass().getName() + "\" cannot be applied in parallel, it is not read-only");
+		}
+		p.setFactory(getFactory());
+		return getProcessors().add(p);
+	}
+
+	@SuppressWarnings("unchecked")
+	public void addProcessor(String qualifiedName) {
+		try {
+			addProcessor((Class<? extends Processor<?>>) getFactory().getEnvironment().getInputClassLoader().loadClass(qualifiedName));
+		} catch (ClassNotFoundException e) {
+			throw new SpoonException("Unable to load processor \"" + qualifiedName + "\" - Check your classpath.", e);
+		}
+	}
+
+	public Factory getFactory() {
+		return factory;
+	}
+
+	public Queue<Processor<?>> getProcessors() {
+		if (processors == null) {
+			processors = new LinkedList<>();
+		}
+		return processors;
+	}
+
+	public void process(Collection<? extends CtElement> elements) {
+		// copy so that one can reuse the processing manager
+		// among different processing steps
+		List<Processor<?>> toProcess = new ArrayList<>(getProcessors());
+		if (factory.getEnvironment().getSpoonProgress() != null) {
+			factory.getEnvironment().getSpoonProgress().start(SpoonProgress.Process.PROCESS);
+		}
+		List<Processor<?>> initialized = new ArrayList<>();
+		int i = 0;
+		try {
+			for (Processor<?> p : toProcess) {
+				getFactory().getEnvironment().reportProgressMessage(p.getClass().getName());
+				initialized.add(p);
+				try {
+					p.init(); // load the properties
+					p.process();
+				} catch (ProcessInterruption ignore) {
+					initialized.remove(p);
+					finishProcessing(p, ++i);
+				}
+			}
+
+			// the types are collected on this thread, so that the lazily loaded types are all loaded before the parallel processing
+			List<CtType<?>> types = new ArrayList<>();
+			FusedProcessingVisitor outsideTypes = new FusedProcessingVisitor(getFactory(), initialized) {
+				@Override
+				public void scan(CtElement e) {
+					if (e instanceof CtType && ((CtType<?>) e).isTopLevel()) {
+						types.add((CtType<?>) e);
+					} else {
+						super.scan(e);
+					}
+				}
+			};
+			for (CtElement e : new ArrayList<>(elements)) {
+				outsideTypes.scan(e);
+			}
+			processTypes(types, initialized);
+		} finally {
+			for (Processor<?> p : initialized) {
+				finishProcessing(p, ++i);
+			}
+			if (factory.getEnvironment().getSpoonProgress() != null) {
+				factory.getEnvironment().getSpoonProgress().end(SpoonProgress.Process.PROCESS);
+			}
+		}
+	}
+
+	private void processTypes(List<CtType<?>> types, List<Processor<?>> initialized) {
+		if (factory instanceof FactoryImpl) {
+			((FactoryImpl) factory).createSubFactories();
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> types.parallelStream().forEach(type -> new FusedProcessingVisitor(getFactory(), initialized).scan(type))).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpoonException("The parallel processing has been interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SpoonException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private void finishProcessing(Processor<?> p, int i) {
+		p.processingDone();
+		if (factory.getEnvironment().getSpoonProgress() != null) {
+			factory.getEnvironment().getSpoonProgress().step(SpoonProgress.Process.PROCESS, p.getClass().getName(), i, getProcessors().size());
+		}
+	}
+
+	public void process(CtElement element) {
+		List<CtElement> l = new ArrayList<>();
+		l.add(element);
+		process(l);
+	}
+
+	public void setFactory(Factory factory) {
+		this.factory = factory;
+		factory.getEnvironment().setManager(this);
+	}
+
+}
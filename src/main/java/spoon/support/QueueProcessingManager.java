@@ -23,6 +23,7 @@ import spoon.processing.Processor;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.factory.Factory;
 import spoon.support.compiler.SpoonProgress;
+import spoon.support.visitor.FusedProcessingVisitor;
 import spoon.support.visitor.ProcessingVisitor;
 
 import java.util.ArrayList;
@@ -35,6 +36,7 @@ import java.util.Queue;
  * This processing manager applies the processors one by one from the given root element.
  * for p : processors
  *   p.process(el)
+ * Consecutive read-only processors (see {@link Processor#isReadOnly()}) are applied together in a single traversal.
  * Default processor in Spoon
  */
 public class QueueProcessingManager implements ProcessingManager {
@@ -46,6 +48,8 @@ public class QueueProcessingManager implements ProcessingManager {
 
 	ProcessingVisitor visitor;
 
+	FusedProcessingVisitor fusedVisitor;
+
 	/**
 	 * Creates a new processing manager that maintains a queue of processors to
 	 * be applied to a given factory.
@@ -83,6 +87,9 @@ public class QueueProcessingManager implements ProcessingManager {
 	}
 
 	public Processor<?> getCurrentProcessor() {
+		if (fusedVisitor != null && fusedVisitor.getCurrentProcessor() != null) {
+			return fusedVisitor.getCurrentProcessor();
+		}
 		return current;
 	}
 
@@ -114,6 +121,15 @@ public class QueueProcessingManager implements ProcessingManager {
 		}
 		int i = 0;
 		while ((p = processors.poll()) != null) {
+			if (p.isReadOnly() && processors.peek() != null && processors.peek().isReadOnly()) {
+				List<Processor<?>> readOnlyProcessors = new ArrayList<>();
+				readOnlyProcessors.add(p);
+				while (processors.peek() != null && processors.peek().isReadOnly()) {
+					readOnlyProcessors.add(processors.poll());
+				}
+				i = processFused(readOnlyProcessors, elements, i);
+				continue;
+			}
 			try {
 				getFactory().getEnvironment().reportProgressMessage(p.getClass().getName());
 				current = p;
@@ -121,7 +137,7 @@ public class QueueProcessingManager implements ProcessingManager {
 				p.process();
 				for (CtElement e : new ArrayList<>(elements)) {
 					getVisitor().setProcessor(p);
-					getVisitor().scan(e);
+					getVisitor().process(e);
 				}
 			} catch (ProcessInterruption ignore) {
 			} finally {
@@ -136,6 +152,46 @@ public class QueueProcessingManager implements ProcessingManager {
 		}
 	}
 
+	/**
+	 * Applies the read-only processors in a single traversal of the elements.
+	 *
+	 * @return the number of applied processors, including the given ones
+	 */
+	private int processFused(List<Processor<?>> readOnlyProcessors, Collection<? extends CtElement> elements, int i) {
+		List<Processor<?>> initialized = new ArrayList<>();
+		try {
+			for (Processor<?> p : readOnlyProcessors) {
+				getFactory().getEnvironment().reportProgressMessage(p.getClass().getName());
+				current = p;
+				initialized.add(p);
+				try {
+					p.init(); // load the properties
+					p.process();
+				} catch (ProcessInterruption ignore) {
+					initialized.remove(p);
+					finishProcessing(p, ++i);
+				}
+			}
+			fusedVisitor = new FusedProcessingVisitor(getFactory(), initialized);
+			for (CtElement e : new ArrayList<>(elements)) {
+				fusedVisitor.scan(e);
+			}
+		} finally {
+			fusedVisitor = null;
+			for (Processor<?> p : initialized) {
+				finishProcessing(p, ++i);
+			}
+		}
+		return i;
+	}
+
+	private void finishProcessing(Processor<?> p, int i) {
+		p.processingDone();
+		if (factory.getEnvironment().getSpoonProgress() != null) {
+			factory.getEnvironment().getSpoonProgress().step(SpoonProgress.Process.PROCESS, p.getClass().getName(), i, getProcessors().size());
+		}
+	}
+
 	public void process(CtElement element) {
 		List<CtElement> l = new ArrayList<>();
 		l.add(element);
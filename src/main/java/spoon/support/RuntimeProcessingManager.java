@@ -139,7 +139,7 @@ public class RuntimeProcessingManager implements ProcessingManager {
 				"processing '" + ((element instanceof CtNamedElement) ? ((CtNamedElement) element).getSimpleName() : element.toString()) + "' with '" + processor.getClass().getName() + "'...");
 		processor.init();
 		getVisitor().setProcessor(processor);
-		getVisitor().scan(element);
+		getVisitor().process(element);
 		processor.processingDone();
 	}
 
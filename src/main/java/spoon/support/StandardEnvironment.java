@@ -50,7 +50,9 @@ import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtExecutable;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.declaration.ParentNotInitializedException;
+import spoon.support.compiler.ClasspathIndex;
 import spoon.support.compiler.FileSystemFolder;
+import spoon.support.compiler.IndexedClassLoader;
 import spoon.support.compiler.SpoonProgress;
 
 
@@ -70,7 +72,7 @@ public class StandardEnvironment implements Serializable, Environment {
 
 	transient ProcessingManager manager;
 
-	private boolean processingStopped = false;
+	private volatile boolean processingStopped = false;
 
 	private boolean autoImports = false;
 
@@ -108,6 +110,12 @@ public class StandardEnvironment implements Serializable, Environment {
 
 	private CompressionType compressionType = CompressionType.GZIP;
 
+	private int buildingThreads = 1;
+
+	private int printingThreads = 1;
+
+	private boolean compactReferences = false;
+
 	/**
 	 * Creates a new environment with a <code>null</code> default file
 	 * generator.
@@ -204,7 +212,7 @@ public class StandardEnvironment implements Serializable, Environment {
 		return processingStopped;
 	}
 
-	private void prefix(StringBuffer buffer, Level level) {
+	private synchronized void prefix(StringBuffer buffer, Level level) {
 		if (level == Level.ERROR) {
 			buffer.append("error: ");
 			errorCount++;
@@ -396,7 +404,7 @@ private transient  ClassLoader inputClassloader;
 			return classloader;
 		}
 		if (inputClassloader == null) {
-			inputClassloader = new URLClassLoader(urlClasspath(), Thread.currentThread().getContextClassLoader());
+			inputClassloader = new IndexedClassLoader(urlClasspath(), new ClasspathIndex(getSourceClasspath()), Thread.currentThread().getContextClassLoader());
 		}
 		return inputClassloader;
 	}
@@ -453,12 +461,12 @@ private transient  ClassLoader inputClassloader;
 	}
 
 	@Override
-	public int getErrorCount() {
+	public synchronized int getErrorCount() {
 		return errorCount;
 	}
 
 	@Override
-	public int getWarningCount() {
+	public synchronized int getWarningCount() {
 		return warningCount;
 	}
 
@@ -601,4 +609,40 @@ private transient  ClassLoader inputClassloader;
 	public void setCompressionType(CompressionType serializationType) {
 		this.compressionType = serializationType;
 	}
+
+	@Override
+	public int getBuildingThreads() {
+		return buildingThreads;
+	}
+
+	@Override
+	public void setBuildingThreads(int buildingThreads) {
+		if (buildingThreads < 1) {
+			throw new SpoonException("The number of building threads must be at least 1, got " + buildingThreads);
+		}
+		this.buildingThreads = buildingThreads;
+	}
+
+	@Override
+	public int getPrintingThreads() {
+		return printingThreads;
+	}
+
+	@Override
+	public void setPrintingThreads(int printingThreads) {
+		if (printingThreads < 1) {
+			throw new SpoonException("The number of printing threads must be at least 1, got " + printingThreads);
+		}
+		this.printingThreads = printingThreads;
+	}
+
+	@Override
+	public boolean isCompactReferences() {
+		return compactReferences;
+	}
+
+	@Override
+	public void setCompactReferences(boolean compactReferences) {
+		this.compactReferences = compactReferences;
+	}
 }
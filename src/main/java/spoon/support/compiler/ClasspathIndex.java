@@ -0,0 +1,400 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.compiler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import spoon.SpoonException;
+
+/**
+ * An index of the types and packages contained in a class path.
+ *
+ * The index of each jar is computed from the central directory of the jar, and is kept by the process
+ * as long as the size and the modification date of the jar do not change,
+ * so all the launchers, snippet compilers and class loaders of a process share it.
+ * The jars listed by the <code>Class-Path</code> attribute of the manifest of a jar are indexed too, as {@link java.net.URLClassLoader} follows them.
+ * The folders of the class path are not indexed: a type is looked up in a folder by checking if its class file exists.
+ * The index of the jars can be saved to a file and loaded again by a later build (see {@link #save(File)} and {@link #load(File)}).
+ */
+public class ClasspathIndex {
+
+	private static final int MAGIC = 0x5C1A55E5;
+	private static final int VERSION = 2;
+	private static final String CLASS_SUFFIX = ".class";
+	private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+	/**
+	 * The maximum number of jars whose index is kept by the process
+	 */
+	static final int MAX_CACHED_JARS = 1000;
+
+	/** the indexes of the jars, by canonical path. The least recently used ones are removed first */
+	private static final Map<String, JarIndex> JAR_INDEXES = new LinkedHashMap<String, JarIndex>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, JarIndex> eldest) {
+			return size() > MAX_CACHED_JARS;
+		}
+	};
+
+	/**
+	 * The index of a single jar.
+	 */
+	static final class JarIndex {
+		final String path;
+		final long size;
+		final long lastModified;
+		final long contentHash;
+		/** the value of the Class-Path attribute of the manifest, or null if there is none */
+		final String manifestClassPath;
+		final Set<String> types;
+		final Set<String> packages = new HashSet<>();
+
+		JarIndex(String path, long size, long lastModified, long contentHash, String manifestClassPath, Set<String> types) {
+			this.path = path;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.contentHash = contentHash;
+			this.manifestClassPath = manifestClassPath;
+			this.types = types;
+			for (String type : types) {
+				packages.add(getPackageName(type));
+			}
+		}
+
+		boolean isUpToDate(File jar) {
+			return jar.length() == size && jar.lastModified() == lastModified;
+		}
+	}
+
+	private final List<JarIndex> jars = new ArrayList<>();
+	private final List<File> folders = new ArrayList<>();
+	private boolean complete = true;
+
+	/**
+	 * Creates the index of the given class path.
+	 * The jars which are already indexed in this process are not read again.
+	 */
+	public ClasspathIndex(String[] classpath) {
+		if (classpath == null) {
+			return;
+		}
+		Deque<File> entries = new ArrayDeque<>();
+		for (String entry : classpath) {
+			entries.add(new File(entry));
+		}
+		Set<String> visited = new HashSet<>();
+		while (!entries.isEmpty()) {
+			File file = entries.poll();
+			if (!visited.add(getCanonicalPath(file)) || !file.exists()) {
+				continue;
+			}
+			if (file.isDirectory()) {
+				folders.add(file);
+				continue;
+			}
+			JarIndex index = isArchive(file) ? getJarIndex(file) : null;
+			if (index == null) {
+				// a jar which cannot be read
+				complete = false;
+				continue;
+			}
+			jars.add(index);
+			if (index.manifestClassPath != null) {
+				addManifestClassPath(index, entries);
+			}
+		}
+	}
+
+	/**
+	 * Adds the entries of the Class-Path attribute of the manifest of `jar` to `entries`.
+	 * They are URLs relative to the folder of the jar.
+	 */
+	private void addManifestClassPath(JarIndex jar, Deque<File> entries) {
+		for (String entry : jar.manifestClassPath.trim().split("\\s+")) {
+			if (entry.isEmpty()) {
+				continue;
+			}
+			try {
+				URL url = new URL(new File(jar.path).toURI().toURL(), entry);
+				if ("file".equals(url.getProtocol())) {
+					entries.add(new File(url.toURI()));
+					continue;
+				}
+			} catch (IOException | URISyntaxException | IllegalArgumentException e) {
+				// not a file of the file system, see below
+			}
+			// the types of a remote jar are not known
+			complete = false;
+		}
+	}
+
+	/**
+	 * @return true if all the jars of the class path are indexed, so that a type which is not found
+	 * by {@link #containsType(String)} is not in the class path at all.
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * @param binaryName the binary name of a type, eg. "java.util.Map$Entry"
+	 * @return true if a jar or a folder of the class path contains that type
+	 */
+	public boolean containsType(String binaryName) {
+		if (getJar(binaryName) != null) {
+			return true;
+		}
+		String classFile = binaryName.replace('.', File.separatorChar) + CLASS_SUFFIX;
+		for (File folder : folders) {
+			if (new File(folder, classFile).isFile()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param binaryName the binary name of a type, eg. "java.util.Map$Entry"
+	 * @return the first jar of the class path which contains that type, or null if there is none
+	 */
+	public File getJar(String binaryName) {
+		for (JarIndex jar : jars) {
+			if (jar.types.contains(binaryName)) {
+				return new File(jar.path);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param packageName the qualified name of a package
+	 * @return true if a jar or a folder of the class path contains a type of that package
+	 */
+	public boolean containsPackage(String packageName) {
+		for (JarIndex jar : jars) {
+			if (jar.packages.contains(packageName)) {
+				return true;
+			}
+		}
+		String packageFolder = packageName.replace('.', File.separatorChar);
+		for (File folder : folders) {
+			String[] files = new File(folder, packageFolder).list();
+			if (files != null && Arrays.stream(files).anyMatch(f -> f.endsWith(CLASS_SUFFIX))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the hash of the content of the given jar, computed from the names and the CRCs of its entries
+	 */
+	public static long getContentHash(File jar) {
+		JarIndex index = getJarIndex(jar);
+		if (index == null) {
+			throw new SpoonException("unable to index " + jar);
+		}
+		return index.contentHash;
+	}
+
+	/**
+	 * Saves the indexes of the jars of this class path to the given file.
+	 */
+	public void save(File file) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(jars.size());
+			for (JarIndex index : jars) {
+				writeString(out, index.path);
+				out.writeLong(index.size);
+				out.writeLong(index.lastModified);
+				out.writeLong(index.contentHash);
+				writeString(out, index.manifestClassPath == null ? "" : index.manifestClassPath);
+				out.writeInt(index.types.size());
+				for (String type : index.types) {
+					writeString(out, type);
+				}
+			}
+		} catch (IOException e) {
+			throw new SpoonException("unable to save classpath index", e);
+		}
+	}
+
+	/**
+	 * Loads the indexes saved by {@link #save(File)}, so that these jars are not read again by this process.
+	 * The indexes of the jars which changed since then are ignored.
+	 */
+	public static void load(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new SpoonException("invalid classpath index " + file);
+			}
+			int jarCount = buffer.getInt();
+			for (int i = 0; i < jarCount; i++) {
+				String path = readString(buffer);
+				long size = buffer.getLong();
+				long lastModified = buffer.getLong();
+				long contentHash = buffer.getLong();
+				String manifestClassPath = readString(buffer);
+				int typeCount = buffer.getInt();
+				Set<String> types = new HashSet<>(typeCount * 2);
+				for (int j = 0; j < typeCount; j++) {
+					types.add(readString(buffer));
+				}
+				JarIndex index = new JarIndex(path, size, lastModified, contentHash, manifestClassPath.isEmpty() ? null : manifestClassPath, types);
+				if (index.isUpToDate(new File(path))) {
+					synchronized (JAR_INDEXES) {
+						JAR_INDEXES.putIfAbsent(path, index);
+					}
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			throw new SpoonException("unable to load classpath index", e);
+		}
+	}
+
+	/**
+	 * @return the up to date index of the given jar, or null if it cannot be read
+	 */
+	private static JarIndex getJarIndex(File jar) {
+		String path = getCanonicalPath(jar);
+		JarIndex index;
+		synchronized (JAR_INDEXES) {
+			index = JAR_INDEXES.get(path);
+		}
+		if (index == null || !index.isUpToDate(jar)) {
+			// the jar is read outside of the lock, a jar read by two threads at the same time is indexed twice
+			index = createJarIndex(jar, path);
+			if (index != null) {
+				synchronized (JAR_INDEXES) {
+					JAR_INDEXES.put(path, index);
+				}
+			}
+		}
+		return index;
+	}
+
+	private static JarIndex createJarIndex(File jar, String path) {
+		long size = jar.length();
+		long lastModified = jar.lastModified();
+		Set<String> types = new HashSet<>();
+		long contentHash = 17;
+		String manifestClassPath = null;
+		try (ZipFile zip = new ZipFile(jar)) {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				contentHash = 31 * (31 * contentHash + name.hashCode()) + entry.getCrc();
+				String type = getBinaryName(name);
+				if (type != null) {
+					types.add(type);
+				}
+			}
+			ZipEntry manifestEntry = zip.getEntry(JarFile.MANIFEST_NAME);
+			if (manifestEntry != null) {
+				try (InputStream in = zip.getInputStream(manifestEntry)) {
+					manifestClassPath = new Manifest(in).getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+				}
+			}
+		} catch (IOException e) {
+			return null;
+		}
+		return new JarIndex(path, size, lastModified, contentHash, manifestClassPath, types);
+	}
+
+	/**
+	 * @return the binary name of the type stored in the given entry, or null if it is not a class file
+	 */
+	private static String getBinaryName(String entryName) {
+		if (!entryName.endsWith(CLASS_SUFFIX)) {
+			return null;
+		}
+		String name = entryName;
+		if (name.startsWith(VERSIONS_PREFIX)) {
+			// multi-release jar: META-INF/versions/<version>/<class file>
+			int index = name.indexOf('/', VERSIONS_PREFIX.length());
+			if (index < 0) {
+				return null;
+			}
+			name = name.substring(index + 1);
+		}
+		name = name.substring(0, name.length() - CLASS_SUFFIX.length());
+		if (name.endsWith("module-info") || name.endsWith("package-info")) {
+			return null;
+		}
+		return name.replace('/', '.');
+	}
+
+	private static String getPackageName(String binaryName) {
+		int index = binaryName.lastIndexOf('.');
+		return index < 0 ? "" : binaryName.substring(0, index);
+	}
+
+	private static boolean isArchive(File file) {
+		String name = file.getName().toLowerCase();
+		return name.endsWith(".jar") || name.endsWith(".zip");
+	}
+
+	private static String getCanonicalPath(File file) {
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException e) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.compiler;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * A {@link URLClassLoader} which uses a {@link ClasspathIndex} to fail fast on the types
+ * which are not in its class path, instead of looking for them in each of its jars.
+ */
+public class IndexedClassLoader extends URLClassLoader {
+
+	private final ClasspathIndex index;
+
+	public IndexedClassLoader(URL[] urls, ClasspathIndex index, ClassLoader parent) {
+		super(urls, parent);
+		this.index = index;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		if (index.isComplete() && !index.containsType(name)) {
+			throw new ClassNotFoundException(name);
+		}
+		return super.findClass(name);
+	}
+}
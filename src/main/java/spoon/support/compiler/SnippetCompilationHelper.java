@@ -35,6 +35,8 @@ import spoon.reflect.reference.CtTypeReference;
 import spoon.support.compiler.jdt.JDTSnippetCompiler;
 import spoon.support.reflect.declaration.CtElementImpl;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -73,34 +75,67 @@ public class SnippetCompilationHelper {
 		return internalCompileStatement(st, returnType);
 	}
 
+	/**
+	 * Compiles several snippet statements at once, with a single build of the snippet compiler.
+	 * The snippets must belong to the same factory. If one of them does not compile, none is returned.
+	 *
+	 * @return the compiled statements, in the order of `snippets`
+	 */
+	public static List<CtStatement> compileStatements(List<? extends CtCodeSnippetStatement> snippets)
+			throws SnippetCompilationError {
+		List<CtTypeReference> returnTypes = new ArrayList<>(snippets.size());
+		for (CtCodeSnippetStatement snippet : snippets) {
+			returnTypes.add(snippet.getFactory().Type().VOID_PRIMITIVE);
+		}
+		return internalCompileStatements(snippets, returnTypes);
+	}
+
 	private static CtStatement internalCompileStatement(CtElement st, CtTypeReference returnType) {
-		Factory f = st.getFactory();
+		return internalCompileStatements(Collections.singletonList(st), Collections.singletonList(returnType)).get(0);
+	}
 
-		String contents = createWrapperContent(st, f, returnType);
+	private static List<CtStatement> internalCompileStatements(List<? extends CtElement> snippets, List<CtTypeReference> returnTypes) {
+		if (snippets.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Factory f = snippets.get(0).getFactory();
+
+		String contents = createWrapperContent(snippets, f, returnTypes);
 
 		build(f, contents);
 
 		CtType<?> c = f.Type().get(WRAPPER_CLASS_NAME);
 
-		// Get the part we want
-
-		CtMethod<?> wrapper = c.getMethod(WRAPPER_METHOD_NAME);
+		// Get the parts we want
+		List<CtStatement> result = new ArrayList<>(snippets.size());
+		for (int i = 0; i < snippets.size(); i++) {
+			CtMethod<?> wrapper = c.getMethod(getWrapperMethodName(i));
 
-		List<CtStatement> statements = wrapper.getBody().getStatements();
-		CtStatement ret = statements.get(statements.size() - 1);
+			List<CtStatement> statements = wrapper.getBody().getStatements();
+			result.add(statements.get(statements.size() - 1));
+		}
 
 		// Clean up
 		c.getPackage().removeType(c);
 
-		//disconnect element from the parent, so it can be added to another model
-		ret.delete();
+		for (CtStatement ret : result) {
+			//disconnect element from the parent, so it can be added to another model
+			ret.delete();
 
-		if (ret instanceof CtClass) {
-			CtClass klass = (CtClass) ret;
-			ret.getFactory().Package().getRootPackage().addType(klass);
-			klass.setSimpleName(klass.getSimpleName().replaceAll("^[0-9]*", ""));
+			if (ret instanceof CtClass) {
+				CtClass klass = (CtClass) ret;
+				ret.getFactory().Package().getRootPackage().addType(klass);
+				klass.setSimpleName(klass.getSimpleName().replaceAll("^[0-9]*", ""));
+			}
 		}
-		return ret;
+		return result;
+	}
+
+	/**
+	 * @return the name of the wrapper method of the snippet at `index` in a batch
+	 */
+	private static String getWrapperMethodName(int index) {
+		return index == 0 ? WRAPPER_METHOD_NAME : WRAPPER_METHOD_NAME + index;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -112,6 +147,26 @@ public class SnippetCompilationHelper {
 		return ret.getReturnedExpression();
 	}
 
+	/**
+	 * Compiles several snippet expressions at once, with a single build of the snippet compiler.
+	 * The snippets must belong to the same factory. If one of them does not compile, none is returned.
+	 *
+	 * @return the compiled expressions, in the order of `snippets`
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<CtExpression<?>> compileExpressions(List<? extends CtCodeSnippetExpression<?>> snippets)
+			throws SnippetCompilationError {
+		List<CtTypeReference> returnTypes = new ArrayList<>(snippets.size());
+		for (CtCodeSnippetExpression<?> snippet : snippets) {
+			returnTypes.add(snippet.getFactory().Type().OBJECT);
+		}
+		List<CtExpression<?>> result = new ArrayList<>(snippets.size());
+		for (CtStatement ret : internalCompileStatements(snippets, returnTypes)) {
+			result.add(((CtReturn<?>) ret).getReturnedExpression());
+		}
+		return result;
+	}
+
 	private static void build(Factory f, String contents) {
 		// Build contents
 		SpoonModelBuilder builder = new JDTSnippetCompiler(f, contents);
@@ -122,32 +177,35 @@ public class SnippetCompilationHelper {
 		}
 	}
 
-	private static String createWrapperContent(final CtElement element, final Factory f, final CtTypeReference returnType) {
+	private static String createWrapperContent(final List<? extends CtElement> elements, final Factory f, final List<CtTypeReference> returnTypes) {
 		CtClass<?> w = f.Class().create(WRAPPER_CLASS_NAME);
 
-		CtBlock body = f.Core().createBlock();
-
-		if (element instanceof CtStatement) {
-			body.addStatement((CtStatement) element);
-		} else if (element instanceof CtExpression) {
-			CtReturn ret = f.Core().createReturn();
-			ret.setReturnedExpression((CtExpression) element);
-			body.addStatement(ret);
+		for (int i = 0; i < elements.size(); i++) {
+			CtElement element = elements.get(i);
+			CtBlock body = f.Core().createBlock();
+
+			if (element instanceof CtStatement) {
+				body.addStatement((CtStatement) element);
+			} else if (element instanceof CtExpression) {
+				CtReturn ret = f.Core().createReturn();
+				ret.setReturnedExpression((CtExpression) element);
+				body.addStatement(ret);
+			}
+
+			Set<ModifierKind> modifiers = EnumSet.of(ModifierKind.STATIC);
+
+			Set<CtTypeReference<? extends Throwable>> thrownTypes = new HashSet<>();
+			thrownTypes.add(f.Class().<Throwable>get(Throwable.class).getReference());
+			f.Method().create(
+					w,
+					modifiers,
+					returnTypes.get(i),
+					getWrapperMethodName(i),
+					CtElementImpl.<CtParameter<?>>emptyList(),
+					thrownTypes,
+					body);
 		}
 
-		Set<ModifierKind> modifiers = EnumSet.of(ModifierKind.STATIC);
-
-		Set<CtTypeReference<? extends Throwable>> thrownTypes = new HashSet<>();
-		thrownTypes.add(f.Class().<Throwable>get(Throwable.class).getReference());
-		f.Method().create(
-				w,
-				modifiers,
-				returnType,
-				WRAPPER_METHOD_NAME,
-				CtElementImpl.<CtParameter<?>>emptyList(),
-				thrownTypes,
-				body);
-
 		String contents = w.toString();
 		// Clean up (delete wrapper from factory) after it is printed. The DefaultJavaPrettyPrinter needs w in model to be able to print it correctly
 		w.getPackage().removeType(w);
@@ -18,8 +18,10 @@ package spoon.support.compiler;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 
+import spoon.SpoonException;
 import spoon.compiler.SpoonFile;
 import spoon.compiler.SpoonFolder;
 
@@ -38,8 +40,22 @@ public class ZipFile implements SpoonFile {
 		this.parent = parent;
 	}
 
+	/**
+	 * Creates a file whose content is inflated from the parent zip file each time it is read.
+	 */
+	public ZipFile(ZipFolder parent, String name) {
+		this(parent, name, null);
+	}
+
 	public InputStream getContent() {
-		return new ByteArrayInputStream(buffer);
+		if (buffer != null) {
+			return new ByteArrayInputStream(buffer);
+		}
+		try {
+			return new ByteArrayInputStream(parent.readEntry(name));
+		} catch (IOException e) {
+			throw new SpoonException(e);
+		}
 	}
 
 	public String getName() {
@@ -18,29 +18,38 @@ package spoon.support.compiler;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.apache.commons.io.IOUtils;
+
 import spoon.Launcher;
 import spoon.compiler.SpoonFile;
 import spoon.compiler.SpoonFolder;
 import spoon.compiler.SpoonResourceHelper;
 
-public class ZipFolder implements SpoonFolder {
+/**
+ * A zip file of sources. Its entries are read on demand from the zip file, which stays open until {@link #close()}.
+ */
+public class ZipFolder implements SpoonFolder, Closeable {
 
 	File file;
 
 	List<SpoonFile> files;
 
+	private java.util.zip.ZipFile zipFile;
+
 	public ZipFolder(File file) throws IOException {
 		super();
 		if (!file.isFile()) {
@@ -69,26 +78,13 @@ public class ZipFolder implements SpoonFolder {
 	}
 
 	public List<SpoonFile> getFiles() {
-		// Indexing content
+		// Indexing content from the central directory, the entries are inflated when they are read
 		if (files == null) {
 			files = new ArrayList<>();
-			try (ZipInputStream zipInput = new ZipInputStream(new BufferedInputStream(new FileInputStream(file)))) {
-				ZipEntry entry;
-				while ((entry = zipInput.getNextEntry()) != null) {
-					// deflate in buffer
-					final int buffer = 2048;
-					ByteArrayOutputStream output = new ByteArrayOutputStream(
-							buffer);
-					int count;
-					byte[] data = new byte[buffer];
-					while ((count = zipInput.read(data, 0, buffer)) != -1) {
-						output.write(data, 0, count);
-					}
-					output.flush();
-					output.close();
-
-					files.add(new ZipFile(this, entry.getName(), output
-							.toByteArray()));
+			try (java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(file)) {
+				Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				while (entries.hasMoreElements()) {
+					files.add(new ZipFile(this, entries.nextElement().getName()));
 				}
 			} catch (Exception e) {
 				Launcher.LOGGER.error(e.getMessage(), e);
@@ -97,6 +93,42 @@ public class ZipFolder implements SpoonFolder {
 		return files;
 	}
 
+	/**
+	 * Inflates the given entry of this zip file.
+	 * The zip file is opened once, and the entries can be read concurrently until {@link #close()}.
+	 */
+	byte[] readEntry(String entryName) throws IOException {
+		java.util.zip.ZipFile zipFile = getZipFile();
+		ZipEntry entry = zipFile.getEntry(entryName);
+		if (entry == null) {
+			throw new FileNotFoundException(entryName + " is not in " + file);
+		}
+		try (InputStream input = zipFile.getInputStream(entry)) {
+			return IOUtils.toByteArray(input);
+		}
+	}
+
+	private synchronized java.util.zip.ZipFile getZipFile() throws IOException {
+		if (zipFile == null) {
+			zipFile = new java.util.zip.ZipFile(file);
+		}
+		return zipFile;
+	}
+
+	/**
+	 * Closes the zip file opened to read the entries. It is opened again if an entry is read later.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (zipFile != null) {
+			try {
+				zipFile.close();
+			} finally {
+				zipFile = null;
+			}
+		}
+	}
+
 	public String getName() {
 		return file.getName();
 	}
@@ -16,13 +16,29 @@
  */
 package spoon.support.compiler.jdt;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import spoon.Launcher;
 import spoon.SpoonException;
 import spoon.SpoonModelBuilder;
 import spoon.compiler.SpoonFile;
+import spoon.support.compiler.ZipFile;
+import spoon.support.compiler.ZipFolder;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.jdt.internal.compiler.batch.CompilationUnit;
@@ -49,31 +65,115 @@ public class FileCompilerConfig implements SpoonModelBuilder.InputType {
 		this.files = files;
 	}
 
+	/**
+	 * The files which are at least that large are read through a memory-mapped buffer.
+	 */
+	private static final long MAPPED_FILE_SIZE = 256 * 1024;
+
+	/**
+	 * Reads the files on {@link spoon.compiler.Environment#getBuildingThreads()} threads.
+	 * The compilation units are in the same order as the files.
+	 */
 	@Override
 	public void initializeCompiler(JDTBatchCompiler compiler) {
 		JDTBasedSpoonCompiler jdtCompiler = compiler.getJdtCompiler();
-		List<CompilationUnit> cuList = new ArrayList<>();
-		InputStream inputStream = null;
+		Charset encoding = jdtCompiler.getEnvironment().getEncoding();
+		List<SpoonFile> files = new ArrayList<>();
+		for (SpoonFile f : getFiles(compiler)) {
+			if (!compiler.filesToBeIgnored.contains(f.getPath())) {
+				files.add(f);
+			}
+		}
 
+		List<char[]> contents;
 		try {
-			for (SpoonFile f : getFiles(compiler)) {
+			contents = readContents(files, encoding, jdtCompiler.getEnvironment().getBuildingThreads());
+		} finally {
+			closeArchives(files);
+		}
 
-				if (compiler.filesToBeIgnored.contains(f.getPath())) {
-					continue;
-				}
+		List<CompilationUnit> cuList = new ArrayList<>(files.size());
+		for (int i = 0; i < files.size(); i++) {
+			SpoonFile f = files.get(i);
+			String fName = f.isActualFile() ? f.getPath() : f.getName();
+			cuList.add(new CompilationUnit(contents.get(i), fName, encoding.displayName()));
+		}
 
-				String fName = f.isActualFile() ? f.getPath() : f.getName();
-				inputStream = f.getContent();
-				char[] content = IOUtils.toCharArray(inputStream, jdtCompiler.getEnvironment().getEncoding());
-				cuList.add(new CompilationUnit(content, fName, jdtCompiler.getEnvironment().getEncoding().displayName()));
-				IOUtils.closeQuietly(inputStream);
+		compiler.setCompilationUnits(cuList.toArray(new CompilationUnit[0]));
+	}
+
+	private static List<char[]> readContents(List<SpoonFile> files, Charset encoding, int buildingThreads) {
+		List<char[]> contents = new ArrayList<>(files.size());
+		int nbThreads = Math.min(buildingThreads, files.size());
+		if (nbThreads <= 1) {
+			for (SpoonFile f : files) {
+				contents.add(readContent(f, encoding));
 			}
-		} catch (Exception e) {
-			IOUtils.closeQuietly(inputStream);
-			throw new SpoonException(e);
+			return contents;
+		}
+		List<Callable<char[]>> tasks = new ArrayList<>(files.size());
+		for (SpoonFile f : files) {
+			tasks.add(() -> readContent(f, encoding));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		try {
+			for (Future<char[]> result : executor.invokeAll(tasks)) {
+				contents.add(result.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpoonException("Interrupted while reading source files", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SpoonException(e.getCause());
+		} finally {
+			executor.shutdownNow();
 		}
+		return contents;
+	}
 
-		compiler.setCompilationUnits(cuList.toArray(new CompilationUnit[0]));
+	/**
+	 * Closes the zip files which contain some of the given files, once their content is read
+	 */
+	private static void closeArchives(List<SpoonFile> files) {
+		Set<ZipFolder> archives = new HashSet<>();
+		for (SpoonFile f : files) {
+			if (f instanceof ZipFile && f.getParent() != null) {
+				archives.add((ZipFolder) f.getParent());
+			}
+		}
+		for (ZipFolder archive : archives) {
+			try {
+				archive.close();
+			} catch (IOException e) {
+				Launcher.LOGGER.error(e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Reads and decodes the content of the given file.
+	 * The large files of the file system are memory-mapped instead of being copied through a stream.
+	 */
+	static char[] readContent(SpoonFile f, Charset encoding) {
+		try {
+			File file = f.isActualFile() ? f.toFile() : null;
+			if (file != null && file.length() >= MAPPED_FILE_SIZE) {
+				try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+					CharBuffer chars = encoding.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+					char[] content = new char[chars.remaining()];
+					chars.get(content);
+					return content;
+				}
+			}
+			try (InputStream inputStream = f.getContent()) {
+				return IOUtils.toCharArray(inputStream, encoding);
+			}
+		} catch (IOException e) {
+			throw new SpoonException(e);
+		}
 	}
 
 	protected List<SpoonFile> getFiles(JDTBatchCompiler compiler) {
@@ -40,11 +40,15 @@ import spoon.compiler.builder.JDTBuilderImpl;
 import spoon.compiler.builder.SourceOptions;
 import spoon.processing.ProcessingManager;
 import spoon.processing.Processor;
+import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.factory.FactoryImpl;
 import spoon.reflect.visitor.AstParentConsistencyChecker;
+import spoon.reflect.visitor.CtScanner;
 import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
 import spoon.reflect.visitor.Filter;
 import spoon.reflect.visitor.PrettyPrinter;
@@ -53,12 +57,16 @@ import spoon.support.QueueProcessingManager;
 import spoon.support.comparator.FixedOrderBasedOnFileNameCompilationUnitComparator;
 import spoon.support.compiler.SpoonProgress;
 import spoon.support.compiler.VirtualFolder;
+import spoon.support.modelobs.ChangeCollector;
+import spoon.support.reflect.reference.CtReferenceImpl;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -66,6 +74,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Main class of Spoon to build the model.
@@ -213,6 +226,13 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 		case COMPILATION_UNITS:
 			generateProcessedSourceFilesUsingCUs();
 			break;
+		case CHANGED_COMPILATION_UNITS:
+			ChangeCollector changeCollector = ChangeCollector.getChangeCollector(getEnvironment());
+			if (changeCollector == null) {
+				throw new SpoonException("The output type " + outputType + " needs a ChangeCollector attached to the environment");
+			}
+			generateProcessedSourceFilesUsingCUs(changeCollector.getChangedTopLevelTypes());
+			break;
 		case NO_OUTPUT:
 		}
 		if (getEnvironment().getSpoonProgress() != null) {
@@ -463,6 +483,9 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 		}
 		JDTTreeBuilder builder = new JDTTreeBuilder(factory);
 		List<CompilationUnitDeclaration> unitList = this.sortCompilationUnits(units);
+		boolean parallel = getEnvironment().getBuildingThreads() > 1;
+		// the units whose comments are built after the tree building, in parallel
+		List<CompilationUnitDeclaration> builtUnits = new ArrayList<>();
 
 		int i = 0;
 		unitLoop:
@@ -477,7 +500,11 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 				}
 				unit.traverse(builder, unit.scope);
 				if (getFactory().getEnvironment().isCommentsEnabled()) {
-					new JDTCommentBuilder(unit, factory).build();
+					if (parallel) {
+						builtUnits.add(unit);
+					} else {
+						new JDTCommentBuilder(unit, factory).build();
+					}
 				}
 				if (getEnvironment().getSpoonProgress() != null) {
 					getEnvironment().getSpoonProgress().step(SpoonProgress.Process.MODEL, new String(unit.getFileName()), ++i, unitList.size());
@@ -488,6 +515,10 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 			getEnvironment().getSpoonProgress().end(SpoonProgress.Process.MODEL);
 		}
 
+		if (!builtUnits.isEmpty()) {
+			buildComments(builtUnits);
+		}
+
 		// we need first to go through the whole model before getting the right reference for imports
 		if (getFactory().getEnvironment().isAutoImports()) {
 			if (getEnvironment().getSpoonProgress() != null) {
@@ -505,8 +536,99 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 				getEnvironment().getSpoonProgress().end(SpoonProgress.Process.IMPORT);
 			}
 		}
+
+		if (getEnvironment().isCompactReferences()) {
+			compactReferences();
+		}
 	}
 
+	/**
+	 * Replaces the source positions of the references of the model by {@link SourcePosition#NOPOSITION}
+	 * and trims the lists of parameters, type arguments and bounds of the references to their size,
+	 * see {@link Environment#setCompactReferences(boolean)}.
+	 * It is done once all the comments and imports are built, because they rely on these positions.
+	 */
+	private void compactReferences() {
+		CtScanner scanner = new CtScanner() {
+			@Override
+			protected void enter(CtElement e) {
+				if (e instanceof CtReferenceImpl) {
+					((CtReferenceImpl) e).compact();
+				}
+			}
+		};
+		for (CtModule module : getFactory().getModel().getAllModules()) {
+			scanner.scan(module);
+		}
+	}
+
+	/**
+	 * Builds the comments of the given units on a pool of {@link Environment#getBuildingThreads()} threads.
+	 * The comments of a unit are only attached to the elements of this unit,
+	 * so the units are independent from each other and the result is the same as the sequential one.
+	 * The time spent building the comments of the units, which is the time of a sequential build, and the elapsed time
+	 * are reported through {@link SpoonProgress}.
+	 * @param builtUnits the units whose Spoon tree is already built
+	 */
+	protected void buildComments(List<CompilationUnitDeclaration> builtUnits) {
+		SpoonProgress progress = getEnvironment().getSpoonProgress();
+		if (progress != null) {
+			progress.start(SpoonProgress.Process.COMMENT);
+		}
+		int nbThreads = Math.min(getEnvironment().getBuildingThreads(), builtUnits.size());
+
+		// the comment builders use the sub-factories, which are created lazily and must not be created concurrently
+		if (factory instanceof FactoryImpl) {
+			((FactoryImpl) factory).createSubFactories();
+		}
+		// the builders are created on the calling thread, because it looks up the shared compilation unit map
+		List<Callable<Long>> tasks = new ArrayList<>(builtUnits.size());
+		for (CompilationUnitDeclaration unit : builtUnits) {
+			final JDTCommentBuilder commentBuilder = new JDTCommentBuilder(unit, factory);
+			tasks.add(() -> {
+				long start = System.nanoTime();
+				commentBuilder.build();
+				return System.nanoTime() - start;
+			});
+		}
+
+		long start = System.nanoTime();
+		long buildingTime = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		try {
+			List<Future<Long>> results = executor.invokeAll(tasks);
+			int i = 0;
+			for (Future<Long> result : results) {
+				buildingTime += result.get();
+				if (progress != null) {
+					progress.step(SpoonProgress.Process.COMMENT, new String(builtUnits.get(i).getFileName()), ++i, results.size());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpoonException("Interrupted while building comments", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SpoonException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		String message = "comments of " + builtUnits.size() + " compilation units built in " + (System.nanoTime() - start) / 1000000
+				+ " ms using " + nbThreads + " threads, for " + buildingTime / 1000000 + " ms of sequential building";
+		getEnvironment().debugMessage(message);
+		if (progress != null) {
+			progress.step(SpoonProgress.Process.COMMENT, message);
+			progress.end(SpoonProgress.Process.COMMENT);
+		}
+	}
+
+	/**
+	 * Prints the types with the default file generator.
+	 * A {@link spoon.support.JavaOutputProcessor} prints them on {@link Environment#getPrintingThreads()} threads.
+	 */
 	protected void generateProcessedSourceFilesUsingTypes(Filter<CtType<?>> typeFilter) {
 		if (factory.getEnvironment().getDefaultFileGenerator() != null) {
 			factory.getEnvironment().debugMessage("Generating source using types...");
@@ -521,6 +643,14 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 	}
 
 	protected void generateProcessedSourceFilesUsingCUs() {
+		generateProcessedSourceFilesUsingCUs(null);
+	}
+
+	/**
+	 * Prints the compilation units, or copies the source files of the ones whose types were not changed
+	 * @param changedTypes the changed top-level types, or null if all the compilation units have to be printed
+	 */
+	protected void generateProcessedSourceFilesUsingCUs(Set<CtType<?>> changedTypes) {
 
 		File outputDirectory = getSourceOutputDirectory();
 
@@ -575,13 +705,18 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 			// print type
 			try {
 				File file = new File(packageDir.getAbsolutePath() + File.separatorChar + element.getSimpleName() + DefaultJavaPrettyPrinter.JAVA_FILE_EXTENSION);
-				file.createNewFile();
+				if (changedTypes != null && !isChanged(cu, changedTypes)) {
+					// the source file is copied as is, it is left alone when it is the output file too
+					Files.copy(cu.getFile().toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				} else {
+					file.createNewFile();
 
-				// the path must be given relatively to to the working directory
-				try (InputStream is = getCompilationUnitInputStream(cu.getFile().getPath());
-					FileOutputStream outFile = new FileOutputStream(file)) {
+					// the path must be given relatively to to the working directory
+					try (InputStream is = getCompilationUnitInputStream(cu.getFile().getPath());
+						FileOutputStream outFile = new FileOutputStream(file)) {
 
-					IOUtils.copy(is, outFile);
+						IOUtils.copy(is, outFile);
+					}
 				}
 
 				if (!printedFiles.contains(file)) {
@@ -594,6 +729,19 @@ public class JDTBasedSpoonCompiler implements spoon.SpoonModelBuilder {
 		}
 	}
 
+	private static boolean isChanged(spoon.reflect.cu.CompilationUnit cu, Set<CtType<?>> changedTypes) {
+		if (cu.getFile() == null || !cu.getFile().isFile()) {
+			// there is no source file to copy
+			return true;
+		}
+		for (CtType<?> type : cu.getDeclaredTypes()) {
+			if (changedTypes.contains(type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public void setEnvironment(INameEnvironment environment) {
 		this.environment = environment;
 	}
@@ -248,7 +248,7 @@ public class JDTBatchCompiler extends org.eclipse.jdt.internal.compiler.batch.Ma
 					jdtCompiler.getEnvironment().getSpoonProgress().step(SpoonProgress.Process.COMPILE, currentElement, totalTask - remaining, totalTask);
 				}
 			}
-		});
+		}, jdtCompiler.getEnvironment());
 		if (jdtCompiler.getEnvironment().getNoClasspath()) {
 			treeBuilderCompiler.lookupEnvironment.problemReporter = new ProblemReporter(errorHandlingPolicy, compilerOptions, problemFactory) {
 				@Override
@@ -24,7 +24,6 @@ import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
 import spoon.SpoonException;
 import spoon.reflect.code.CtBinaryOperator;
 import spoon.reflect.code.CtBlock;
-import spoon.reflect.code.CtBodyHolder;
 import spoon.reflect.code.CtCase;
 import spoon.reflect.code.CtCatch;
 import spoon.reflect.code.CtComment;
@@ -55,8 +54,8 @@ import spoon.reflect.declaration.ParentNotInitializedException;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.reference.CtReference;
 import spoon.reflect.visitor.CtInheritanceScanner;
-import spoon.reflect.visitor.CtScanner;
 import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
+import spoon.support.reflect.cu.SourcePositionIndex;
 
 import java.io.BufferedReader;
 import java.io.CharArrayReader;
@@ -82,6 +81,7 @@ class JDTCommentBuilder {
 	private Factory factory;
 	private ICompilationUnit sourceUnit;
 	private char[] contents;
+	private SourcePositionIndex positionIndex;
 
 	/**
 	 * Creates a JDTCommentBuilder that will insert all comment of the declarationUnit into the Spoon AST
@@ -494,67 +494,11 @@ class JDTCommentBuilder {
 	 * @return the parent of the comment
 	 */
 	private CtElement findCommentParent(CtComment comment) {
-		class FindCommentParentScanner extends CtScanner {
-			public CtElement commentParent;
-
-			private int start;
-			private int end;
-
-			FindCommentParentScanner(int start, int end) {
-				this.start = start;
-				this.end = end;
-			}
-
-			private boolean isCommentBetweenElementPosition(CtElement element) {
-				return (element.getPosition().isValidPosition()
-						&& element.getPosition().getSourceStart() <= this.start
-						&& element.getPosition().getSourceEnd() >= this.end);
-			}
-
-			@Override
-			public void scan(CtElement element) {
-				if (element == null) {
-					return;
-				}
-				if (element.isImplicit() && !(element instanceof CtBlock)) {
-					return;
-				}
-				CtElement body = getBody(element);
-				if (body != null && body.getPosition().isValidPosition() == false) {
-					body = null;
-				}
-
-				boolean betweenElementPosition = this.isCommentBetweenElementPosition(element);
-				boolean bodyBetweenElementPosition = (body != null) && this.isCommentBetweenElementPosition(body);
-
-				if (betweenElementPosition || bodyBetweenElementPosition) {
-					commentParent = element;
-					element.accept(this);
-				}
-			}
-		}
-		FindCommentParentScanner findCommentParentScanner = new FindCommentParentScanner(
-				comment.getPosition().getSourceStart(),
-				comment.getPosition().getSourceEnd());
-
-		if (!spoonUnit.getDeclaredTypes().isEmpty()) {
-			findCommentParentScanner.scan(spoonUnit.getDeclaredTypes());
-		} else if (spoonUnit.getDeclaredModule() != null) {
-			findCommentParentScanner.scan(spoonUnit.getDeclaredModule());
-		}
-
-		return findCommentParentScanner.commentParent;
-	}
-
-	/**
-	 * @param e
-	 * @return body of element or null if this element has no body
-	 */
-	static CtElement getBody(CtElement e) {
-		if (e instanceof CtBodyHolder) {
-			return ((CtBodyHolder) e).getBody();
+		if (positionIndex == null) {
+			// the comments never contain each other, so the index stays valid while they are inserted
+			positionIndex = new SourcePositionIndex(spoonUnit);
 		}
-		return null;
+		return positionIndex.getElement(comment.getPosition().getSourceStart(), comment.getPosition().getSourceEnd());
 	}
 
 	/**
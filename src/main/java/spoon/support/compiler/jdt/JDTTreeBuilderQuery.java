@@ -19,12 +19,10 @@ package spoon.support.compiler.jdt;
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.ast.Annotation;
 import org.eclipse.jdt.internal.compiler.ast.Assignment;
-import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.Expression;
 import org.eclipse.jdt.internal.compiler.ast.ImportReference;
 import org.eclipse.jdt.internal.compiler.ast.OperatorIds;
 import org.eclipse.jdt.internal.compiler.ast.QualifiedNameReference;
-import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.lookup.AnnotationBinding;
 import org.eclipse.jdt.internal.compiler.lookup.FieldBinding;
@@ -68,36 +66,6 @@ class JDTTreeBuilderQuery {
 		return searchTypeBinding(type.superclass(), simpleName);
 	}
 
-	/**
-	 * Searches a type used in units declared in a compilation unit.
-	 *
-	 * @param qualifiedName
-	 * 		Qualified name of the expected type.
-	 * @param unitsToProcess
-	 * 		Search the type expected in units.
-	 * @return type binding.
-	 */
-	static TypeBinding searchTypeBinding(String qualifiedName, CompilationUnitDeclaration[] unitsToProcess) {
-		if (qualifiedName == null) {
-			return null;
-		}
-		for (CompilationUnitDeclaration unitToProcess : unitsToProcess) {
-			for (TypeDeclaration type : unitToProcess.types) {
-				if (qualifiedName.equals(CharOperation.toString(type.binding.compoundName))) {
-					return type.binding;
-				}
-				if (type.memberTypes != null) {
-					for (TypeDeclaration memberType : type.memberTypes) {
-						if (qualifiedName.equals(CharOperation.toString(memberType.binding.compoundName))) {
-							return type.binding;
-						}
-					}
-				}
-			}
-		}
-		return null;
-	}
-
 	/**
 	 * Searches a type declared in imports.
 	 *
@@ -122,40 +90,6 @@ class JDTTreeBuilderQuery {
 		return null;
 	}
 
-	/**
-	 * Searches a package used in units declared in a compilation unit.
-	 *
-	 * @param packageName
-	 * 		Package name.
-	 * @param unitsToProcess
-	 * 		Search the package expected in units.
-	 * @return import reference which correspond to the package expected.
-	 */
-	static ImportReference searchPackage(char[][] packageName, CompilationUnitDeclaration[] unitsToProcess) {
-		for (CompilationUnitDeclaration unit : unitsToProcess) {
-			final ImportReference currentPackage = unit.currentPackage;
-			if (currentPackage == null) {
-				continue;
-			}
-			final char[][] tokens = currentPackage.tokens;
-			if (packageName.length > tokens.length) {
-				continue;
-			}
-			boolean isFound = true;
-			for (int i = 0; i < packageName.length; i++) {
-				char[] chars = packageName[i];
-				if (!CharOperation.equals(chars, tokens[i])) {
-					isFound = false;
-					break;
-				}
-			}
-			if (isFound) {
-				return currentPackage;
-			}
-		}
-		return null;
-	}
-
 	/**
 	 * Checks in an annotation if a given type is present.
 	 *
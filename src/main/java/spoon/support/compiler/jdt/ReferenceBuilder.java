@@ -97,7 +97,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static spoon.support.compiler.jdt.JDTTreeBuilderQuery.searchPackage;
 import static spoon.support.compiler.jdt.JDTTreeBuilderQuery.searchType;
 import static spoon.support.compiler.jdt.JDTTreeBuilderQuery.searchTypeBinding;
 
@@ -269,10 +268,10 @@ public class ReferenceBuilder {
 		if (enclosingType != null && Collections.disjoint(listPublicProtected, JDTTreeBuilderQuery.getModifiers(enclosingType.modifiers, false, false))) {
 			String access = "";
 			int i = 0;
-			final CompilationUnitDeclaration[] units = ((TreeBuilderCompiler) this.jdtTreeBuilder.getContextBuilder().compilationunitdeclaration.scope.environment.typeRequestor).unitsToProcess;
+			final TypeBindingIndex index = ((TreeBuilderCompiler) this.jdtTreeBuilder.getContextBuilder().compilationunitdeclaration.scope.environment.typeRequestor).getTypeBindingIndex();
 			for (; i < tokens.length; i++) {
 				final char[][] qualified = Arrays.copyOfRange(tokens, 0, i + 1);
-				if (searchPackage(qualified, units) == null) {
+				if (index.getPackage(qualified) == null) {
 					access = CharOperation.toString(qualified);
 					break;
 				}
@@ -280,7 +279,7 @@ public class ReferenceBuilder {
 			if (!access.contains(CtPackage.PACKAGE_SEPARATOR)) {
 				access = searchType(access, this.jdtTreeBuilder.getContextBuilder().compilationunitdeclaration.imports);
 			}
-			final TypeBinding accessBinding = searchTypeBinding(access, units);
+			final TypeBinding accessBinding = index.getTypeBinding(access);
 			if (accessBinding != null && listener.onAccess(tokens, i)) {
 				final TypeBinding superClassBinding = searchTypeBinding(accessBinding.superclass(), CharOperation.charToString(tokens[i + 1]));
 				if (superClassBinding != null) {
@@ -19,6 +19,12 @@ package spoon.support.compiler.jdt;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.compiler.CompilationProgress;
@@ -31,15 +37,26 @@ import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
+import org.eclipse.jdt.internal.compiler.parser.Parser;
+import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.jdt.internal.compiler.util.Messages;
 
+import spoon.SpoonException;
+import spoon.compiler.Environment;
+import spoon.support.compiler.SpoonProgress;
+
 
 class TreeBuilderCompiler extends org.eclipse.jdt.internal.compiler.Compiler {
 
+	private final Environment spoonEnvironment;
+	private TypeBindingIndex typeBindingIndex;
+	private int indexedUnits;
+
 	TreeBuilderCompiler(INameEnvironment environment, IErrorHandlingPolicy policy, CompilerOptions options,
 			ICompilerRequestor requestor, IProblemFactory problemFactory, PrintWriter out,
-			CompilationProgress progress) {
+			CompilationProgress progress, Environment spoonEnvironment) {
 		super(environment, policy, options, requestor, problemFactory, out, progress);
+		this.spoonEnvironment = spoonEnvironment;
 	}
 
 	// This code is directly inspired from Compiler class.
@@ -72,13 +89,21 @@ class TreeBuilderCompiler extends org.eclipse.jdt.internal.compiler.Compiler {
 		// build and record parsed units
 		beginToCompile(sourceUnits);
 
+		// the method bodies of these units are parsed before the loop
+		int parsedUnits = 0;
+		if (spoonEnvironment.getBuildingThreads() > 1 && this.totalUnits > 1) {
+			parsedUnits = parseMethodBodies();
+		}
+
 		// process all units (some more could be injected in the loop by
 		// the lookup environment)
 		for (; i < this.totalUnits; i++) {
 			unit = unitsToProcess[i];
 			this.reportProgress(Messages.bind(Messages.compilation_processing, new String(unit.getFileName())));
 			// System.err.println(unit);
-			this.parser.getMethodBodies(unit);
+			if (i >= parsedUnits) {
+				this.parser.getMethodBodies(unit);
+			}
 
 			// fault in fields & methods
 			if (unit.scope != null) {
@@ -108,4 +133,66 @@ class TreeBuilderCompiler extends org.eclipse.jdt.internal.compiler.Compiler {
 		}
 		return unitsToReturn.toArray(new CompilationUnitDeclaration[unitsToReturn.size()]);
 	}
+
+	/**
+	 * Parses the method bodies of the units to process on a pool of {@link Environment#getBuildingThreads()} threads, with one parser per thread.
+	 * The parsing of a unit only changes the declarations of this unit, and the units are resolved sequentially afterwards.
+	 * The time spent parsing the units, which is the time of a sequential parsing, and the elapsed time are reported through {@link SpoonProgress}.
+	 * @return the number of parsed units
+	 */
+	private int parseMethodBodies() {
+		int nbUnits = this.totalUnits;
+		int nbThreads = Math.min(spoonEnvironment.getBuildingThreads(), nbUnits);
+		ThreadLocal<Parser> parsers = ThreadLocal.withInitial(() -> new Parser(
+				new ProblemReporter(this.problemReporter.policy, this.options, this.problemReporter.problemFactory),
+				this.options.parseLiteralExpressionsAsConstants));
+		List<Callable<Long>> tasks = new ArrayList<>(nbUnits);
+		for (int i = 0; i < nbUnits; i++) {
+			final CompilationUnitDeclaration unit = unitsToProcess[i];
+			tasks.add(() -> {
+				long start = System.nanoTime();
+				parsers.get().getMethodBodies(unit);
+				return System.nanoTime() - start;
+			});
+		}
+
+		long start = System.nanoTime();
+		long parsingTime = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		try {
+			for (Future<Long> result : executor.invokeAll(tasks)) {
+				parsingTime += result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpoonException("Interrupted while parsing method bodies", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new SpoonException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		String message = "method bodies of " + nbUnits + " compilation units parsed in " + (System.nanoTime() - start) / 1000000
+				+ " ms using " + nbThreads + " threads, for " + parsingTime / 1000000 + " ms of sequential parsing";
+		spoonEnvironment.debugMessage(message);
+		if (spoonEnvironment.getSpoonProgress() != null) {
+			spoonEnvironment.getSpoonProgress().step(SpoonProgress.Process.COMPILE, message);
+		}
+		return nbUnits;
+	}
+
+	/**
+	 * @return the index of the types and packages declared in the units to process,
+	 * which is created again when units are added
+	 */
+	TypeBindingIndex getTypeBindingIndex() {
+		if (typeBindingIndex == null || indexedUnits != totalUnits) {
+			typeBindingIndex = new TypeBindingIndex(unitsToProcess);
+			indexedUnits = totalUnits;
+		}
+		return typeBindingIndex;
+	}
 }
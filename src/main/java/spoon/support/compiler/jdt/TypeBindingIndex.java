@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.compiler.jdt;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.ImportReference;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+
+/**
+ * An index of the types and packages declared in the units of a {@link TreeBuilderCompiler}, by qualified name.
+ * When several units declare the same name, the first one wins, like in a search through the units in order.
+ */
+class TypeBindingIndex {
+
+	private final Map<String, TypeBinding> typeBindings = new HashMap<>();
+	private final Map<String, ImportReference> packages = new HashMap<>();
+
+	TypeBindingIndex(CompilationUnitDeclaration[] units) {
+		for (CompilationUnitDeclaration unit : units) {
+			if (unit == null) {
+				continue;
+			}
+			if (unit.types != null) {
+				for (TypeDeclaration type : unit.types) {
+					if (type.binding == null) {
+						continue;
+					}
+					typeBindings.putIfAbsent(CharOperation.toString(type.binding.compoundName), type.binding);
+					if (type.memberTypes != null) {
+						for (TypeDeclaration memberType : type.memberTypes) {
+							if (memberType.binding != null) {
+								// a member type leads to its top-level type, which is the entry point of the searches in its member types
+								typeBindings.putIfAbsent(CharOperation.toString(memberType.binding.compoundName), type.binding);
+							}
+						}
+					}
+				}
+			}
+			ImportReference currentPackage = unit.currentPackage;
+			if (currentPackage != null) {
+				char[][] tokens = currentPackage.tokens;
+				for (int i = 1; i <= tokens.length; i++) {
+					packages.putIfAbsent(CharOperation.toString(Arrays.copyOfRange(tokens, 0, i)), currentPackage);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Searches a type declared in the units.
+	 *
+	 * @param qualifiedName
+	 * 		Qualified name of the expected type.
+	 * @return the binding of the type, or of its top-level type if it is a member type, or null if it is not declared in the units.
+	 */
+	TypeBinding getTypeBinding(String qualifiedName) {
+		if (qualifiedName == null) {
+			return null;
+		}
+		return typeBindings.get(qualifiedName);
+	}
+
+	/**
+	 * Searches a package used in the units.
+	 *
+	 * @param packageName
+	 * 		Package name, or the beginning of a package name.
+	 * @return the package declaration of the first unit whose package starts with the given name, or null if there is none.
+	 */
+	ImportReference getPackage(char[][] packageName) {
+		return packages.get(CharOperation.toString(packageName));
+	}
+}
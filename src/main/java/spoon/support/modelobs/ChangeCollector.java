@@ -27,6 +27,9 @@ import java.util.Set;
 import spoon.compiler.Environment;
 import spoon.reflect.CtModel;
 import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeParameter;
 import spoon.reflect.declaration.ModifierKind;
 import spoon.reflect.path.CtRole;
 import spoon.reflect.visitor.EarlyTerminatingScanner;
@@ -38,28 +41,25 @@ import spoon.reflect.visitor.chain.ScanningMode;
  */
 public class ChangeCollector {
 	private final Map<CtElement, Set<CtRole>> elementToChangeRole = new IdentityHashMap<>();
-	private final ChangeListener changeListener = new ChangeListener();
 
 	/**
 	 * @param env to be checked {@link Environment}
 	 * @return {@link ChangeCollector} attached to the `env` or null if there is none
 	 */
 	public static ChangeCollector getChangeCollector(Environment env) {
-		FineModelChangeListener mcl = env.getModelChangeListener();
-		if (mcl instanceof ChangeListener) {
-			return ((ChangeListener) mcl).getChangeCollector();
-		}
-		return null;
+		ChangeListener listener = ForwardingModelChangeListener.find(env, ChangeListener.class);
+		return listener == null ? null : listener.getChangeCollector();
 	}
 
 	/**
-	 * Attaches itself to {@link CtModel} to listen to all changes of it's child elements
+	 * Attaches itself to {@link CtModel} to listen to all changes of it's child elements.
+	 * The listener which was attached to the {@link Environment} before is still notified.
 	 * TODO: it would be nicer if we might listen on changes on {@link CtElement}
 	 * @param env to be attached to {@link Environment}
 	 * @return this to support fluent API
 	 */
 	public ChangeCollector attachTo(Environment env) {
-		env.setModelChangeListener(changeListener);
+		env.setModelChangeListener(new ChangeListener(env.getModelChangeListener()));
 		return this;
 	}
 
@@ -117,6 +117,36 @@ public class ChangeCollector {
 		return Collections.unmodifiableSet(changes);
 	}
 
+	/**
+	 * Only the changed elements are visited, so it is fast when there are few changes, even in a big model.
+	 * @return the top-level types which were changed, or which contain a changed element, since this {@link ChangeCollector} was attached
+	 */
+	public Set<CtType<?>> getChangedTopLevelTypes() {
+		Set<CtType<?>> types = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (CtElement changedElement : elementToChangeRole.keySet()) {
+			CtType<?> topLevelType = getTopLevelType(changedElement);
+			if (topLevelType != null) {
+				types.add(topLevelType);
+			}
+		}
+		return Collections.unmodifiableSet(types);
+	}
+
+	/**
+	 * @return the outermost type containing `element`, the element itself if it is a top-level type, or null if it is not in a type
+	 */
+	private static CtType<?> getTopLevelType(CtElement element) {
+		CtType<?> topLevelType = null;
+		CtElement e = element;
+		while (e != null && !(e instanceof CtPackage)) {
+			if (e instanceof CtType && !(e instanceof CtTypeParameter)) {
+				topLevelType = (CtType<?>) e;
+			}
+			e = e.isParentInitialized() ? e.getParent() : null;
+		}
+		return topLevelType;
+	}
+
 	private static class Scanner extends EarlyTerminatingScanner<Void> {
 		CtRole getScannedRole() {
 			return scannedRole;
@@ -140,7 +170,11 @@ public class ChangeCollector {
 		roles.add(role);
 	}
 
-	private class ChangeListener implements FineModelChangeListener {
+	private class ChangeListener extends ForwardingModelChangeListener {
+		ChangeListener(FineModelChangeListener delegate) {
+			super(delegate);
+		}
+
 		private ChangeCollector getChangeCollector() {
 			return ChangeCollector.this;
 		}
@@ -148,81 +182,97 @@ public class ChangeCollector {
 		@Override
 		public void onObjectUpdate(CtElement currentElement, CtRole role, CtElement newValue, CtElement oldValue) {
 			onChange(currentElement, role);
+			super.onObjectUpdate(currentElement, role, newValue, oldValue);
 		}
 
 		@Override
 		public void onObjectUpdate(CtElement currentElement, CtRole role, Object newValue, Object oldValue) {
 			onChange(currentElement, role);
+			super.onObjectUpdate(currentElement, role, newValue, oldValue);
 		}
 
 		@Override
 		public void onObjectDelete(CtElement currentElement, CtRole role, CtElement oldValue) {
 			onChange(currentElement, role);
+			super.onObjectDelete(currentElement, role, oldValue);
 		}
 
 		@Override
 		public void onListAdd(CtElement currentElement, CtRole role, List field, CtElement newValue) {
 			onChange(currentElement, role);
+			super.onListAdd(currentElement, role, field, newValue);
 		}
 
 		@Override
 		public void onListAdd(CtElement currentElement, CtRole role, List field, int index, CtElement newValue) {
 			onChange(currentElement, role);
+			super.onListAdd(currentElement, role, field, index, newValue);
 		}
 
 		@Override
 		public void onListDelete(CtElement currentElement, CtRole role, List field, Collection<? extends CtElement> oldValue) {
 			onChange(currentElement, role);
+			super.onListDelete(currentElement, role, field, oldValue);
 		}
 
 		@Override
 		public void onListDelete(CtElement currentElement, CtRole role, List field, int index, CtElement oldValue) {
 			onChange(currentElement, role);
+			super.onListDelete(currentElement, role, field, index, oldValue);
 		}
 
 		@Override
 		public void onListDeleteAll(CtElement currentElement, CtRole role, List field, List oldValue) {
 			onChange(currentElement, role);
+			super.onListDeleteAll(currentElement, role, field, oldValue);
 		}
 
 		@Override
 		public <K, V> void onMapAdd(CtElement currentElement, CtRole role, Map<K, V> field, K key, CtElement newValue) {
 			onChange(currentElement, role);
+			super.onMapAdd(currentElement, role, field, key, newValue);
 		}
 
 		@Override
 		public <K, V> void onMapDeleteAll(CtElement currentElement, CtRole role, Map<K, V> field, Map<K, V> oldValue) {
 			onChange(currentElement, role);
+			super.onMapDeleteAll(currentElement, role, field, oldValue);
 		}
 
 		@Override
 		public void onSetAdd(CtElement currentElement, CtRole role, Set field, CtElement newValue) {
 			onChange(currentElement, role);
+			super.onSetAdd(currentElement, role, field, newValue);
 		}
 
 		@Override
 		public <T extends Enum> void onSetAdd(CtElement currentElement, CtRole role, Set field, T newValue) {
 			onChange(currentElement, role);
+			super.onSetAdd(currentElement, role, field, newValue);
 		}
 
 		@Override
 		public void onSetDelete(CtElement currentElement, CtRole role, Set field, CtElement oldValue) {
 			onChange(currentElement, role);
+			super.onSetDelete(currentElement, role, field, oldValue);
 		}
 
 		@Override
 		public void onSetDelete(CtElement currentElement, CtRole role, Set field, Collection<ModifierKind> oldValue) {
 			onChange(currentElement, role);
+			super.onSetDelete(currentElement, role, field, oldValue);
 		}
 
 		@Override
 		public void onSetDelete(CtElement currentElement, CtRole role, Set field, ModifierKind oldValue) {
 			onChange(currentElement, role);
+			super.onSetDelete(currentElement, role, field, oldValue);
 		}
 
 		@Override
 		public void onSetDeleteAll(CtElement currentElement, CtRole role, Set field, Set oldValue) {
 			onChange(currentElement, role);
+			super.onSetDeleteAll(currentElement, role, field, oldValue);
 		}
 	}
 }
@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.modelobs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import spoon.compiler.Environment;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.path.CtRole;
+import spoon.reflect.visitor.CtScanner;
+
+/**
+ * Indexes the elements of the model by kind (their implementation class), so that the elements of a given type
+ * are found without scanning the whole model.
+ * <br>
+ * The elements are indexed per top-level type, in the order of a scan of the type.
+ * A query on a module or a package scans only the modules and the packages, and takes the elements
+ * of each top-level type from the index, so the elements are returned in the order of a scan of the scope.
+ * <br>
+ * The index is built by {@link #attachTo(Factory)} and then kept up to date by listening on the changes of the model:
+ * when a top-level type is changed, only this type is indexed again, by the next query which reaches it.
+ * If another {@link FineModelChangeListener} which does not forward the changes replaces it in the {@link Environment},
+ * the index is no longer found by {@link #getElementKindIndex(Environment)}, so the queries scan the model again.
+ * A {@link ChangeCollector} forwards the changes, so it may be attached before or after the index.
+ */
+public class ElementKindIndex {
+
+	/**
+	 * An indexed element, with its rank in the order of a scan of its top-level type
+	 */
+	private static final class Entry {
+		final CtElement element;
+		final int rank;
+
+		Entry(CtElement element, int rank) {
+			this.element = element;
+			this.rank = rank;
+		}
+	}
+
+	private static final Comparator<Entry> BY_RANK = (e1, e2) -> Integer.compare(e1.rank, e2.rank);
+
+	/** the entries of the elements of each implementation class, by rank, for each indexed top-level type */
+	private final Map<CtType<?>, Map<Class<?>, List<Entry>>> entriesByType = new IdentityHashMap<>();
+	/** the implementation classes of all the elements indexed so far */
+	private final List<Class<?>> knownClasses = new ArrayList<>();
+	/** the known implementation classes which are instances of a requested type */
+	private final Map<Class<?>, List<Class<?>>> classesByType = new HashMap<>();
+	private Factory factory;
+
+	/**
+	 * @param env to be checked {@link Environment}
+	 * @return {@link ElementKindIndex} attached to the `env` or null if there is none
+	 */
+	public static ElementKindIndex getElementKindIndex(Environment env) {
+		Listener listener = ForwardingModelChangeListener.find(env, Listener.class);
+		return listener == null ? null : listener.getElementKindIndex();
+	}
+
+	/**
+	 * Indexes all the elements of the model of `factory` and listens to the changes of the model.
+	 * The listener which was attached to the {@link Environment} before is still notified.
+	 * @param factory the factory whose model is indexed
+	 * @return this to support fluent API
+	 */
+	public ElementKindIndex attachTo(Factory factory) {
+		Environment env = factory.getEnvironment();
+		this.factory = factory;
+		build();
+		env.setModelChangeListener(new Listener(env.getModelChangeListener()));
+		return this;
+	}
+
+	/**
+	 * @param scope the module or the package whose children are searched
+	 * @param type the type of the searched elements
+	 * @return all the elements of the model which are instances of `type` and are `scope` or a child of `scope`, in the order of a scan of `scope`
+	 */
+	public synchronized <T extends CtElement> List<T> getElements(CtElement scope, Class<T> type) {
+		if (!(scope instanceof CtModule || scope instanceof CtPackage)) {
+			throw new IllegalArgumentException("The scope must be a module or a package");
+		}
+		List<T> result = new ArrayList<>();
+		new CtScanner() {
+			@Override
+			public void scan(CtElement element) {
+				if (element instanceof CtType) {
+					//the scan does not enter the types, so this is a top-level type
+					addElements((CtType<?>) element, type, result);
+				} else {
+					super.scan(element);
+				}
+			}
+
+			@Override
+			protected void enter(CtElement e) {
+				if (type.isInstance(e)) {
+					result.add(type.cast(e));
+				}
+			}
+		}.scan(scope);
+		return result;
+	}
+
+	/**
+	 * Adds the elements of the top-level type `topLevelType` which are instances of `type` to `result`, in the order of a scan
+	 */
+	private <T extends CtElement> void addElements(CtType<?> topLevelType, Class<T> type, List<T> result) {
+		Map<Class<?>, List<Entry>> typeEntries = entriesByType.get(topLevelType);
+		if (typeEntries == null) {
+			typeEntries = index(topLevelType);
+		}
+		List<Entry> candidates = new ArrayList<>();
+		int matchingClasses = 0;
+		for (Class<?> elementClass : getClasses(type)) {
+			List<Entry> classEntries = typeEntries.get(elementClass);
+			if (classEntries != null) {
+				candidates.addAll(classEntries);
+				matchingClasses++;
+			}
+		}
+		if (matchingClasses > 1) {
+			candidates.sort(BY_RANK);
+		}
+		for (Entry entry : candidates) {
+			result.add(type.cast(entry.element));
+		}
+	}
+
+	/**
+	 * @return the known implementation classes which are instances of `type`
+	 */
+	private List<Class<?>> getClasses(Class<?> type) {
+		List<Class<?>> classes = classesByType.get(type);
+		if (classes == null) {
+			classes = new ArrayList<>();
+			for (Class<?> elementClass : knownClasses) {
+				if (type.isAssignableFrom(elementClass)) {
+					classes.add(elementClass);
+				}
+			}
+			classesByType.put(type, classes);
+		}
+		return classes;
+	}
+
+	/**
+	 * Indexes all the top-level types of the model
+	 */
+	private synchronized void build() {
+		entriesByType.clear();
+		new CtScanner() {
+			@Override
+			public void scan(CtElement element) {
+				if (element instanceof CtType) {
+					index((CtType<?>) element);
+				} else {
+					super.scan(element);
+				}
+			}
+		}.scan(factory.getModel().getAllModules());
+	}
+
+	/**
+	 * Indexes the elements of `topLevelType`, ranked in the order of a scan of the type
+	 * @return the entries of the elements of each implementation class
+	 */
+	private Map<Class<?>, List<Entry>> index(CtType<?> topLevelType) {
+		Map<Class<?>, List<Entry>> typeEntries = new HashMap<>();
+		new CtScanner() {
+			private int nextRank = 0;
+
+			@Override
+			protected void enter(CtElement e) {
+				List<Entry> classEntries = typeEntries.get(e.getClass());
+				if (classEntries == null) {
+					classEntries = new ArrayList<>();
+					typeEntries.put(e.getClass(), classEntries);
+					if (!knownClasses.contains(e.getClass())) {
+						knownClasses.add(e.getClass());
+						//a new kind of element may be an instance of the types already requested
+						classesByType.clear();
+					}
+				}
+				classEntries.add(new Entry(e, nextRank++));
+			}
+		}.scan(topLevelType);
+		entriesByType.put(topLevelType, typeEntries);
+		return typeEntries;
+	}
+
+	/**
+	 * Forgets the elements of the top-level type which contains `element`, so that it is indexed again by the next query
+	 */
+	private synchronized void onTypeChanged(CtElement element) {
+		CtElement e = element;
+		while (e != null && !(e instanceof CtPackage) && e.isParentInitialized()) {
+			CtElement parent = e.getParent();
+			if (e instanceof CtType && parent instanceof CtPackage) {
+				entriesByType.remove(e);
+				return;
+			}
+			e = parent;
+		}
+	}
+
+	/**
+	 * Forgets the elements of the top-level types which were removed from a package
+	 */
+	private synchronized void onTypesRemoved(Object oldValue) {
+		if (oldValue instanceof Collection) {
+			for (Object type : (Collection<?>) oldValue) {
+				entriesByType.remove(type);
+			}
+		} else {
+			entriesByType.remove(oldValue);
+		}
+	}
+
+	private class Listener extends ForwardingModelChangeListener {
+		Listener(FineModelChangeListener delegate) {
+			super(delegate);
+		}
+
+		private ElementKindIndex getElementKindIndex() {
+			return ElementKindIndex.this;
+		}
+
+		@Override
+		protected void onAdd(CtElement currentElement, CtRole role, CtElement newValue) {
+			onTypeChanged(currentElement);
+		}
+
+		@Override
+		protected void onRemove(CtElement currentElement, CtRole role, Object oldValue) {
+			if (currentElement instanceof CtPackage) {
+				onTypesRemoved(oldValue);
+			} else {
+				onTypeChanged(currentElement);
+			}
+		}
+	}
+}
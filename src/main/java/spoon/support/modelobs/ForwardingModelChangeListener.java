@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.modelobs;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import spoon.compiler.Environment;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.ModifierKind;
+import spoon.reflect.path.CtRole;
+
+/**
+ * A {@link FineModelChangeListener} which is notified of the changes of the model before the listener it replaced in the {@link Environment},
+ * so that several listeners can be attached to the same model.
+ */
+abstract class ForwardingModelChangeListener implements FineModelChangeListener {
+	private final FineModelChangeListener delegate;
+
+	ForwardingModelChangeListener(FineModelChangeListener delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @return the first listener of `type` in the chain of listeners attached to `env`, or null if there is none
+	 */
+	static <T> T find(Environment env, Class<T> type) {
+		FineModelChangeListener listener = env.getModelChangeListener();
+		while (!type.isInstance(listener)) {
+			if (!(listener instanceof ForwardingModelChangeListener)) {
+				return null;
+			}
+			listener = ((ForwardingModelChangeListener) listener).delegate;
+		}
+		return type.cast(listener);
+	}
+
+	/**
+	 * @return true if all the parents of `element` up to a {@link CtModule} still contain it
+	 */
+	static boolean isInModel(CtElement element) {
+		CtElement e = element;
+		while (!(e instanceof CtModule)) {
+			if (!e.isParentInitialized() || e.getRoleInParent() == null) {
+				return false;
+			}
+			e = e.getParent();
+		}
+		return true;
+	}
+
+	/**
+	 * Called before `newValue` is added to the `role` of `currentElement`
+	 */
+	protected void onAdd(CtElement currentElement, CtRole role, CtElement newValue) {
+	}
+
+	/**
+	 * Called before `oldValue`, an element or a collection of elements, is removed from the `role` of `currentElement`
+	 */
+	protected void onRemove(CtElement currentElement, CtRole role, Object oldValue) {
+	}
+
+	/**
+	 * Called before any other attribute of `currentElement` is changed, e.g. its name or its modifiers
+	 */
+	protected void onUpdate(CtElement currentElement, CtRole role, Object newValue, Object oldValue) {
+	}
+
+	@Override
+	public void onObjectUpdate(CtElement currentElement, CtRole role, CtElement newValue, CtElement oldValue) {
+		if (oldValue != null) {
+			onRemove(currentElement, role, oldValue);
+		}
+		if (newValue != null) {
+			onAdd(currentElement, role, newValue);
+		}
+		delegate.onObjectUpdate(currentElement, role, newValue, oldValue);
+	}
+
+	@Override
+	public void onObjectUpdate(CtElement currentElement, CtRole role, Object newValue, Object oldValue) {
+		if (newValue instanceof CtElement || oldValue instanceof CtElement) {
+			if (oldValue instanceof CtElement) {
+				onRemove(currentElement, role, oldValue);
+			}
+			if (newValue instanceof CtElement) {
+				onAdd(currentElement, role, (CtElement) newValue);
+			}
+		} else {
+			onUpdate(currentElement, role, newValue, oldValue);
+		}
+		delegate.onObjectUpdate(currentElement, role, newValue, oldValue);
+	}
+
+	@Override
+	public void onObjectDelete(CtElement currentElement, CtRole role, CtElement oldValue) {
+		onRemove(currentElement, role, oldValue);
+		delegate.onObjectDelete(currentElement, role, oldValue);
+	}
+
+	@Override
+	public void onListAdd(CtElement currentElement, CtRole role, List field, CtElement newValue) {
+		onAdd(currentElement, role, newValue);
+		delegate.onListAdd(currentElement, role, field, newValue);
+	}
+
+	@Override
+	public void onListAdd(CtElement currentElement, CtRole role, List field, int index, CtElement newValue) {
+		onAdd(currentElement, role, newValue);
+		delegate.onListAdd(currentElement, role, field, index, newValue);
+	}
+
+	@Override
+	public void onListDelete(CtElement currentElement, CtRole role, List field, Collection<? extends CtElement> oldValue) {
+		onRemove(currentElement, role, oldValue);
+		delegate.onListDelete(currentElement, role, field, oldValue);
+	}
+
+	@Override
+	public void onListDelete(CtElement currentElement, CtRole role, List field, int index, CtElement oldValue) {
+		onRemove(currentElement, role, oldValue);
+		delegate.onListDelete(currentElement, role, field, index, oldValue);
+	}
+
+	@Override
+	public void onListDeleteAll(CtElement currentElement, CtRole role, List field, List oldValue) {
+		onRemove(currentElement, role, oldValue);
+		delegate.onListDeleteAll(currentElement, role, field, oldValue);
+	}
+
+	@Override
+	public <K, V> void onMapAdd(CtElement currentElement, CtRole role, Map<K, V> field, K key, CtElement newValue) {
+		onAdd(currentElement, role, newValue);
+		delegate.onMapAdd(currentElement, role, field, key, newValue);
+	}
+
+	@Override
+	public <K, V> void onMapDeleteAll(CtElement currentElement, CtRole role, Map<K, V> field, Map<K, V> oldValue) {
+		onRemove(currentElement, role, oldValue.values());
+		delegate.onMapDeleteAll(currentElement, role, field, oldValue);
+	}
+
+	@Override
+	public void onSetAdd(CtElement currentElement, CtRole role, Set field, CtElement newValue) {
+		onAdd(currentElement, role, newValue);
+		delegate.onSetAdd(currentElement, role, field, newValue);
+	}
+
+	@Override
+	public <T extends Enum> void onSetAdd(CtElement currentElement, CtRole role, Set field, T newValue) {
+		onUpdate(currentElement, role, newValue, null);
+		delegate.onSetAdd(currentElement, role, field, newValue);
+	}
+
+	@Override
+	public void onSetDelete(CtElement currentElement, CtRole role, Set field, CtElement oldValue) {
+		onRemove(currentElement, role, oldValue);
+		delegate.onSetDelete(currentElement, role, field, oldValue);
+	}
+
+	@Override
+	public void onSetDelete(CtElement currentElement, CtRole role, Set field, Collection<ModifierKind> oldValue) {
+		onUpdate(currentElement, role, null, oldValue);
+		delegate.onSetDelete(currentElement, role, field, oldValue);
+	}
+
+	@Override
+	public void onSetDelete(CtElement currentElement, CtRole role, Set field, ModifierKind oldValue) {
+		onUpdate(currentElement, role, null, oldValue);
+		delegate.onSetDelete(currentElement, role, field, oldValue);
+	}
+
+	@Override
+	public void onSetDeleteAll(CtElement currentElement, CtRole role, Set field, Set oldValue) {
+		onRemove(currentElement, role, oldValue);
+		delegate.onSetDeleteAll(currentElement, role, field, oldValue);
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.modelobs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import spoon.compiler.Environment;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.path.CtRole;
+import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtReference;
+import spoon.reflect.visitor.CtScanner;
+
+/**
+ * Indexes the {@link CtReference}s of the model by simple name, so that the references to a declaration
+ * are found without scanning the whole model.
+ * The index is built once by {@link #attachTo(Factory)} and then kept up to date by listening on the changes of the model:
+ * the references of the added elements are indexed, and the references of the removed elements are forgotten.
+ * <br>
+ * The references are returned in the order in which they were indexed: the order of a scan of the model
+ * for the references indexed by {@link #attachTo(Factory)}, followed by the references added to the model since then.
+ * The index is no longer used once another {@link FineModelChangeListener} which does not forward the changes replaces it in the {@link Environment}.
+ * A {@link ChangeCollector} forwards the changes, so it may be attached before or after the index.
+ */
+public class ReferenceIndex {
+
+	/**
+	 * An indexed reference, compared by identity, because the references which are equal may be different elements of the model
+	 */
+	private static final class Entry {
+		final CtReference reference;
+
+		Entry(CtReference reference) {
+			this.reference = reference;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Entry && ((Entry) obj).reference == reference;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(reference);
+		}
+	}
+
+	private final Map<String, Set<Entry>> referencesByName = new HashMap<>();
+
+	/**
+	 * @param env to be checked {@link Environment}
+	 * @return {@link ReferenceIndex} attached to the `env` or null if there is none
+	 */
+	public static ReferenceIndex getReferenceIndex(Environment env) {
+		Listener listener = ForwardingModelChangeListener.find(env, Listener.class);
+		return listener == null ? null : listener.getReferenceIndex();
+	}
+
+	/**
+	 * Indexes all the references of the model of `factory` and listens to the changes of the model.
+	 * The listener which was attached to the {@link Environment} before is still notified.
+	 * @param factory the factory whose model is indexed
+	 * @return this to support fluent API
+	 */
+	public ReferenceIndex attachTo(Factory factory) {
+		Environment env = factory.getEnvironment();
+		for (CtModule module : factory.getModel().getAllModules()) {
+			index(module);
+		}
+		env.setModelChangeListener(new Listener(env.getModelChangeListener()));
+		return this;
+	}
+
+	/**
+	 * @param scope the element whose children are searched. Use the unnamed module to search the whole model.
+	 * @param simpleName the simple name of the searched references
+	 * @return all the references of the model which are named `simpleName` and are `scope` or a child of `scope`, in the order in which they were indexed
+	 */
+	public synchronized List<CtReference> getReferences(CtElement scope, String simpleName) {
+		Set<Entry> entries = referencesByName.get(simpleName);
+		if (entries == null) {
+			return Collections.emptyList();
+		}
+		List<CtReference> result = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (entry.reference == scope || entry.reference.hasParent(scope)) {
+				result.add(entry.reference);
+			}
+		}
+		return result;
+	}
+
+	private synchronized void index(CtElement element) {
+		new CtScanner() {
+			@Override
+			protected void enter(CtElement e) {
+				if (e instanceof CtReference && !(e instanceof CtArrayTypeReference)) {
+					//the name of an array type reference comes from its component type, which is indexed too
+					add(((CtReference) e).getSimpleName(), (CtReference) e);
+				}
+			}
+		}.scan(element);
+	}
+
+	private synchronized void unindex(CtElement element) {
+		new CtScanner() {
+			@Override
+			protected void enter(CtElement e) {
+				if (e instanceof CtReference) {
+					remove(((CtReference) e).getSimpleName(), (CtReference) e);
+				}
+			}
+		}.scan(element);
+	}
+
+	private void add(String simpleName, CtReference reference) {
+		Set<Entry> entries = referencesByName.get(simpleName);
+		if (entries == null) {
+			entries = new LinkedHashSet<>();
+			referencesByName.put(simpleName, entries);
+		}
+		entries.add(new Entry(reference));
+	}
+
+	private boolean remove(String simpleName, CtReference reference) {
+		Set<Entry> entries = referencesByName.get(simpleName);
+		return entries != null && entries.remove(new Entry(reference));
+	}
+
+	/**
+	 * Called before the reference `currentElement` is renamed
+	 */
+	private synchronized void onRename(CtReference currentElement, String newName, String oldName) {
+		if (remove(oldName, currentElement)) {
+			add(newName, currentElement);
+		}
+	}
+
+	private class Listener extends ForwardingModelChangeListener {
+		Listener(FineModelChangeListener delegate) {
+			super(delegate);
+		}
+
+		private ReferenceIndex getReferenceIndex() {
+			return ReferenceIndex.this;
+		}
+
+		@Override
+		protected void onAdd(CtElement currentElement, CtRole role, CtElement newValue) {
+			//the elements which are built outside of the model are indexed when they are added to it
+			if (isInModel(currentElement)) {
+				index(newValue);
+			}
+		}
+
+		@Override
+		protected void onRemove(CtElement currentElement, CtRole role, Object oldValue) {
+			//the references of an element which is not in the model were forgotten when it was removed from the model
+			if (!isInModel(currentElement)) {
+				return;
+			}
+			if (oldValue instanceof CtElement) {
+				unindex((CtElement) oldValue);
+			} else if (oldValue instanceof Collection) {
+				for (Object value : (Collection<?>) oldValue) {
+					if (value instanceof CtElement) {
+						unindex((CtElement) value);
+					}
+				}
+			}
+		}
+
+		@Override
+		protected void onUpdate(CtElement currentElement, CtRole role, Object newValue, Object oldValue) {
+			if (role == CtRole.NAME && currentElement instanceof CtReference) {
+				onRename((CtReference) currentElement, (String) newValue, (String) oldValue);
+			}
+		}
+	}
+}
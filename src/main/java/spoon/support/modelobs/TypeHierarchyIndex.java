@@ -0,0 +1,342 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.modelobs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import spoon.compiler.Environment;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.CtTypeInformation;
+import spoon.reflect.declaration.CtTypeParameter;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.path.CtRole;
+import spoon.reflect.reference.CtReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.CtScanner;
+import spoon.support.SpoonClassNotFoundException;
+
+/**
+ * Indexes the direct super types of all the types of the model, including the local and the anonymous ones,
+ * so that the sub types of a type are found without scanning the whole model.
+ * The types of the model are identified by qualified name, like in {@link spoon.support.visitor.SubInheritanceHierarchyResolver}.
+ * The super types which are not in the model are resolved like {@link spoon.reflect.visitor.filter.SuperInheritanceHierarchyFunction} does,
+ * so that a sub type is found through them too.
+ * <br>
+ * The index is built once by {@link #attachTo(Factory)}. Then the types which change are remembered
+ * and indexed again by the next query.
+ * The index is no longer used once another {@link FineModelChangeListener} which does not forward the changes replaces it in the {@link Environment}.
+ * A {@link ChangeCollector} forwards the changes, so it may be attached before or after the index.
+ */
+public class TypeHierarchyIndex {
+	private Factory factory;
+	/**
+	 * the types of the model, by qualified name of their direct super types
+	 */
+	private final Map<String, Set<CtType<?>>> subTypesByName = new HashMap<>();
+	/**
+	 * the qualified names of the direct super types of each indexed type of the model
+	 */
+	private final Map<CtType<?>, List<String>> superTypeNames = new IdentityHashMap<>();
+	private final Map<String, CtType<?>> typesByName = new HashMap<>();
+	/**
+	 * the qualified names of the direct super types of the types which are not in the model, which never change
+	 */
+	private final Map<String, List<String>> externalSuperTypeNames = new HashMap<>();
+	private final Map<String, Set<String>> externalSubTypeNames = new HashMap<>();
+	/**
+	 * the qualified names of all the super types of a type, computed on demand
+	 */
+	private final Map<String, Set<String>> allSuperTypeNames = new HashMap<>();
+	/**
+	 * the types which were added, removed or changed since the last query
+	 */
+	private final Set<CtType<?>> changedTypes = Collections.newSetFromMap(new IdentityHashMap<CtType<?>, Boolean>());
+
+	/**
+	 * @param env to be checked {@link Environment}
+	 * @return {@link TypeHierarchyIndex} attached to the `env` or null if there is none
+	 */
+	public static TypeHierarchyIndex getTypeHierarchyIndex(Environment env) {
+		Listener listener = ForwardingModelChangeListener.find(env, Listener.class);
+		return listener == null ? null : listener.getTypeHierarchyIndex();
+	}
+
+	/**
+	 * Indexes all the types of the model of `factory` and listens to the changes of the model.
+	 * The listener which was attached to the {@link Environment} before is still notified.
+	 * @param factory the factory whose model is indexed
+	 * @return this to support fluent API
+	 */
+	public TypeHierarchyIndex attachTo(Factory factory) {
+		this.factory = factory;
+		for (CtModule module : factory.getModel().getAllModules()) {
+			addChangedTypes(module);
+		}
+		update();
+		Environment env = factory.getEnvironment();
+		env.setModelChangeListener(new Listener(env.getModelChangeListener()));
+		return this;
+	}
+
+	/**
+	 * @param qualifiedName the qualified name of the super type
+	 * @param includingInterfaces if false then only the classes are returned
+	 * @return all the types of the model which extend or implement the type `qualifiedName`, directly or not, in no particular order
+	 */
+	public List<CtType<?>> getSubTypes(String qualifiedName, boolean includingInterfaces) {
+		update();
+		List<CtType<?>> result = new ArrayList<>();
+		Set<String> visitedNames = new HashSet<>();
+		Deque<String> names = new ArrayDeque<>();
+		visitedNames.add(qualifiedName);
+		names.add(qualifiedName);
+		while (!names.isEmpty()) {
+			String name = names.poll();
+			for (CtType<?> type : subTypesByName.getOrDefault(name, Collections.<CtType<?>>emptySet())) {
+				String subTypeName = type.getQualifiedName();
+				if (visitedNames.add(subTypeName)) {
+					names.add(subTypeName);
+					if (includingInterfaces || type instanceof CtClass) {
+						result.add(type);
+					}
+				}
+			}
+			for (String subTypeName : externalSubTypeNames.getOrDefault(name, Collections.<String>emptySet())) {
+				if (visitedNames.add(subTypeName)) {
+					names.add(subTypeName);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if the type `qualifiedName` is `superTypeQualifiedName` or extends or implements it, directly or not.
+	 * Type arguments are not considered, so it is a necessary but not a sufficient condition of {@link CtTypeInformation#isSubtypeOf(CtTypeReference)}
+	 */
+	public boolean isSubtypeOf(String qualifiedName, String superTypeQualifiedName) {
+		return qualifiedName.equals(superTypeQualifiedName) || getAllSuperTypeNames(qualifiedName).contains(superTypeQualifiedName);
+	}
+
+	/**
+	 * @return the qualified names of all the super types of the type `qualifiedName`
+	 */
+	public Set<String> getAllSuperTypeNames(String qualifiedName) {
+		update();
+		Set<String> result = allSuperTypeNames.get(qualifiedName);
+		if (result == null) {
+			result = new LinkedHashSet<>();
+			Deque<String> names = new ArrayDeque<>();
+			names.add(qualifiedName);
+			while (!names.isEmpty()) {
+				for (String superTypeName : getSuperTypeNames(names.poll())) {
+					if (result.add(superTypeName)) {
+						names.add(superTypeName);
+					}
+				}
+			}
+			result = Collections.unmodifiableSet(result);
+			allSuperTypeNames.put(qualifiedName, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Indexes again the types which changed since the last call
+	 */
+	private void update() {
+		while (!changedTypes.isEmpty()) {
+			Iterator<CtType<?>> iterator = changedTypes.iterator();
+			CtType<?> type = iterator.next();
+			iterator.remove();
+			index(type);
+		}
+	}
+
+	private void index(CtType<?> type) {
+		allSuperTypeNames.clear();
+		List<String> oldNames = superTypeNames.remove(type);
+		if (oldNames != null) {
+			for (String name : oldNames) {
+				subTypesByName.get(name).remove(type);
+			}
+		}
+		if (!ForwardingModelChangeListener.isInModel(type)) {
+			return;
+		}
+		List<String> names = getSuperTypeNames(type, type instanceof CtClass);
+		superTypeNames.put(type, names);
+		typesByName.put(type.getQualifiedName(), type);
+		for (String name : names) {
+			Set<CtType<?>> subTypes = subTypesByName.get(name);
+			if (subTypes == null) {
+				subTypes = Collections.newSetFromMap(new IdentityHashMap<CtType<?>, Boolean>());
+				subTypesByName.put(name, subTypes);
+			}
+			subTypes.add(type);
+			//index the hierarchy of the super types which are not in the model, so that it can be walked down
+			getSuperTypeNames(name);
+		}
+	}
+
+	/**
+	 * @return the qualified names of the direct super types of the type `qualifiedName`, which is in the model or not
+	 */
+	private List<String> getSuperTypeNames(String qualifiedName) {
+		CtType<?> type = typesByName.get(qualifiedName);
+		if (type == null || !superTypeNames.containsKey(type) || !qualifiedName.equals(type.getQualifiedName())) {
+			type = factory.Type().get(qualifiedName);
+			if (type != null && !(type instanceof CtTypeParameter)) {
+				//a type of the model which was not indexed under this name, e.g. after a rename
+				index(type);
+			}
+		}
+		if (type != null && superTypeNames.containsKey(type)) {
+			return superTypeNames.get(type);
+		}
+		List<String> names = externalSuperTypeNames.get(qualifiedName);
+		if (names == null) {
+			CtTypeReference<?> typeRef = factory.Type().createReference(qualifiedName);
+			CtType<?> typeDeclaration;
+			try {
+				typeDeclaration = typeRef.getTypeDeclaration();
+			} catch (SpoonClassNotFoundException e) {
+				typeDeclaration = null;
+			}
+			names = getSuperTypeNames(typeRef, typeDeclaration instanceof CtClass);
+			externalSuperTypeNames.put(qualifiedName, names);
+			for (String name : names) {
+				externalSubTypeNames.computeIfAbsent(name, k -> new HashSet<>()).add(qualifiedName);
+				getSuperTypeNames(name);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Like {@link spoon.reflect.visitor.filter.SuperInheritanceHierarchyFunction}, a class without super class extends {@link Object}
+	 * and the hierarchy of a type which cannot be loaded is not visited.
+	 */
+	private static List<String> getSuperTypeNames(CtTypeInformation type, boolean isClass) {
+		List<String> names = new ArrayList<>();
+		try {
+			for (CtTypeReference<?> superInterface : type.getSuperInterfaces()) {
+				names.add(superInterface.getQualifiedName());
+			}
+			if (isClass && !Object.class.getName().equals(type.getQualifiedName())) {
+				CtTypeReference<?> superClass = type.getSuperclass();
+				names.add(superClass == null ? Object.class.getName() : superClass.getQualifiedName());
+			}
+		} catch (SpoonClassNotFoundException e) {
+			//the super types which were found so far are kept
+		}
+		return names;
+	}
+
+	private void addChangedTypes(Object element) {
+		if (element instanceof Collection) {
+			for (Object item : (Collection<?>) element) {
+				addChangedTypes(item);
+			}
+		} else if (element instanceof CtElement) {
+			new CtScanner() {
+				@Override
+				protected void enter(CtElement e) {
+					if (e instanceof CtType && !(e instanceof CtTypeParameter)) {
+						changedTypes.add((CtType<?>) e);
+					}
+				}
+			}.scan((CtElement) element);
+		}
+	}
+
+	/**
+	 * @return the type whose super types may change with `element`, that is `element` itself or the type of the super type reference `element` belongs to
+	 */
+	private static CtType<?> getChangedType(CtElement element) {
+		CtElement e = element;
+		while (e instanceof CtReference) {
+			if (!e.isParentInitialized()) {
+				return null;
+			}
+			e = e.getParent();
+		}
+		if (e instanceof CtType && !(e instanceof CtTypeParameter)) {
+			return (CtType<?>) e;
+		}
+		return null;
+	}
+
+	private class Listener extends ForwardingModelChangeListener {
+		Listener(FineModelChangeListener delegate) {
+			super(delegate);
+		}
+
+		private TypeHierarchyIndex getTypeHierarchyIndex() {
+			return TypeHierarchyIndex.this;
+		}
+
+		@Override
+		protected void onAdd(CtElement currentElement, CtRole role, CtElement newValue) {
+			onChange(currentElement);
+			//the types which are built outside of the model are indexed when they are added to it
+			if (isInModel(currentElement)) {
+				addChangedTypes(newValue);
+			}
+		}
+
+		@Override
+		protected void onRemove(CtElement currentElement, CtRole role, Object oldValue) {
+			onChange(currentElement);
+			if (isInModel(currentElement)) {
+				addChangedTypes(oldValue);
+			}
+		}
+
+		@Override
+		protected void onUpdate(CtElement currentElement, CtRole role, Object newValue, Object oldValue) {
+			onChange(currentElement);
+			if (role == CtRole.NAME && (currentElement instanceof CtType || currentElement instanceof CtPackage)) {
+				//the qualified names of the nested types change too
+				addChangedTypes(currentElement);
+			}
+		}
+
+		private void onChange(CtElement currentElement) {
+			CtType<?> type = getChangedType(currentElement);
+			if (type != null) {
+				changedTypes.add(type);
+			}
+		}
+	}
+}
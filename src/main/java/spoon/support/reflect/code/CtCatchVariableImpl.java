@@ -123,6 +123,7 @@ public class CtCatchVariableImpl<T> extends CtCodeElementImpl implements CtCatch
 	public <C extends CtNamedElement> C setSimpleName(String simpleName) {
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, NAME, simpleName, this.name);
 		this.name = simpleName;
+		resetHashCode();
 		return (C) this;
 	}
 
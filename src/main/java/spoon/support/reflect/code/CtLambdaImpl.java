@@ -74,6 +74,7 @@ public class CtLambdaImpl<T> extends CtExpressionImpl<T> implements CtLambda<T>
 	public <C extends CtNamedElement> C setSimpleName(String simpleName) {
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, NAME, simpleName, this.simpleName);
 		this.simpleName = simpleName;
+		resetHashCode();
 		return (C) this;
 	}
 
@@ -98,6 +98,7 @@ public class CtLocalVariableImpl<T> extends CtStatementImpl implements CtLocalVa
 	public <C extends CtNamedElement> C setSimpleName(String simpleName) {
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, NAME, simpleName, this.name);
 		this.name = simpleName;
+		resetHashCode();
 		return (C) this;
 	}
 
@@ -26,6 +26,7 @@ import spoon.reflect.factory.Factory;
 import spoon.reflect.declaration.CtImport;
 import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.LazyTypeLoader;
 import spoon.support.reflect.cu.position.PartialSourcePositionImpl;
 
 import java.io.File;
@@ -65,6 +66,11 @@ public class CompilationUnitImpl implements CompilationUnit, FactoryAccessor {
 	 */
 	private int[] lineSeparatorPositions;
 
+	/**
+	 * Loads the declared types and the imports of this compilation unit when they are not loaded yet, null otherwise
+	 */
+	private transient LazyTypeLoader lazyTypeLoader;
+
 	@Override
 	public UNIT_TYPE getUnitType() {
 		// we try to guess based on the file name
@@ -118,17 +124,20 @@ public class CompilationUnitImpl implements CompilationUnit, FactoryAccessor {
 
 	@Override
 	public List<CtType<?>> getDeclaredTypes() {
+		loadLazyTypes();
 		return Collections.unmodifiableList(declaredTypes);
 	}
 
 	@Override
 	public void setDeclaredTypes(List<CtType<?>> types) {
+		loadLazyTypes();
 		this.declaredTypes.clear();
 		this.declaredTypes.addAll(types);
 	}
 
 	@Override
 	public void addDeclaredType(CtType type) {
+		loadLazyTypes();
 		this.declaredTypes.add(type);
 	}
 
@@ -262,11 +271,13 @@ public class CompilationUnitImpl implements CompilationUnit, FactoryAccessor {
 
 	@Override
 	public Set<CtImport> getImports() {
+		loadLazyTypes();
 		return this.imports;
 	}
 
 	@Override
 	public void setImports(Set<CtImport> imports) {
+		loadLazyTypes();
 		this.imports = imports;
 	}
 
@@ -280,6 +291,20 @@ public class CompilationUnitImpl implements CompilationUnit, FactoryAccessor {
 		this.factory = factory;
 	}
 
+	/**
+	 * Sets the loader of the declared types and imports of this compilation unit, see {@link spoon.support.BinaryModelStreamer#loadLazily(java.io.InputStream)}
+	 */
+	public void setLazyTypeLoader(LazyTypeLoader lazyTypeLoader) {
+		this.lazyTypeLoader = lazyTypeLoader;
+	}
+
+	private void loadLazyTypes() {
+		LazyTypeLoader loader = lazyTypeLoader;
+		if (loader != null) {
+			loader.loadTypes(this);
+		}
+	}
+
 	boolean autoImport = true;
 
 	public boolean isAutoImport() {
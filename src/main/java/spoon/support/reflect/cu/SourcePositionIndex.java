@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.reflect.cu;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import spoon.reflect.code.CtBlock;
+import spoon.reflect.code.CtBodyHolder;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.visitor.CtScanner;
+
+/**
+ * An index of the source positions of the elements of a {@link CompilationUnit},
+ * which finds the innermost element at a given offset or line without scanning the compilation unit.
+ *
+ * The index is a snapshot of the compilation unit: it has to be created again after the model is changed.
+ * The implicit elements are ignored, except the blocks, and so are the elements whose parent does not contain them.
+ */
+public class SourcePositionIndex {
+
+	/**
+	 * An element with its source range and the ones of its children, sorted by start.
+	 */
+	private static final class Node {
+		final CtElement element;
+		/** the order of the element in a scan of the compilation unit */
+		final int order;
+		final int start;
+		final int end;
+		final int bodyStart;
+		final int bodyEnd;
+		List<Node> children = new ArrayList<>();
+		/** the starts of the children */
+		int[] childStarts;
+		/** the greatest end of the children, up to each index */
+		int[] maxChildEnds;
+
+		Node(CtElement element, int order, SourcePosition position, SourcePosition bodyPosition) {
+			this.element = element;
+			this.order = order;
+			this.start = position == null ? Integer.MAX_VALUE : position.getSourceStart();
+			this.end = position == null ? Integer.MIN_VALUE : position.getSourceEnd();
+			this.bodyStart = bodyPosition == null ? Integer.MAX_VALUE : bodyPosition.getSourceStart();
+			this.bodyEnd = bodyPosition == null ? Integer.MIN_VALUE : bodyPosition.getSourceEnd();
+		}
+
+		int getMinStart() {
+			return Math.min(start, bodyStart);
+		}
+
+		int getMaxEnd() {
+			return Math.max(end, bodyEnd);
+		}
+
+		boolean contains(int from, int to) {
+			return (start <= from && end >= to) || (bodyStart <= from && bodyEnd >= to);
+		}
+
+		void sortChildren() {
+			// the sort is stable, so the children which start at the same offset stay in scan order
+			children.sort((n1, n2) -> Integer.compare(n1.getMinStart(), n2.getMinStart()));
+			childStarts = new int[children.size()];
+			maxChildEnds = new int[children.size()];
+			int maxEnd = Integer.MIN_VALUE;
+			for (int i = 0; i < children.size(); i++) {
+				Node child = children.get(i);
+				childStarts[i] = child.getMinStart();
+				maxEnd = Math.max(maxEnd, child.getMaxEnd());
+				maxChildEnds[i] = maxEnd;
+			}
+		}
+
+		/**
+		 * @return the last child, in scan order, which contains the given range, or null if there is none
+		 */
+		Node getChild(int from, int to) {
+			Node best = null;
+			// the children which start after from cannot contain the range
+			for (int i = lastIndexNotAfter(childStarts, from); i >= 0 && maxChildEnds[i] >= to; i--) {
+				Node child = children.get(i);
+				if (child.contains(from, to) && (best == null || child.order > best.order)) {
+					best = child;
+				}
+			}
+			return best;
+		}
+	}
+
+	private final CompilationUnit compilationUnit;
+	private final Node root = new Node(null, -1, null, null);
+
+	/**
+	 * Indexes the elements of the declared types of the given compilation unit,
+	 * or of its declared module if it has no type.
+	 */
+	public SourcePositionIndex(CompilationUnit compilationUnit) {
+		this.compilationUnit = compilationUnit;
+		IndexBuilder builder = new IndexBuilder();
+		if (!compilationUnit.getDeclaredTypes().isEmpty()) {
+			builder.scan(compilationUnit.getDeclaredTypes());
+		} else if (compilationUnit.getDeclaredModule() != null) {
+			builder.scan(compilationUnit.getDeclaredModule());
+		}
+		root.sortChildren();
+	}
+
+	/**
+	 * @return the compilation unit indexed by this index
+	 */
+	public CompilationUnit getCompilationUnit() {
+		return compilationUnit;
+	}
+
+	/**
+	 * Finds the innermost element which contains the given range.
+	 * An element contains the range if its position or the position of its body contains it.
+	 * @param start the offset of the first character of the range
+	 * @param end the offset of the last character of the range
+	 * @return the innermost element which contains the range, or null if there is none
+	 */
+	public CtElement getElement(int start, int end) {
+		CtElement element = null;
+		Node node = root;
+		while ((node = node.getChild(start, end)) != null) {
+			element = node.element;
+		}
+		return element;
+	}
+
+	/**
+	 * @param offset the offset of a character of the source file
+	 * @return the innermost element which contains that character, or null if there is none
+	 */
+	public CtElement getElementAt(int offset) {
+		return getElement(offset, offset);
+	}
+
+	/**
+	 * Finds the element which starts first on the given line, among the children of the innermost element which contains the start of the line.
+	 * For a line in a block, it is the statement of that line.
+	 * @param line the line number, starting at 1
+	 * @return the first element which starts on the line, or the innermost element which contains the line if none starts on it,
+	 * or null if there is none
+	 */
+	public CtElement getElementAtLine(int line) {
+		int[] lineSeparatorPositions = compilationUnit.getLineSeparatorPositions();
+		int lineCount = lineSeparatorPositions == null ? 1 : lineSeparatorPositions.length + 1;
+		if (line < 1 || line > lineCount) {
+			return null;
+		}
+		int lineStart = line == 1 ? 0 : lineSeparatorPositions[line - 2] + 1;
+		int lineEnd = line == lineCount ? Integer.MAX_VALUE : lineSeparatorPositions[line - 1];
+		CtElement element = null;
+		Node node = root;
+		while (true) {
+			// the first child, in source order, which starts on the line
+			for (int i = lastIndexNotAfter(node.childStarts, lineStart - 1) + 1; i < node.children.size() && node.childStarts[i] <= lineEnd; i++) {
+				Node child = node.children.get(i);
+				if (child.start >= lineStart && child.start <= lineEnd) {
+					return child.element;
+				}
+			}
+			Node child = node.getChild(lineStart, lineStart);
+			if (child == null) {
+				return element;
+			}
+			element = child.element;
+			node = child;
+		}
+	}
+
+	/**
+	 * @return the last index of a value which is lower or equal to the given one in the sorted array, or -1 if there is none
+	 */
+	private static int lastIndexNotAfter(int[] sortedValues, int value) {
+		int low = 0;
+		int high = sortedValues.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (sortedValues[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Builds the tree of nodes, with the same rules as a scan which only enters the elements which contain a range.
+	 */
+	private class IndexBuilder extends CtScanner {
+		private final Deque<Node> parents = new ArrayDeque<>();
+		private int order = 0;
+
+		IndexBuilder() {
+			parents.push(root);
+		}
+
+		@Override
+		public void scan(CtElement element) {
+			if (element == null) {
+				return;
+			}
+			if (element.isImplicit() && !(element instanceof CtBlock)) {
+				return;
+			}
+			SourcePosition position = getValidPosition(element);
+			SourcePosition bodyPosition = element instanceof CtBodyHolder ? getValidPosition(((CtBodyHolder) element).getBody()) : null;
+			if (position == null && bodyPosition == null) {
+				// it cannot contain anything, so its children are never reached
+				return;
+			}
+			Node node = new Node(element, order++, position, bodyPosition);
+			parents.peek().children.add(node);
+			parents.push(node);
+			element.accept(this);
+			parents.pop();
+			node.sortChildren();
+		}
+
+		private SourcePosition getValidPosition(CtElement element) {
+			if (element == null || !element.getPosition().isValidPosition()) {
+				return null;
+			}
+			return element.getPosition();
+		}
+	}
+}
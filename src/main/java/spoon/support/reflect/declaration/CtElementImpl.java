@@ -72,6 +72,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.Iterator;
 
@@ -109,6 +110,21 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	protected CtElement parent;
 
+	/**
+	 * The role of this element in {@link #parent} found by the last call of {@link #getRoleInParent()}, null when unknown
+	 */
+	private transient CtRole roleInParent;
+
+	/**
+	 * The index of this element in the list of {@link #roleInParent}, a hint to check it in constant time
+	 */
+	private transient int indexInParent;
+
+	/**
+	 * The hash code computed by the last call of {@link #hashCode()}, 0 when unknown
+	 */
+	private transient int hashCode;
+
 	@MetamodelPropertyField(role = CtRole.ANNOTATION)
 	List<CtAnnotation<? extends Annotation>> annotations = emptyList();
 
@@ -209,11 +225,30 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	@Override
 	public int hashCode() {
+		int h = hashCode;
+		if (h == 0) {
+			h = computeHashCode();
+			hashCode = h;
+		}
+		return h;
+	}
+
+	/**
+	 * Computes the hash code with {@link HashcodeVisitor}, which only depends on the name of this element.
+	 */
+	protected int computeHashCode() {
 		HashcodeVisitor pr = new HashcodeVisitor();
 		pr.scan(this);
 		return pr.getHasCode();
 	}
 
+	/**
+	 * Forgets the memoised hash code. Must be called when the name of this element changes.
+	 */
+	protected void resetHashCode() {
+		hashCode = 0;
+	}
+
 	public <E extends CtElement> E setAnnotations(List<CtAnnotation<? extends Annotation>> annotations) {
 		if (annotations == null || annotations.isEmpty()) {
 			this.annotations = CtElementImpl.emptyList();
@@ -370,6 +405,7 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 	@Override
 	public <E extends CtElement> E setParent(E parent) {
 		this.parent = parent;
+		this.roleInParent = null;
 		return (E) this;
 	}
 
@@ -423,6 +459,10 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 
 	@Override
 	public CtRole getRoleInParent() {
+		CtRole role = roleInParent;
+		if (role != null && isParentInitialized() && isInParent(role)) {
+			return role;
+		}
 		if (isParentInitialized()) {
 			EarlyTerminatingScanner<CtRole> ets = new EarlyTerminatingScanner<CtRole>() {
 				@Override
@@ -435,11 +475,50 @@ public abstract class CtElementImpl implements CtElement, Serializable {
 				}
 			};
 			getParent().accept(ets);
-			return ets.getResult();
+			roleInParent = ets.getResult();
+			return roleInParent;
 		}
 		return null;
 	}
 
+	/**
+	 * @return true if {@link #parent} still contains this element with the given `role`.
+	 * The element is searched by identity, starting from the index where it was found the last time.
+	 */
+	private boolean isInParent(CtRole role) {
+		RoleHandler roleHandler = RoleHandlerHelper.getOptionalRoleHandler(parent.getClass(), role);
+		if (roleHandler == null) {
+			return false;
+		}
+		Object value = roleHandler.getValue(parent);
+		if (value instanceof List && value instanceof RandomAccess) {
+			List<?> list = (List<?>) value;
+			int hint = indexInParent;
+			if (hint < list.size() && list.get(hint) == this) {
+				return true;
+			}
+			for (int i = 0; i < list.size(); i++) {
+				if (list.get(i) == this) {
+					indexInParent = i;
+					return true;
+				}
+			}
+			return false;
+		}
+		if (value instanceof Map) {
+			value = ((Map<?, ?>) value).values();
+		}
+		if (value instanceof Collection) {
+			for (Object item : (Collection<?>) value) {
+				if (item == this) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return value == this;
+	}
+
 	@Override
 	public void updateAllParentsBelow() {
 		new ModelConsistencyChecker(getFactory().getEnvironment(), true, true).scan(this);
@@ -20,7 +20,9 @@ import spoon.reflect.annotations.MetamodelPropertyField;
 import spoon.reflect.code.CtBlock;
 import spoon.reflect.code.CtBodyHolder;
 import spoon.reflect.code.CtStatement;
+import spoon.reflect.declaration.CtConstructor;
 import spoon.reflect.declaration.CtExecutable;
+import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.CtParameter;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtExecutableReference;
@@ -56,6 +58,16 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 	@MetamodelPropertyField(role = THROWN)
 	Set<CtTypeReference<? extends Throwable>> thrownTypes = emptySet();
 
+	/**
+	 * The memoised signature, null when it has to be computed again
+	 */
+	private transient String signature;
+
+	/**
+	 * The reference change count of the factory when the signature was memoised, see {@link #getReferenceChangeCount()}
+	 */
+	private transient int signatureReferenceChangeCount;
+
 	public CtExecutableImpl() {
 		super();
 	}
@@ -99,6 +111,7 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 	public <T extends CtExecutable<R>> T setParameters(List<CtParameter<?>> parameters) {
 		if (parameters == null || parameters.isEmpty()) {
 			this.parameters = CtElementImpl.emptyList();
+			resetSignature();
 			return (T) this;
 		}
 		if (this.parameters == CtElementImpl.<CtParameter<?>>emptyList()) {
@@ -106,6 +119,7 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 		}
 		getFactory().getEnvironment().getModelChangeListener().onListDeleteAll(this, PARAMETER, this.parameters, new ArrayList<>(this.parameters));
 		this.parameters.clear();
+		resetSignature();
 		for (CtParameter<?> p : parameters) {
 			addParameter(p);
 		}
@@ -123,6 +137,7 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 		parameter.setParent(this);
 		getFactory().getEnvironment().getModelChangeListener().onListAdd(this, PARAMETER, this.parameters, parameter);
 		parameters.add(parameter);
+		resetSignature();
 		return (T) this;
 	}
 
@@ -132,6 +147,7 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 			return false;
 		}
 		getFactory().getEnvironment().getModelChangeListener().onListDelete(this, PARAMETER, parameters, parameters.indexOf(parameter), parameter);
+		resetSignature();
 		return parameters.remove(parameter);
 	}
 
@@ -182,9 +198,36 @@ public abstract class CtExecutableImpl<R> extends CtNamedElementImpl implements
 
 	@Override
 	public String getSignature() {
-		final SignaturePrinter pr = new SignaturePrinter();
-		pr.scan(this);
-		return pr.getSignature();
+		int referenceChangeCount = getReferenceChangeCount();
+		String signature = this.signature;
+		if (signature == null || signatureReferenceChangeCount != referenceChangeCount) {
+			final SignaturePrinter pr = new SignaturePrinter();
+			pr.scan(this);
+			signature = pr.getSignature();
+			// the signature of a constructor contains the qualified name of its declaring type, which may change without notice
+			if (!(this instanceof CtConstructor) && referenceChangeCount >= 0) {
+				this.signature = signature;
+				this.signatureReferenceChangeCount = referenceChangeCount;
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * Forgets the memoised signature of this executable, and the member table of its declaring type
+	 */
+	void resetSignature() {
+		signature = null;
+		if (parent instanceof CtTypeImpl) {
+			((CtTypeImpl<?>) parent).resetMemberTable();
+		}
+	}
+
+	@Override
+	public <T extends CtNamedElement> T setSimpleName(String simpleName) {
+		super.setSimpleName(simpleName);
+		resetSignature();
+		return (T) this;
 	}
 
 	@Override
@@ -21,6 +21,7 @@ import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtRHSReceiver;
 import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtModifiable;
+import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.CtShadowable;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.declaration.CtTypedElement;
@@ -66,6 +67,15 @@ public class CtFieldImpl<T> extends CtNamedElementImpl implements CtField<T> {
 		v.visitCtField(this);
 	}
 
+	@Override
+	public <C extends CtNamedElement> C setSimpleName(String simpleName) {
+		super.setSimpleName(simpleName);
+		if (parent instanceof CtTypeImpl) {
+			((CtTypeImpl<?>) parent).resetMemberTable();
+		}
+		return (C) this;
+	}
+
 	@Override
 	public CtType<?> getDeclaringType() {
 		return (CtType<?>) parent;
@@ -78,6 +78,14 @@ public class CtImportImpl extends CtElementImpl implements CtImport {
 		visitor.visitCtImport(this);
 	}
 
+	/**
+	 * Not memoised, because the hash code depends on the name of the imported reference.
+	 */
+	@Override
+	public int hashCode() {
+		return computeHashCode();
+	}
+
 	@Override
 	public CtImport clone() {
 		return (CtImport) super.clone();
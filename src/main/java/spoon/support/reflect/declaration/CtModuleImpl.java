@@ -435,6 +435,9 @@ public class CtModuleImpl extends CtNamedElementImpl implements CtModule {
 			rootPackage.setParent(this);
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, CtRole.SUB_PACKAGE, rootPackage, this.rootPackage);
+		if (this.rootPackage != null) {
+			getFactory().Package().clearIndex();
+		}
 		this.rootPackage = rootPackage;
 		return (T) this;
 	}
@@ -46,6 +46,7 @@ public abstract class CtNamedElementImpl extends CtElementImpl implements CtName
 		Factory factory = getFactory();
 		if (factory == null) {
 			this.simpleName = simpleName;
+			resetHashCode();
 			return (T) this;
 		}
 		if (factory instanceof FactoryImpl) {
@@ -53,9 +54,26 @@ public abstract class CtNamedElementImpl extends CtElementImpl implements CtName
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, NAME, simpleName, this.simpleName);
 		this.simpleName = simpleName;
+		resetHashCode();
 		return (T) this;
 	}
 
+	/**
+	 * @return true if `simpleName` replaces a name which was already set, which an index by name must forget
+	 */
+	boolean isRenamedTo(String simpleName) {
+		return this.simpleName != null && !this.simpleName.isEmpty() && !this.simpleName.equals(simpleName);
+	}
+
+	/**
+	 * @return the number of changes of the references of the model of the factory (see {@link FactoryImpl#onReferenceChange()}),
+	 * or -1 if the factory does not count them, in which case no signature may be memoised
+	 */
+	int getReferenceChangeCount() {
+		Factory factory = getFactory();
+		return factory instanceof FactoryImpl ? ((FactoryImpl) factory).getReferenceChangeCount() : -1;
+	}
+
 	@Override
 	public CtNamedElement clone() {
 		return (CtNamedElement) super.clone();
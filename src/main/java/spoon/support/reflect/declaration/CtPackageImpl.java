@@ -19,6 +19,7 @@ package spoon.support.reflect.declaration;
 import spoon.reflect.annotations.MetamodelPropertyField;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtShadowable;
 import spoon.reflect.declaration.CtType;
@@ -26,6 +27,7 @@ import spoon.reflect.declaration.ParentNotInitializedException;
 import spoon.reflect.path.CtRole;
 import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.visitor.CtVisitor;
+import spoon.support.LazyTypeLoader;
 import spoon.support.comparator.QualifiedNameComparator;
 import spoon.support.util.ModelSet;
 
@@ -93,10 +95,37 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 		}
 	};
 
+	/**
+	 * Loads the types of this package which are not loaded yet, null when all the types are loaded
+	 */
+	private transient LazyTypeLoader lazyTypeLoader;
+
 	public CtPackageImpl() {
 		super();
 	}
 
+	/**
+	 * Sets the loader of the types of this package which are not loaded yet, see {@link spoon.support.BinaryModelStreamer#loadLazily(java.io.InputStream)}
+	 */
+	public void setLazyTypeLoader(LazyTypeLoader lazyTypeLoader) {
+		this.lazyTypeLoader = lazyTypeLoader;
+	}
+
+	private void loadLazyTypes(String simpleName) {
+		LazyTypeLoader loader = lazyTypeLoader;
+		if (loader != null) {
+			loader.loadTypes(this, simpleName);
+		}
+	}
+
+	@Override
+	public <T extends CtNamedElement> T setSimpleName(String simpleName) {
+		if (isRenamedTo(simpleName)) {
+			getFactory().Package().clearIndex();
+		}
+		return super.setSimpleName(simpleName);
+	}
+
 	@Override
 	public void accept(CtVisitor v) {
 		v.visitCtPackage(this);
@@ -129,7 +158,11 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 
 	@Override
 	public boolean removePackage(CtPackage pack) {
-		return packs.remove(pack);
+		if (packs.remove(pack)) {
+			getFactory().Package().clearIndex();
+			return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -177,6 +210,7 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 	@Override
 	@SuppressWarnings("unchecked")
 	public <T extends CtType<?>> T getType(String simpleName) {
+		loadLazyTypes(simpleName);
 		for (CtType<?> t : types) {
 			if (t.getSimpleName().equals(simpleName)) {
 				return (T) t;
@@ -187,17 +221,25 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 
 	@Override
 	public Set<CtType<?>> getTypes() {
+		loadLazyTypes(null);
 		return types;
 	}
 
 	@Override
 	public <T extends CtPackage> T setPackages(Set<CtPackage> packs) {
+		if (!this.packs.isEmpty()) {
+			getFactory().Package().clearIndex();
+		}
 		this.packs.set(packs);
 			return (T) this;
 		}
 
 	@Override
 	public <T extends CtPackage> T setTypes(Set<CtType<?>> types) {
+		loadLazyTypes(null);
+		if (!this.types.isEmpty()) {
+			getFactory().Type().clearIndex();
+		}
 		this.types.set(types);
 			return (T) this;
 		}
@@ -209,13 +251,21 @@ public class CtPackageImpl extends CtNamedElementImpl implements CtPackage {
 
 	@Override
 	public <T extends CtPackage> T addType(CtType<?> type) {
+		if (type != null) {
+			loadLazyTypes(type.getSimpleName());
+		}
 		types.add(type);
 		return (T) this;
 	}
 
 	@Override
 	public void removeType(CtType<?> type) {
-		types.remove(type);
+		if (type != null) {
+			loadLazyTypes(type.getSimpleName());
+		}
+		if (types.remove(type)) {
+			getFactory().Type().clearIndex();
+		}
 	}
 
 	@Override
@@ -96,6 +96,9 @@ public class CtParameterImpl<T> extends CtNamedElementImpl implements CtParamete
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, TYPE, type, this.type);
 		this.type = type;
+		if (parent instanceof CtExecutableImpl) {
+			((CtExecutableImpl<?>) parent).resetSignature();
+		}
 		return (C) this;
 	}
 
@@ -29,6 +29,7 @@ import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtFormalTypeDeclarer;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtModifiable;
+import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtShadowable;
 import spoon.reflect.declaration.CtType;
@@ -56,6 +57,7 @@ import spoon.support.comparator.CtLineElementComparator;
 import spoon.support.compiler.SnippetCompilationHelper;
 import spoon.support.reflect.CtExtendedModifier;
 import spoon.support.reflect.CtModifierHandler;
+import spoon.support.util.LazyList;
 import spoon.support.util.QualifiedNameBasedSortedSet;
 import spoon.support.util.SignatureBasedSortedSet;
 import spoon.support.visitor.ClassTypingContext;
@@ -66,9 +68,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static spoon.reflect.ModelElementContainerDefaultCapacities.TYPE_TYPE_PARAMETERS_CONTAINER_DEFAULT_CAPACITY;
 import static spoon.reflect.path.CtRole.ANNONYMOUS_EXECUTABLE;
@@ -99,10 +104,30 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 	@MetamodelPropertyField(role = {CtRole.TYPE_MEMBER, CtRole.FIELD, CtRole.CONSTRUCTOR, CtRole.ANNONYMOUS_EXECUTABLE, CtRole.METHOD, CtRole.NESTED_TYPE})
 	List<CtTypeMember> typeMembers = emptyList();
 
+	/**
+	 * The index of the methods and the fields of this type, null when it has to be built again
+	 */
+	private transient MemberTable memberTable;
+
 	public CtTypeImpl() {
 		super();
 	}
 
+	/**
+	 * Sets the members of this type, which are created by `loader` the first time they are accessed.
+	 * The shadow types shared between factories are copied this way, see {@link spoon.reflect.factory.TypeFactory#get(Class)}.
+	 */
+	public void setLazyTypeMembers(Supplier<List<CtTypeMember>> loader) {
+		this.typeMembers = new LazyList<>(() -> {
+			List<CtTypeMember> members = loader.get();
+			for (CtTypeMember member : members) {
+				member.setParent(this);
+			}
+			return members;
+		});
+		resetMemberTable();
+	}
+
 	@Override
 	public List<CtTypeMember> getTypeMembers() {
 		return Collections.unmodifiableList(typeMembers);
@@ -169,6 +194,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 			} else {
 				this.typeMembers.add(member);
 			}
+			resetMemberTable();
 		}
 		return (C) this;
 	}
@@ -187,6 +213,10 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 		} else {
 			role = NESTED_TYPE;
 		}
+		if (member instanceof CtType) {
+			getFactory().Type().clearIndex();
+		}
+		resetMemberTable();
 		if (typeMembers.size() == 1) {
 			if (typeMembers.contains(member)) {
 				getFactory().getEnvironment().getModelChangeListener().onListDelete(this, role, this.typeMembers, this.typeMembers.indexOf(member), member);
@@ -213,6 +243,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 			return (C) this;
 		}
 		typeMembers.clear();
+		resetMemberTable();
 		for (CtTypeMember typeMember : members) {
 			addTypeMember(typeMember);
 		}
@@ -237,6 +268,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 	@Override
 	public <C extends CtType<T>> C setFields(List<CtField<?>> fields) {
 		List<CtField<?>> oldFields = getFields();
+		resetMemberTable();
 		if (fields == null || fields.isEmpty()) {
 			this.typeMembers.removeAll(oldFields);
 			return (C) this;
@@ -256,12 +288,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 
 	@Override
 	public CtField<?> getField(String name) {
-		for (CtTypeMember typeMember : typeMembers) {
-			if (typeMember instanceof CtField && ((CtField) typeMember).getSimpleName().equals(name)) {
-				return (CtField<?>) typeMember;
-			}
-		}
-		return null;
+		return getMemberTable().fieldsByName.get(name);
 	}
 
 	@Override
@@ -301,6 +328,10 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 	@Override
 	public <C extends CtType<T>> C setNestedTypes(Set<CtType<?>> nestedTypes) {
 		Set<CtType<?>> oldNestedTypes = getNestedTypes();
+		if (!oldNestedTypes.isEmpty()) {
+			getFactory().Type().clearIndex();
+			resetMemberTable();
+		}
 		getFactory().getEnvironment().getModelChangeListener().onListDelete(this, NESTED_TYPE, typeMembers, oldNestedTypes);
 		if (nestedTypes == null || nestedTypes.isEmpty()) {
 			this.typeMembers.removeAll(oldNestedTypes);
@@ -613,11 +644,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 	@Override
 	public <M, C extends CtType<T>> C addMethod(CtMethod<M> method) {
 		if (method != null) {
-			for (CtTypeMember typeMember : new ArrayList<>(typeMembers)) {
-				if (!(typeMember instanceof CtMethod)) {
-					continue;
-				}
-				CtMethod<?> m = (CtMethod<?>) typeMember;
+			for (CtMethod<?> m : new ArrayList<>(getMemberTable().getMethodsByName(method.getSimpleName()))) {
 				if (m.getSignature().equals(method.getSignature())) {
 					// replace old method by new one (based on signature and not equality)
 					// we have to do it by hand
@@ -713,25 +740,20 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 	@Override
 	@SuppressWarnings("unchecked")
 	public <R> CtMethod<R> getMethod(CtTypeReference<R> returnType, String name, CtTypeReference<?>... parameterTypes) {
-		for (CtTypeMember typeMember : typeMembers) {
-			if (!(typeMember instanceof CtMethod)) {
+		for (CtMethod<?> candidate : getMemberTable().getMethodsByName(name)) {
+			CtMethod<R> m = (CtMethod<R>) candidate;
+			if (!m.getType().equals(returnType)) {
 				continue;
 			}
-			CtMethod<R> m = (CtMethod<R>) typeMember;
-			if (m.getSimpleName().equals(name)) {
-				if (!m.getType().equals(returnType)) {
-					continue;
-				}
-				boolean cont = m.getParameters().size() == parameterTypes.length;
-				for (int i = 0; cont && (i < m.getParameters().size()) && (i < parameterTypes.length); i++) {
-					if (!m.getParameters().get(i).getType().getQualifiedName().equals(parameterTypes[i].getQualifiedName())) {
-						cont = false;
-					}
-				}
-				if (cont) {
-					return m;
+			boolean cont = m.getParameters().size() == parameterTypes.length;
+			for (int i = 0; cont && (i < m.getParameters().size()) && (i < parameterTypes.length); i++) {
+				if (!m.getParameters().get(i).getType().getQualifiedName().equals(parameterTypes[i].getQualifiedName())) {
+					cont = false;
 				}
 			}
+			if (cont) {
+				return m;
+			}
 		}
 		return null;
 	}
@@ -743,7 +765,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 			return null;
 		}
 
-		for (CtMethod<?> candidate : getMethodsByName(name)) {
+		for (CtMethod<?> candidate : getMemberTable().getMethodsByName(name)) {
 			boolean cont = candidate.getParameters().size() == parameterTypes.length;
 			for (int i = 0; cont && (i < candidate.getParameters().size()) && (i < parameterTypes.length); i++) {
 				final CtTypeReference<?> ctParameterType = candidate.getParameters().get(i).getType();
@@ -817,13 +839,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 
 	@Override
 	public Set<CtMethod<?>> getMethods() {
-		Set<CtMethod<?>> methods = new SignatureBasedSortedSet<>();
-		for (CtTypeMember typeMember : typeMembers) {
-			if (typeMember instanceof CtMethod) {
-				methods.add((CtMethod<?>) typeMember);
-			}
-		}
-		return Collections.unmodifiableSet(methods);
+		return getMemberTable().methods;
 	}
 
 	@Override
@@ -845,17 +861,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 
 	@Override
 	public List<CtMethod<?>> getMethodsByName(String name) {
-		List<CtMethod<?>> result = new ArrayList<>(1);
-		for (CtTypeMember typeMember : typeMembers) {
-			if (!(typeMember instanceof CtMethod)) {
-				continue;
-			}
-			CtMethod<?> m = (CtMethod<?>) typeMember;
-			if (name.equals(m.getSimpleName())) {
-				result.add(m);
-			}
-		}
-		return result;
+		return new ArrayList<>(getMemberTable().getMethodsByName(name));
 	}
 
 
@@ -865,11 +871,8 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 			return false;
 		}
 
-		final String over = method.getSignature();
-		for (CtMethod<?> m : getMethods()) {
-			if (m.getSignature().equals(over)) {
-				return true;
-			}
+		if (getMemberTable().methodsBySignature.containsKey(method.getSignature())) {
+			return true;
 		}
 
 		// Checking whether a super class has the method.
@@ -897,6 +900,65 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 	}
 
 
+	private MemberTable getMemberTable() {
+		int referenceChangeCount = getReferenceChangeCount();
+		MemberTable table = memberTable;
+		if (table == null || table.referenceChangeCount != referenceChangeCount) {
+			table = new MemberTable(typeMembers, referenceChangeCount);
+			memberTable = referenceChangeCount >= 0 ? table : null;
+		}
+		return table;
+	}
+
+	/**
+	 * Forgets the member table of this type, it is called each time a member, its name or its signature changes.
+	 * The table is also computed again after a change of a reference of the model, see {@link #getReferenceChangeCount()}
+	 */
+	void resetMemberTable() {
+		memberTable = null;
+	}
+
+	/**
+	 * The methods and the fields of a type, indexed by name and by signature.
+	 * When several members have the same key, the first declared one is indexed, like a linear search would find.
+	 */
+	private static final class MemberTable {
+		final Set<CtMethod<?>> methods;
+		final Map<String, List<CtMethod<?>>> methodsByName = new HashMap<>();
+		final Map<String, CtMethod<?>> methodsBySignature = new HashMap<>();
+		final Map<String, CtField<?>> fieldsByName = new HashMap<>();
+		/** the reference change count of the factory when the table was computed */
+		final int referenceChangeCount;
+
+		MemberTable(List<CtTypeMember> typeMembers, int referenceChangeCount) {
+			this.referenceChangeCount = referenceChangeCount;
+			Set<CtMethod<?>> methods = new SignatureBasedSortedSet<>();
+			for (CtTypeMember typeMember : typeMembers) {
+				if (typeMember instanceof CtMethod) {
+					CtMethod<?> method = (CtMethod<?>) typeMember;
+					methods.add(method);
+					methodsByName.computeIfAbsent(method.getSimpleName(), name -> new ArrayList<>(1)).add(method);
+					methodsBySignature.putIfAbsent(method.getSignature(), method);
+				} else if (typeMember instanceof CtField) {
+					fieldsByName.putIfAbsent(typeMember.getSimpleName(), (CtField<?>) typeMember);
+				}
+			}
+			this.methods = Collections.unmodifiableSet(methods);
+		}
+
+		List<CtMethod<?>> getMethodsByName(String name) {
+			return methodsByName.getOrDefault(name, Collections.emptyList());
+		}
+	}
+
+	@Override
+	public <N extends CtNamedElement> N setSimpleName(String simpleName) {
+		if (isRenamedTo(simpleName)) {
+			getFactory().Type().clearIndex();
+		}
+		return super.setSimpleName(simpleName);
+	}
+
 	@Override
 	public String getQualifiedName() {
 		if (isTopLevel()) {
@@ -922,6 +984,7 @@ public abstract class CtTypeImpl<T> extends CtNamedElementImpl implements CtType
 		Set<CtMethod<?>> allMethods = getMethods();
 		getFactory().getEnvironment().getModelChangeListener().onListDelete(this, METHOD, this.typeMembers, new ArrayList(allMethods));
 		typeMembers.removeAll(allMethods);
+		resetMemberTable();
 		if (methods == null || methods.isEmpty()) {
 			return (C) this;
 		}
@@ -67,7 +67,9 @@ CtArrayTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> implements CtArrayTyp
 			componentType.setParent(this);
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, TYPE, componentType, this.componentType);
+		CtTypeReference<?> oldComponentType = this.componentType;
 		this.componentType = componentType;
+		onReferenceChange(oldComponentType, componentType);
 		return (C) this;
 	}
 
@@ -86,6 +88,14 @@ CtArrayTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> implements CtArrayTyp
 		return getComponentType().getQualifiedName() + "[]";
 	}
 
+	/**
+	 * Not memoised, because the hash code depends on the name of the component type.
+	 */
+	@Override
+	public int hashCode() {
+		return computeHashCode();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Class<T> getActualClass() {
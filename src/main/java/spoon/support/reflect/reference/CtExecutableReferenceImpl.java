@@ -84,6 +84,13 @@ public class CtExecutableReferenceImpl<T> extends CtReferenceImpl implements CtE
 		visitor.visitCtExecutableReference(this);
 	}
 
+	@Override
+	public void compact() {
+		super.compact();
+		trimToSize(parameters);
+		trimToSize(actualTypeArguments);
+	}
+
 	@Override
 	public List<CtTypeReference<?>> getActualTypeArguments() {
 		return actualTypeArguments;
@@ -38,6 +38,12 @@ public class CtIntersectionTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> i
 		visitor.visitCtIntersectionTypeReference(this);
 	}
 
+	@Override
+	public void compact() {
+		super.compact();
+		trimToSize(bounds);
+	}
+
 	@Override
 	public List<CtTypeReference<?>> getBounds() {
 		return Collections.unmodifiableList(bounds);
@@ -46,6 +52,7 @@ public class CtIntersectionTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> i
 	@Override
 	public <C extends CtIntersectionTypeReference> C setBounds(List<CtTypeReference<?>> bounds) {
 		if (bounds == null || bounds.isEmpty()) {
+			onReferenceChange(this.bounds.size(), 0);
 			this.bounds = CtElementImpl.emptyList();
 			return (C) this;
 		}
@@ -53,6 +60,7 @@ public class CtIntersectionTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> i
 			this.bounds = new ArrayList<>();
 		}
 		getFactory().getEnvironment().getModelChangeListener().onListDeleteAll(this, BOUND, this.bounds, new ArrayList<>(this.bounds));
+		// the bounds added again are counted as changes by addBound
 		this.bounds.clear();
 		for (CtTypeReference<?> bound : bounds) {
 			addBound(bound);
@@ -72,6 +80,7 @@ public class CtIntersectionTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> i
 			bound.setParent(this);
 			getFactory().getEnvironment().getModelChangeListener().onListAdd(this, BOUND, this.bounds, bound);
 			bounds.add(bound);
+			onReferenceChange(bounds.size() - 1, bounds.size());
 		}
 		return (C) this;
 	}
@@ -82,7 +91,11 @@ public class CtIntersectionTypeReferenceImpl<T> extends CtTypeReferenceImpl<T> i
 			return false;
 		}
 		getFactory().getEnvironment().getModelChangeListener().onListDelete(this, BOUND, bounds, bounds.indexOf(bound), bound);
-		return bounds.remove(bound);
+		if (!bounds.remove(bound)) {
+			return false;
+		}
+		onReferenceChange(bounds.size() + 1, bounds.size());
+		return true;
 	}
 
 	@Override
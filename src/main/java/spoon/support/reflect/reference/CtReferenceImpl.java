@@ -18,6 +18,7 @@ package spoon.support.reflect.reference;
 
 import spoon.reflect.annotations.MetamodelPropertyField;
 import spoon.reflect.code.CtComment;
+import spoon.reflect.cu.SourcePosition;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.factory.FactoryImpl;
@@ -29,6 +30,7 @@ import spoon.support.reflect.declaration.CtElementImpl;
 
 import java.io.Serializable;
 import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
 import java.util.List;
 
 import static spoon.reflect.path.CtRole.NAME;
@@ -51,18 +53,57 @@ public abstract class CtReferenceImpl extends CtElementImpl implements CtReferen
 		return simplename;
 	}
 
+	/**
+	 * Drops the source position of this reference and trims its lists to their size,
+	 * see {@link spoon.compiler.Environment#setCompactReferences(boolean)}.
+	 * This method is not meant to be in the public API.
+	 */
+	public void compact() {
+		if (getPosition() != SourcePosition.NOPOSITION) {
+			setPosition(SourcePosition.NOPOSITION);
+		}
+	}
+
+	/**
+	 * Trims `list` to its size when it is an {@link ArrayList}, whose capacity grows by steps
+	 */
+	protected static void trimToSize(List<?> list) {
+		if (list instanceof ArrayList) {
+			((ArrayList<?>) list).trimToSize();
+		}
+	}
+
+	/**
+	 * Records that a property of this reference changed from `oldValue` to `newValue`, see {@link FactoryImpl#onReferenceChange()}.
+	 * Only a real change of a reference which already has a parent counts: setting the properties of a fresh reference,
+	 * as the factories, the clones and the tree builder do, keeps the memoised signatures.
+	 */
+	protected void onReferenceChange(Object oldValue, Object newValue) {
+		if (oldValue == null || "".equals(oldValue) || oldValue.equals(newValue) || !isParentInitialized()) {
+			return;
+		}
+		Factory factory = getFactory();
+		if (factory instanceof FactoryImpl) {
+			((FactoryImpl) factory).onReferenceChange();
+		}
+	}
+
 	@Override
 	public <T extends CtReference> T setSimpleName(String simplename) {
 		Factory factory = getFactory();
 		if (factory == null) {
 			this.simplename = simplename;
+			resetHashCode();
 			return (T) this;
 		}
 		if (factory instanceof FactoryImpl) {
 			simplename = ((FactoryImpl) factory).dedup(simplename);
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, NAME, simplename, this.simplename);
+		String oldSimpleName = this.simplename;
 		this.simplename = simplename;
+		resetHashCode();
+		onReferenceChange(oldSimpleName, simplename);
 		return (T) this;
 	}
 
@@ -90,7 +90,9 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object> im
 	@Override
 	public <T extends CtTypeParameterReference> T setUpper(boolean upper) {
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, IS_UPPER, upper, this.upper);
+		boolean oldUpper = this.upper;
 		this.upper = upper;
+		onReferenceChange(oldUpper, upper);
 		return (T) this;
 	}
 
@@ -185,7 +187,9 @@ public class CtTypeParameterReferenceImpl extends CtTypeReferenceImpl<Object> im
 		}
 
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, BOUNDING_TYPE, superType, this.superType);
+		CtTypeReference<?> oldSuperType = this.superType;
 		this.superType = superType;
+		onReferenceChange(oldSuperType, superType);
 		return (T) this;
 	}
 
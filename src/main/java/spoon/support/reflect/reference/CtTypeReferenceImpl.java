@@ -39,6 +39,7 @@ import spoon.reflect.reference.CtTypeParameterReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.CtVisitor;
 import spoon.support.SpoonClassNotFoundException;
+import spoon.support.modelobs.TypeHierarchyIndex;
 import spoon.support.reflect.declaration.CtElementImpl;
 import spoon.support.visitor.ClassTypingContext;
 
@@ -78,6 +79,12 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements CtTypeRef
 		visitor.visitCtTypeReference(this);
 	}
 
+	@Override
+	public void compact() {
+		super.compact();
+		trimToSize(actualTypeArguments);
+	}
+
 	@Override
 	public CtTypeReference<?> box() {
 		if (!isPrimitive()) {
@@ -235,9 +242,18 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements CtTypeRef
 			//everything is a sub type of Object
 			return true;
 		}
+		TypeHierarchyIndex index = TypeHierarchyIndex.getTypeHierarchyIndex(getFactory().getEnvironment());
+		if (index != null && isIndexable(this) && isIndexable(type) && !index.isSubtypeOf(getQualifiedName(), type.getQualifiedName())) {
+			//the erasure is not a sub type, so the type is not a sub type either
+			return false;
+		}
 		return new ClassTypingContext(this).isSubtypeOf(type);
 	}
 
+	private static boolean isIndexable(CtTypeReference<?> type) {
+		return !(type instanceof CtArrayTypeReference || type instanceof CtTypeParameterReference || type instanceof CtIntersectionTypeReference);
+	}
+
 	/**
 	 * Detects if this type is an code responsible for implementing of that type.<br>
 	 * In means it detects whether this type can access protected members of that type
@@ -277,7 +293,9 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements CtTypeRef
 			declaringType.setParent(this);
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, DECLARING_TYPE, declaringType, this.declaringType);
+		CtTypeReference<?> oldDeclaringType = this.declaringType;
 		this.declaringType = declaringType;
+		onReferenceChange(oldDeclaringType, declaringType);
 		return (C) this;
 	}
 
@@ -287,7 +305,9 @@ public class CtTypeReferenceImpl<T> extends CtReferenceImpl implements CtTypeRef
 			pack.setParent(this);
 		}
 		getFactory().getEnvironment().getModelChangeListener().onObjectUpdate(this, PACKAGE_REF, pack, this.pack);
+		CtPackageReference oldPackage = this.pack;
 		this.pack = pack;
+		onReferenceChange(oldPackage, pack);
 		return (C) this;
 	}
 
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.util;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/**
+ * A list whose elements are created by a {@link Supplier} the first time the list is accessed.
+ * It is serialized as an {@link ArrayList} of its elements.
+ */
+public final class LazyList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private transient Supplier<? extends List<E>> loader;
+	private transient List<E> elements;
+
+	public LazyList(Supplier<? extends List<E>> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * @return true if the elements are already created
+	 */
+	public synchronized boolean isLoaded() {
+		return elements != null;
+	}
+
+	private synchronized List<E> getElements() {
+		if (elements == null) {
+			elements = new ArrayList<>(loader.get());
+			loader = null;
+		}
+		return elements;
+	}
+
+	@Override
+	public E get(int index) {
+		return getElements().get(index);
+	}
+
+	@Override
+	public int size() {
+		return getElements().size();
+	}
+
+	@Override
+	public E set(int index, E element) {
+		return getElements().set(index, element);
+	}
+
+	@Override
+	public void add(int index, E element) {
+		getElements().add(index, element);
+		modCount++;
+	}
+
+	@Override
+	public E remove(int index) {
+		E removed = getElements().remove(index);
+		modCount++;
+		return removed;
+	}
+
+	private Object writeReplace() throws ObjectStreamException {
+		return new ArrayList<>(getElements());
+	}
+}
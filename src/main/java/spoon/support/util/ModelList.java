@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.RandomAccess;
 
 import spoon.SpoonException;
 import spoon.support.modelobs.FineModelChangeListener;
@@ -36,7 +37,7 @@ import spoon.support.reflect.declaration.CtElementImpl;
  * 1) each inserted {@link CtElement} gets assigned correct parent
  * 2) each change is reported in {@link FineModelChangeListener}
  */
-public abstract class ModelList<T extends CtElement> extends AbstractList<T> implements Serializable {
+public abstract class ModelList<T extends CtElement> extends AbstractList<T> implements Serializable, RandomAccess {
 	private static final long serialVersionUID = 1L;
 
 	private List<T> list = CtElementImpl.emptyList();
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2006-2018 INRIA and contributors
+ * Spoon - http://spoon.gforge.inria.fr/
+ *
+ * This software is governed by the CeCILL-C License under French law and
+ * abiding by the rules of distribution of free software. You can use, modify
+ * and/or redistribute the software under the terms of the CeCILL-C license as
+ * circulated by CEA, CNRS and INRIA at http://www.cecill.info.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the CeCILL-C License for more details.
+ *
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C license and that you accept its terms.
+ */
+package spoon.support.visitor;
+
+import spoon.processing.ProcessInterruption;
+import spoon.processing.Processor;
+import spoon.processing.TraversalStrategy;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.visitor.CtScanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This visitor applies several processors in a single traversal of the model.
+ * Each scanned element is given to the processors in their order, like
+ * {@link ProcessingVisitor} would do with each of them.
+ * A processor which is interrupted is not called any more, the others go on.
+ */
+public class FusedProcessingVisitor extends CtScanner {
+
+	Factory factory;
+
+	final List<Processor<CtElement>> processors = new ArrayList<>();
+
+	final List<Class<?>[]> processedElementTypes = new ArrayList<>();
+
+	Processor<?> current;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param processors the initialized processors, their processed element types must not change any more
+	 */
+	@SuppressWarnings("unchecked")
+	public FusedProcessingVisitor(Factory factory, List<? extends Processor<?>> processors) {
+		this.factory = factory;
+		for (Processor<?> processor : processors) {
+			Set<Class<? extends CtElement>> types = processor.getProcessedElementTypes();
+			if (types == null) {
+				// nothing to process in the model
+				continue;
+			}
+			this.processors.add((Processor<CtElement>) processor);
+			this.processedElementTypes.add(types.toArray(new Class<?>[types.size()]));
+		}
+	}
+
+	/**
+	 * @return the processor which is processing an element, or null
+	 */
+	public Processor<?> getCurrentProcessor() {
+		return current;
+	}
+
+	/**
+	 * @return the processors which are still applied
+	 */
+	public List<Processor<CtElement>> getProcessors() {
+		return processors;
+	}
+
+	@Override
+	public void scan(CtElement e) {
+		if (e == null || processors.isEmpty()) {
+			return;
+		}
+		process(e, TraversalStrategy.PRE_ORDER);
+		super.scan(e);
+		process(e, TraversalStrategy.POST_ORDER);
+	}
+
+	private void process(CtElement e, TraversalStrategy strategy) {
+		for (int i = 0; i < processors.size(); i++) {
+			Processor<CtElement> p = processors.get(i);
+			if (p.getTraversalStrategy() != strategy || !canBeProcessed(processedElementTypes.get(i), e)) {
+				continue;
+			}
+			current = p;
+			try {
+				if (p.isToBeProcessed(e)) {
+					p.process(e);
+				}
+			} catch (ProcessInterruption ignore) {
+				processors.remove(i);
+				processedElementTypes.remove(i);
+				i--;
+			} finally {
+				current = null;
+			}
+		}
+	}
+
+	private boolean canBeProcessed(Class<?>[] types, CtElement e) {
+		if (factory.getEnvironment().isProcessingStopped()) {
+			return false;
+		}
+		for (Class<?> type : types) {
+			if (!type.isAssignableFrom(e.getClass())) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -19,8 +19,11 @@ package spoon.support.visitor;
 import spoon.processing.Processor;
 import spoon.processing.TraversalStrategy;
 import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.visitor.CtScanner;
+import spoon.support.modelobs.ElementKindIndex;
 
 /**
  * This visitor implements the code processing engine.
@@ -83,6 +86,33 @@ public class ProcessingVisitor extends CtScanner {
 		}
 	}
 
+	/**
+	 * Applies the processing to the given element and its children, as {@link #scan(CtElement)} does.
+	 * When an {@link ElementKindIndex} is attached, the element is a module or a package
+	 * and the processor is read-only with a pre-order traversal,
+	 * the elements of the processed type are taken from the index instead of scanning the element.
+	 */
+	@SuppressWarnings("unchecked")
+	public void process(CtElement e) {
+		Processor<CtElement> p = (Processor<CtElement>) processor;
+		ElementKindIndex index = null;
+		if ((e instanceof CtModule || e instanceof CtPackage) && p.isReadOnly() && p.getTraversalStrategy() == TraversalStrategy.PRE_ORDER
+				&& p.getProcessedElementTypes() != null && !p.getProcessedElementTypes().isEmpty()) {
+			index = ElementKindIndex.getElementKindIndex(factory.getEnvironment());
+		}
+		if (index == null) {
+			scan(e);
+			return;
+		}
+		// canBeProcessed checks the other processed types
+		Class<? extends CtElement> type = p.getProcessedElementTypes().iterator().next();
+		for (CtElement candidate : index.getElements(e, type)) {
+			if (canBeProcessed(candidate) && p.isToBeProcessed(candidate)) {
+				p.process(candidate);
+			}
+		}
+	}
+
 	public void setProcessor(Processor<?> processor) {
 		this.processor = processor;
 	}
@@ -17,6 +17,7 @@
 package spoon.support.visitor;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
@@ -38,6 +39,7 @@ import spoon.reflect.visitor.chain.ScanningMode;
 import spoon.reflect.visitor.filter.CtScannerFunction;
 import spoon.reflect.visitor.filter.SuperInheritanceHierarchyFunction;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.modelobs.TypeHierarchyIndex;
 
 import static spoon.reflect.visitor.chain.ScanningMode.NORMAL;
 import static spoon.reflect.visitor.chain.ScanningMode.SKIP_ALL;
@@ -115,6 +117,18 @@ public class SubInheritanceHierarchyResolver {
 	 * @param outputConsumer the consumer for found sub types
 	 */
 	public <T extends CtType<?>> void forEachSubTypeInPackage(final CtConsumer<T> outputConsumer) {
+		TypeHierarchyIndex index = TypeHierarchyIndex.getTypeHierarchyIndex(inputPackage.getFactory().getEnvironment());
+		if (index != null && failOnClassNotFound == false) {
+			//the sub types are already known, there is no need to scan the package
+			for (String superTypeName : new ArrayList<>(targetSuperTypes)) {
+				for (CtType<?> subType : index.getSubTypes(superTypeName, includingInterfaces)) {
+					if (subType.hasParent(inputPackage) && targetSuperTypes.add(subType.getQualifiedName())) {
+						outputConsumer.accept((T) subType);
+					}
+				}
+			}
+			return;
+		}
 		/*
 		 * Set of qualified names of all visited types, independent on whether they are sub types or not.
 		 */
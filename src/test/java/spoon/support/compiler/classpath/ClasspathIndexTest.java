@@ -0,0 +1,97 @@
+package spoon.support.compiler.classpath;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import spoon.support.compiler.ClasspathIndex;
+import spoon.support.compiler.IndexedClassLoader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ClasspathIndexTest {
+
+	private static final String JAR = "./src/test/resources/visibility/snakeyaml-1.9.jar";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testIndexOfJar() throws Exception {
+		ClasspathIndex index = new ClasspathIndex(new String[] {JAR});
+		assertTrue(index.isComplete());
+		assertTrue(index.containsType("org.yaml.snakeyaml.Yaml"));
+		assertTrue(index.containsPackage("org.yaml.snakeyaml"));
+		assertFalse(index.containsType("org.yaml.snakeyaml.Unknown"));
+		assertFalse(index.containsPackage("org.yaml"));
+		assertEquals(new File(JAR).getCanonicalFile(), index.getJar("org.yaml.snakeyaml.Yaml"));
+		assertNull(index.getJar("java.lang.String"));
+
+		// the types of a folder of the classpath are found from their class files
+		File classes = folder.newFolder("classes");
+		assertTrue(new File(classes, "a/b").mkdirs());
+		assertTrue(new File(classes, "a/b/C$D.class").createNewFile());
+		ClasspathIndex indexWithFolder = new ClasspathIndex(new String[] {JAR, classes.getPath()});
+		assertTrue(indexWithFolder.isComplete());
+		assertTrue(indexWithFolder.containsType("a.b.C$D"));
+		assertTrue(indexWithFolder.containsPackage("a.b"));
+		assertFalse(indexWithFolder.containsType("a.b.C"));
+		assertFalse(indexWithFolder.containsPackage("a"));
+	}
+
+	@Test
+	public void testManifestClassPath() throws Exception {
+		// contract: the jars of the Class-Path of the manifest of a jar are indexed, as URLClassLoader loads their classes
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, new File(JAR).getCanonicalFile().toURI().toString());
+		File pathingJar = folder.newFile("pathing.jar");
+		// a jar with only a manifest
+		new JarOutputStream(new FileOutputStream(pathingJar), manifest).close();
+		ClasspathIndex index = new ClasspathIndex(new String[] {pathingJar.getPath()});
+		assertTrue(index.isComplete());
+		assertTrue(index.containsType("org.yaml.snakeyaml.Yaml"));
+		assertEquals(new File(JAR).getCanonicalFile(), index.getJar("org.yaml.snakeyaml.Yaml"));
+
+		URL[] urls = {pathingJar.toURI().toURL()};
+		try (IndexedClassLoader classLoader = new IndexedClassLoader(urls, index, null)) {
+			assertNotNull(classLoader.loadClass("org.yaml.snakeyaml.Yaml"));
+		}
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		File jar = new File(JAR);
+		long hash = ClasspathIndex.getContentHash(jar);
+		File indexFile = folder.newFile("classpath-index");
+		new ClasspathIndex(new String[] {JAR}).save(indexFile);
+		ClasspathIndex.load(indexFile);
+		assertEquals(hash, ClasspathIndex.getContentHash(jar));
+		assertTrue(new ClasspathIndex(new String[] {JAR}).containsType("org.yaml.snakeyaml.Yaml"));
+	}
+
+	@Test
+	public void testIndexedClassLoader() throws Exception {
+		URL[] urls = {new File(JAR).toURI().toURL()};
+		try (IndexedClassLoader classLoader = new IndexedClassLoader(urls, new ClasspathIndex(new String[] {JAR}), null)) {
+			assertNotNull(classLoader.loadClass("org.yaml.snakeyaml.Yaml"));
+			try {
+				classLoader.loadClass("org.yaml.snakeyaml.Unknown");
+				fail();
+			} catch (ClassNotFoundException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -44,7 +44,7 @@ public class ExtendedStringLiteralTest {
 								TreeBuilderCompiler treeBuilderCompiler = new TreeBuilderCompiler(
 										environment, getHandlingPolicy(), compilerOptions,
 										this.jdtCompiler.requestor, getProblemFactory(), this.out,
-										null);
+										null, this.jdtCompiler.getEnvironment());
 								CompilationUnitDeclaration[] units = treeBuilderCompiler
 										.buildUnits(getCompilationUnits());
 								return units;
@@ -13,9 +13,11 @@ import spoon.metamodel.MetamodelProperty;
 import spoon.reflect.annotations.MetamodelPropertyField;
 import spoon.reflect.annotations.PropertyGetter;
 import spoon.reflect.annotations.PropertySetter;
+import spoon.reflect.code.CtBlock;
 import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtFieldRead;
 import spoon.reflect.code.CtNewArray;
+import spoon.reflect.code.CtStatement;
 import spoon.reflect.declaration.CtAnnotation;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtElement;
@@ -376,6 +378,25 @@ public class MetamodelTest {
 		assertNull(RoleHandlerHelper.getRoleHandlerWrtParent(type));
 	}
 
+	@Test
+	public void testRoleInParentFollowsModelChanges() {
+		// contract: the role in parent is remembered, but it is null once the element is removed from its parent
+		CtClass<?> type = Launcher.parseClass("class A { int a; int b; void m() { int x = 0; int y = 1; } }");
+		CtField<?> b = type.getField("b");
+		CtBlock<?> body = type.getMethodsByName("m").get(0).getBody();
+		CtStatement y = body.getStatement(1);
+
+		assertSame(CtRole.STATEMENT, y.getRoleInParent());
+		body.insertBegin(body.getStatement(0).clone());
+		assertSame(CtRole.STATEMENT, y.getRoleInParent());
+		body.removeStatement(y);
+		assertNull(y.getRoleInParent());
+
+		assertSame(CtRole.TYPE_MEMBER, b.getRoleInParent());
+		type.removeField(b);
+		assertNull(b.getRoleInParent());
+	}
+
 	@Test
 	public void elementAnnotationRoleHandlerTest() {
 		Launcher launcher = new Launcher();
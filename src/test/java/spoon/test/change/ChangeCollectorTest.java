@@ -1,14 +1,21 @@
 package spoon.test.change;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 
 import org.junit.Test;
 
+import spoon.Launcher;
+import spoon.OutputType;
 import spoon.support.modelobs.ChangeCollector;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtField;
@@ -74,4 +81,30 @@ public class ChangeCollectorTest {
 		assertEquals(new HashSet<>(Arrays.asList(CtRole.DEFAULT_EXPRESSION)), changeCollector.getDirectChanges(field));
 		
 	}
+
+	@Test
+	public void testChangedCompilationUnitsOutput() throws Exception {
+		//contract: with the output type CHANGED_COMPILATION_UNITS, only the compilation units containing changes are printed, the other ones are copied
+		Launcher launcher = new Launcher();
+		launcher.addInputResource("./src/test/java/spoon/test/change/testclasses/SubjectOfChange.java");
+		launcher.addInputResource("./src/test/java/spoon/test/prettyprinter/testclasses/AClass.java");
+		launcher.setSourceOutputDirectory("./target/changed-compilation-units");
+		launcher.getEnvironment().setOutputType(OutputType.CHANGED_COMPILATION_UNITS);
+		launcher.buildModel();
+
+		ChangeCollector changeCollector = new ChangeCollector().attachTo(launcher.getEnvironment());
+		CtType<?> ctClass = launcher.getFactory().Type().get(SubjectOfChange.class);
+		ctClass.getField("someField").getDefaultExpression().delete();
+		assertEquals(Collections.singleton(ctClass), changeCollector.getChangedTopLevelTypes());
+
+		launcher.prettyprint();
+
+		File unchangedSource = new File("./src/test/java/spoon/test/prettyprinter/testclasses/AClass.java");
+		File unchangedOutput = new File("./target/changed-compilation-units/spoon/test/prettyprinter/testclasses/AClass.java");
+		assertArrayEquals(Files.readAllBytes(unchangedSource.toPath()), Files.readAllBytes(unchangedOutput.toPath()));
+
+		File changedOutput = new File("./target/changed-compilation-units/spoon/test/change/testclasses/SubjectOfChange.java");
+		String printed = new String(Files.readAllBytes(changedOutput.toPath()));
+		assertTrue(printed.contains("int someField;"));
+	}
 }
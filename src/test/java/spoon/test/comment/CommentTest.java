@@ -991,4 +991,28 @@ public class CommentTest {
 	private List<String> getCommentStrings(CtElement ele) {
 		return ele.getComments().stream().map(Object::toString).collect(Collectors.toList());
 	}
+
+	@Test
+	public void testCommentsBuiltInParallel() {
+		// contract: building the comments on several threads gives the same model as the sequential build
+		Launcher sequential = new Launcher();
+		sequential.addInputResource("./src/test/java/spoon/test/comment/testclasses/");
+		sequential.getEnvironment().setCommentEnabled(true);
+		CtModel sequentialModel = sequential.buildModel();
+
+		Launcher parallel = new Launcher();
+		parallel.addInputResource("./src/test/java/spoon/test/comment/testclasses/");
+		parallel.getEnvironment().setCommentEnabled(true);
+		parallel.getEnvironment().setBuildingThreads(4);
+		CtModel parallelModel = parallel.buildModel();
+
+		List<CtComment> sequentialComments = sequentialModel.getElements(new TypeFilter<>(CtComment.class));
+		List<CtComment> parallelComments = parallelModel.getElements(new TypeFilter<>(CtComment.class));
+		assertTrue(sequentialComments.size() > 0);
+		assertEquals(sequentialComments.size(), parallelComments.size());
+		for (int i = 0; i < sequentialComments.size(); i++) {
+			assertEquals(sequentialComments.get(i), parallelComments.get(i));
+			assertEquals(sequentialComments.get(i).getParent().getPosition().getSourceStart(), parallelComments.get(i).getParent().getPosition().getSourceStart());
+		}
+	}
 }
@@ -13,6 +13,8 @@ import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.path.CtRole;
+import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtTypeReference;
 import spoon.support.compiler.jdt.JDTSnippetCompiler;
 import spoon.support.visitor.equals.EqualsVisitor;
 
@@ -115,4 +117,31 @@ public class EqualTest {
 		assertSame(var.getCatchers().get(0).getParameter().getMultiTypes(), ev.getNotEqualOther());
 		assertSame(CtRole.MULTI_TYPE, ev.getNotEqualRole());
 	}
+
+	@Test
+	public void testMemoisedHashCodeFollowsRenames() throws Exception {
+		// contract: the memoised hash code is recomputed when the name of the element changes
+		Factory factory = new Launcher().createFactory();
+		CtLocalVariable<?> var = factory.Code().createCodeSnippetStatement("java.util.List<Object> l = null").compile();
+		CtLocalVariable<?> var2 = var.clone();
+		assertEquals(var.hashCode(), var2.hashCode());
+
+		var2.setSimpleName("renamed");
+		assertNotEquals(var2, var);
+		var.setSimpleName("renamed");
+		assertEquals(var2, var);
+		assertEquals(var.hashCode(), var2.hashCode());
+
+		CtTypeReference<?> type = var.getType();
+		int typeHashCode = type.hashCode();
+		type.setSimpleName("Set");
+		assertNotEquals(typeHashCode, type.hashCode());
+		assertEquals(factory.Type().createReference("java.util.Set").hashCode(), type.hashCode());
+
+		// an array reference is named after its component type
+		CtArrayTypeReference<?> array = factory.Type().createArrayReference(factory.Type().createReference("java.util.List"));
+		int arrayHashCode = array.hashCode();
+		array.getComponentType().setSimpleName("Set");
+		assertNotEquals(arrayHashCode, array.hashCode());
+	}
 }
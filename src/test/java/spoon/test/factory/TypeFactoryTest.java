@@ -4,7 +4,9 @@ import com.mysema.query.types.expr.ComparableExpressionBase;
 import org.junit.Test;
 import spoon.Launcher;
 import spoon.reflect.code.CtJavaDoc;
+import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.factory.TypeFactory;
@@ -14,9 +16,14 @@ import spoon.test.factory.testclasses3.Prepare;
 import spoon.testing.utils.ModelUtils;
 
 import java.io.File;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class TypeFactoryTest {
 
@@ -85,4 +92,63 @@ public class TypeFactoryTest {
 		assertNotNull(poorNameChoice);
 		assertEquals(poorNameChoice,poorName.getMethodsByName("lookingForTroubles").get(0).getType().getTypeDeclaration());
 	}
+
+	@Test
+	public void testGetIsConsistentWithModelChanges() {
+		// contract: the types and packages found by qualified name are forgotten once they are removed or renamed
+		CtClass<?> type = Launcher.parseClass("class A { class B {} void m() { Object o = new Object() {}; } }");
+		Factory factory = type.getFactory();
+		CtType<?> nested = type.getNestedType("B");
+
+		assertSame(type, factory.Type().get("A"));
+		assertSame(nested, factory.Type().get("A$B"));
+		CtType<?> anonymous = factory.Type().get("A$1");
+		assertNotNull(anonymous);
+		assertSame(anonymous, factory.Type().get("A$1"));
+		type.getMethodsByName("m").get(0).getBody().getStatement(0).delete();
+		assertNull(factory.Type().get("A$1"));
+
+		nested.setSimpleName("C");
+		assertNull(factory.Type().get("A$B"));
+		assertSame(nested, factory.Type().get("A$C"));
+
+		type.removeNestedType(nested);
+		assertNull(factory.Type().get("A$C"));
+
+		CtPackage pack = factory.Package().getOrCreate("a.b");
+		assertSame(pack, factory.Package().get("a.b"));
+		pack.getDeclaringPackage().removePackage(pack);
+		assertNull(factory.Package().get("a.b"));
+	}
+
+	@Test
+	public void testShadowTypesOfSeveralFactories() {
+		// contract: each factory has its own shadow types, even when they are copied from the ones shared by all the factories
+		Factory factory1 = new Launcher().getFactory();
+		Factory factory2 = new Launcher().getFactory();
+		CtType<?> map1 = factory1.Type().get(Map.class);
+		CtType<?> map2 = factory2.Type().get(Map.class);
+
+		assertNotSame(map1, map2);
+		assertSame(factory1, map1.getFactory());
+		assertSame(factory2, map2.getFactory());
+		assertSame(factory1, map1.getMethodsByName("put").get(0).getFactory());
+		assertSame(factory2, map2.getMethodsByName("put").get(0).getFactory());
+		// the members are copied on demand, with their parent and their factory
+		CtMethod<?> put = map1.getMethodsByName("put").get(0);
+		assertSame(map1, put.getParent());
+		assertSame(factory1, put.getParameters().get(0).getType().getFactory());
+		assertEquals(map1, map2);
+		assertTrue(map1.isShadow());
+		assertEquals("java.util.Map", map1.getQualifiedName());
+		assertEquals(map1.getMethods().size(), map2.getMethods().size());
+		assertSame(map1, factory1.Type().get(Map.class));
+
+		// the shadow types are not in the model of the factory
+		assertNull(factory1.Package().get("java.util"));
+
+		// a nested type is the one of its enclosing type
+		assertSame(map1.getNestedType("Entry"), factory1.Type().get(Map.Entry.class));
+		assertSame(factory1, factory1.Type().get(Map.Entry.class).getFactory());
+	}
 }
@@ -358,6 +358,25 @@ public class FieldAccessTest {
 		assertEquals("spoon.test.fieldaccesses.testclasses.Mole.Delicious delicious", aType.getMethodsByName("m").get(0).getParameters().get(0).toString());
 	}
 
+	@Test
+	public void testQualifiedAccessToMemberTypeOfPackagePrivateType() throws Exception {
+		// contract: in noclasspath, a qualified access to a member of a package-private type is resolved from the units,
+		// a member type leads to its top-level type and a unit without types (package-info) is skipped
+		final Launcher launcher = new Launcher();
+		launcher.addInputResource("./src/test/resources/noclasspath/member-access");
+		launcher.getEnvironment().setNoClasspath(true);
+		launcher.buildModel();
+
+		CtType<?> user = launcher.getFactory().Type().get("client.User");
+		CtFieldRead<?> viaSubclass = user.getMethodsByName("viaSubclass").get(0).getElements(new TypeFilter<>(CtFieldRead.class)).get(0);
+		// the access goes through the public subclass, as written
+		assertEquals("api.Sub$Inner", viaSubclass.getVariable().getDeclaringType().getQualifiedName());
+
+		CtFieldRead<?> viaImportedMemberType = user.getMethodsByName("viaImportedMemberType").get(0).getElements(new TypeFilter<>(CtFieldRead.class)).get(0);
+		// `Nested` leads to its top-level type `Holder`, whose super classes do not declare `Deep`, so the declaring type is kept
+		assertEquals("api.Holder$Hidden$Deep", viaImportedMemberType.getVariable().getDeclaringType().getQualifiedName());
+	}
+
 	@Test
 	public void testFieldAccessOnUnknownType() throws Exception {
 		final Launcher launcher = new Launcher();
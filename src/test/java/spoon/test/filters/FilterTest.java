@@ -707,6 +707,59 @@ public class FilterTest {
 			});
 		assertTrue(context.count>0);
 	}
+	@Test
+	public void testTypedQuerySteps() throws Exception {
+		// contract: the typed query steps only get the inputs of their type, without any ClassCastException,
+		// even with the default QueryFailurePolicy.FAIL
+		final Launcher launcher = new Launcher();
+		launcher.setArgs(new String[] {"--output-type", "nooutput","--level","info" });
+		launcher.addInputResource("./src/test/java/spoon/test/filters/testclasses");
+		launcher.run();
+
+		class Context {
+			int count = 0;
+		}
+		Context context = new Context();
+
+		CtPackage rootPackage = launcher.getFactory().Package().getRootPackage();
+		rootPackage.filterChildren(CtClass.class, null)
+			.map(CtMethod.class, m -> m.getType())
+			.forEach(CtTypeReference.class, t -> {
+				context.count++;
+			});
+		assertEquals(0, context.count);
+
+		rootPackage.filterChildren(CtClass.class, c -> "Tacos".equals(c.getSimpleName()))
+			.map(CtType.class, (t, out) -> {
+				for (Object m : t.getMethods()) {
+					out.accept(m);
+				}
+			})
+			.forEach(CtMethod.class, m -> {
+				assertEquals("Tacos", m.getDeclaringType().getSimpleName());
+				context.count++;
+			});
+		assertEquals(launcher.getFactory().Class().get(Tacos.class).getMethods().size(), context.count);
+		assertEquals(rootPackage.getElements(new TypeFilter<>(CtMethod.class)), rootPackage.filterChildren(CtMethod.class, null).list());
+
+		// the query can be evaluated again with other inputs
+		CtQuery query = launcher.getFactory().createQuery().filterChildren(CtMethod.class, m -> m.getBody() != null);
+		List<CtMethod<?>> methods = new ArrayList<>();
+		query.setInput(launcher.getFactory().Class().get(Tacos.class)).forEach((CtMethod<?> m) -> methods.add(m));
+		assertFalse(methods.isEmpty());
+		assertEquals(methods, query.setInput(launcher.getFactory().Class().get(Tacos.class)).list());
+
+		// a ClassCastException thrown by the client's code is still reported
+		try {
+			rootPackage.filterChildren(CtClass.class, null).forEach(CtClass.class, c -> {
+				throw new ClassCastException("TEST");
+			});
+			fail();
+		} catch (ClassCastException e) {
+			assertEquals("TEST", e.getMessage());
+		}
+	}
+
 	@Test
 	public void testElementMapFunction() throws Exception {
 		// contract: a map(Function) can be followed by a forEach(...) or by a list()
@@ -1,18 +1,26 @@
 package spoon.test.jar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import spoon.Launcher;
 import spoon.SpoonModelBuilder;
+import spoon.compiler.SpoonFile;
 import spoon.compiler.SpoonResourceHelper;
 import spoon.reflect.factory.Factory;
 import spoon.support.compiler.VirtualFile;
+import spoon.support.compiler.ZipFolder;
 
 public class JarTest {
 
@@ -30,6 +38,33 @@ public class JarTest {
 		assertEquals("spoon.test.strings.Main", factory.getModel().getAllTypes().iterator().next().getQualifiedName());
 	}
 
+	@Test
+	public void testJarEntriesAreReadOnDemand() throws Exception {
+		ZipFolder folder = new ZipFolder(new File("./src/test/resources/sourceJar/test.jar"));
+		assertEquals(4, folder.getFiles().size());
+		List<SpoonFile> javaFiles = folder.getAllJavaFiles();
+		assertEquals(1, javaFiles.size());
+		try (InputStream content = javaFiles.get(0).getContent()) {
+			assertTrue(IOUtils.toString(content, "UTF-8").contains("class Main"));
+		}
+		// the zip file is opened again when an entry is read after it was closed
+		folder.close();
+		try (InputStream content = javaFiles.get(0).getContent()) {
+			assertTrue(IOUtils.toString(content, "UTF-8").contains("class Main"));
+		}
+		folder.close();
+
+		// the entries are read on several threads, with the files of the file system
+		Launcher launcher = new Launcher();
+		launcher.getEnvironment().setNoClasspath(true);
+		launcher.getEnvironment().setBuildingThreads(4);
+		launcher.addInputResource("./src/test/resources/sourceJar/test.jar");
+		launcher.addInputResource("./src/test/resources/spoon/test/api/Foo.java");
+		launcher.buildModel();
+		assertNotNull(launcher.getFactory().Type().get("spoon.test.strings.Main"));
+		assertNotNull(launcher.getFactory().Type().get("Foo"));
+	}
+
 	@Test
 	public void testFile() throws Exception {
 		Launcher launcher = new Launcher();
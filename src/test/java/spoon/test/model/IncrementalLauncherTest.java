@@ -21,6 +21,7 @@ import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtStatement;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
+import spoon.support.compiler.jdt.JDTBasedSpoonCompiler;
 
 public class IncrementalLauncherTest {
 
@@ -34,6 +35,11 @@ public class IncrementalLauncherTest {
 		return types.stream().filter(t -> t.getSimpleName().equals(name)).findFirst().get();
 	}
 
+	private boolean isBuilt(IncrementalLauncher launcher, String fileName) throws IOException {
+		String path = new File(WORKING_DIR, fileName).getCanonicalPath();
+		return ((JDTBasedSpoonCompiler) launcher.getModelBuilder()).getSource().getAllJavaFiles().stream().anyMatch(f -> path.equals(f.getPath()));
+	}
+
 	@Test
 	public void testCache() throws IOException {
 		// Build model from A.java, B.java, C.java, D.java, and then load the same model from cache several times.
@@ -205,6 +211,72 @@ public class IncrementalLauncherTest {
 		CtExpression<?> lhs2 = assignment2.getAssigned();
 		assertTrue(assignment2.getType().getSimpleName().equals("float"));
 		assertTrue(lhs2.getType().getSimpleName().equals("float"));
+		// the API of C has changed, so B has been rebuilt as well
+		assertTrue(isBuilt(launcher2, "B.java"));
+	}
+
+	@Test
+	public void testIncrementalSameApi() throws IOException, InterruptedException {
+		// Build model from A.java, B.java, C.java, then change C without changing its API.
+		// B refers to C, but it does not need to be rebuilt.
+		FileUtils.deleteDirectory(WORKING_DIR);
+		FileUtils.copyDirectory(ORIGINAL_FILES_DIR, WORKING_DIR);
+
+		Set<File> inputResources = new HashSet<>();
+		inputResources.add(new File(WORKING_DIR, "A.java"));
+		inputResources.add(new File(WORKING_DIR, "B.java"));
+		inputResources.add(new File(WORKING_DIR, "C.java"));
+		Set<String> sourceClasspath = Collections.emptySet();
+
+		IncrementalLauncher launcher1 = new IncrementalLauncher(inputResources, sourceClasspath, CACHE_DIR);
+		launcher1.buildModel();
+		launcher1.saveCache();
+
+		TimeUnit.MILLISECONDS.sleep(1000);
+		FileUtils.copyFile(new File(CHANGED_FILES_DIR, "C-same-api.java"), new File(WORKING_DIR, "C.java"), true);
+		FileUtils.touch(new File(WORKING_DIR, "C.java"));
+
+		IncrementalLauncher launcher2 = new IncrementalLauncher(inputResources, sourceClasspath, CACHE_DIR);
+		assertTrue(launcher2.changesPresent());
+		CtModel newModel = launcher2.buildModel();
+		launcher2.saveCache();
+
+		assertTrue(isBuilt(launcher2, "C.java"));
+		assertFalse(isBuilt(launcher2, "B.java"));
+		assertTrue(getTypeByName(newModel.getAllTypes(), "B").getMethodsByName("func").size() == 1);
+	}
+
+	@Test
+	public void testIncrementalRenamedType() throws IOException, InterruptedException {
+		// Build model from A.java, B.java, C.java, then rename the second class declared in C.java.
+		// The type with the old name must not survive in the model.
+		FileUtils.deleteDirectory(WORKING_DIR);
+		FileUtils.copyDirectory(ORIGINAL_FILES_DIR, WORKING_DIR);
+		FileUtils.copyFile(new File(CHANGED_FILES_DIR, "C-with-helper.java"), new File(WORKING_DIR, "C.java"), true);
+
+		Set<File> inputResources = new HashSet<>();
+		inputResources.add(new File(WORKING_DIR, "A.java"));
+		inputResources.add(new File(WORKING_DIR, "B.java"));
+		inputResources.add(new File(WORKING_DIR, "C.java"));
+		Set<String> sourceClasspath = Collections.emptySet();
+
+		IncrementalLauncher launcher1 = new IncrementalLauncher(inputResources, sourceClasspath, CACHE_DIR);
+		CtModel originalModel = launcher1.buildModel();
+		assertTrue(originalModel.getAllTypes().stream().anyMatch(t -> t.getSimpleName().equals("CHelper")));
+		launcher1.saveCache();
+
+		TimeUnit.MILLISECONDS.sleep(1000);
+		FileUtils.copyFile(new File(CHANGED_FILES_DIR, "C-with-renamed-helper.java"), new File(WORKING_DIR, "C.java"), true);
+		FileUtils.touch(new File(WORKING_DIR, "C.java"));
+
+		IncrementalLauncher launcher2 = new IncrementalLauncher(inputResources, sourceClasspath, CACHE_DIR);
+		CtModel newModel = launcher2.buildModel();
+		launcher2.saveCache();
+
+		assertFalse(newModel.getAllTypes().stream().anyMatch(t -> t.getSimpleName().equals("CHelper")));
+		assertTrue(newModel.getAllTypes().stream().anyMatch(t -> t.getSimpleName().equals("CRenamedHelper")));
+		assertTrue(newModel.getAllTypes().stream().anyMatch(t -> t.getSimpleName().equals("C")));
+		assertTrue(getTypeByName(newModel.getAllTypes(), "B").getMethodsByName("func").size() == 1);
 	}
 
 	@Test
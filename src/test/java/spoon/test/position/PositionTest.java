@@ -10,6 +10,7 @@ import spoon.reflect.cu.position.CompoundSourcePosition;
 import spoon.reflect.cu.position.DeclarationSourcePosition;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtConstructor;
+import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtEnum;
 import spoon.reflect.declaration.CtField;
 import spoon.reflect.declaration.CtImport;
@@ -18,8 +19,10 @@ import spoon.reflect.declaration.CtParameter;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.declaration.CtTypeParameter;
 import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.reflect.cu.SourcePositionIndex;
 import spoon.test.comment.testclasses.Comment1;
 import spoon.test.position.testclasses.*;
 import spoon.test.query_function.testclasses.VariableReferencesModelTest;
@@ -34,6 +37,8 @@ import java.util.Set;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static spoon.testing.utils.ModelUtils.build;
@@ -1061,4 +1066,52 @@ public class PositionTest {
 		assertEquals(23, pos.getEndLine());
 		assertEquals(2, pos.getEndColumn());
 	}
+
+	@Test
+	public void testSourcePositionIndex() throws Exception {
+		//contract: the source position index finds the innermost element at an offset and the element of a line
+		final Factory build = build(FooStatement.class);
+		final CtType<FooStatement> foo = build.Type().get(FooStatement.class);
+		String classContent = getClassContent(foo);
+		SourcePositionIndex index = new SourcePositionIndex(foo.getPosition().getCompilationUnit());
+
+		assertSame(foo, index.getElementAtLine(3));
+		CtLocalVariable<?> field2 = (CtLocalVariable<?>) index.getElementAtLine(8);
+		assertEquals("field2", field2.getSimpleName());
+		assertTrue(index.getElementAtLine(9) instanceof CtAssignment);
+		assertTrue(index.getElementAtLine(19) instanceof CtUnaryOperator);
+		assertNull(index.getElementAtLine(100));
+
+		CtReturn<?> ret = foo.getMethodsByName("m2").get(0).getBody().getStatement(0);
+		int offset = classContent.indexOf("parm1;", ret.getPosition().getSourceStart());
+		CtElement element = index.getElementAt(offset);
+		assertTrue(element.getPosition().getSourceStart() <= offset && element.getPosition().getSourceEnd() >= offset);
+		assertSame(ret, element.getParent(CtReturn.class));
+		assertSame(ret.getParent(CtBlock.class), index.getElement(ret.getPosition().getSourceStart() - 1, ret.getPosition().getSourceEnd()));
+		assertNull(index.getElementAt(classContent.indexOf("public class") - 2));
+	}
+
+	@Test
+	public void testCompactReferences() {
+		//contract: in the compact references mode, the references have no position, but the other elements keep theirs
+		Launcher launcher = new Launcher();
+		launcher.addInputResource("./src/test/java/spoon/test/position/testclasses/PositionParameterTypeWithReference.java");
+		launcher.getEnvironment().setCompactReferences(true);
+		launcher.buildModel();
+
+		List<CtReference> references = launcher.getModel().getElements(new TypeFilter<>(CtReference.class));
+		assertFalse(references.isEmpty());
+		for (CtReference reference : references) {
+			assertSame(SourcePosition.NOPOSITION, reference.getPosition());
+		}
+		CtType<?> type = launcher.getFactory().Type().get(PositionParameterTypeWithReference.class);
+		assertTrue(type.getField("field3").getPosition().isValidPosition());
+
+		// the comments are attached before the positions are dropped
+		Launcher defaultLauncher = new Launcher();
+		defaultLauncher.addInputResource("./src/test/java/spoon/test/position/testclasses/PositionParameterTypeWithReference.java");
+		defaultLauncher.buildModel();
+		assertEquals(defaultLauncher.getModel().getElements(new TypeFilter<>(CtComment.class)).size(),
+				launcher.getModel().getElements(new TypeFilter<>(CtComment.class)).size());
+	}
 }
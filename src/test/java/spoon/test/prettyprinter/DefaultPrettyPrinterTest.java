@@ -1,5 +1,6 @@
 package spoon.test.prettyprinter;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import spoon.Launcher;
@@ -10,8 +11,10 @@ import spoon.compiler.SpoonResourceHelper;
 import spoon.reflect.CtModel;
 import spoon.reflect.code.CtCodeSnippetStatement;
 import spoon.reflect.code.CtConstructorCall;
+import spoon.reflect.code.CtFieldWrite;
 import spoon.reflect.code.CtInvocation;
 import spoon.reflect.code.CtStatement;
+import spoon.reflect.code.CtVariableRead;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtParameter;
@@ -29,6 +32,7 @@ import spoon.test.prettyprinter.testclasses.AClass;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -333,4 +337,63 @@ public class DefaultPrettyPrinterTest {
 		launcher.prettyprint();
 	}
 
+	@Test
+	public void testPrintingDoesNotChangeTheModel() {
+		// contract: a field access whose target has to be printed to not be shadowed is printed explicitly, but the model is not changed
+		CtClass<?> aClass = Launcher.parseClass("class A { int value; void setValue(int newValue) { value = newValue; } }");
+		CtMethod<?> setValue = aClass.getMethodsByName("setValue").get(0);
+		setValue.getParameters().get(0).setSimpleName("value");
+		setValue.getElements(new TypeFilter<>(CtVariableRead.class)).get(0).getVariable().setSimpleName("value");
+		CtFieldWrite<?> fieldWrite = setValue.getElements(new TypeFilter<>(CtFieldWrite.class)).get(0);
+		assertTrue(fieldWrite.getTarget().isImplicit());
+
+		assertEquals("this.value", fieldWrite.toString());
+		assertTrue(fieldWrite.getTarget().isImplicit());
+		assertEquals("this.value = value", fieldWrite.getParent().toString());
+	}
+
+	@Test
+	public void testPrintingThreads() throws Exception {
+		// contract: the files printed on several threads are the same as the ones printed sequentially
+		File sequentialOutput = new File("./target/printing-threads/sequential");
+		File parallelOutput = new File("./target/printing-threads/parallel");
+		for (File output : Arrays.asList(sequentialOutput, parallelOutput)) {
+			Launcher launcher = new Launcher();
+			launcher.addInputResource("./src/test/java/spoon/test/prettyprinter/testclasses/");
+			launcher.setSourceOutputDirectory(output);
+			launcher.getEnvironment().setPrintingThreads(output == parallelOutput ? 4 : 1);
+			launcher.run();
+		}
+
+		Collection<File> files = FileUtils.listFiles(sequentialOutput, new String[] {"java"}, true);
+		assertFalse(files.isEmpty());
+		for (File file : files) {
+			File parallelFile = new File(parallelOutput, sequentialOutput.toPath().relativize(file.toPath()).toString());
+			assertEquals(FileUtils.readFileToString(file, "UTF-8"), FileUtils.readFileToString(parallelFile, "UTF-8"));
+		}
+		assertEquals(files.size(), FileUtils.listFiles(parallelOutput, new String[] {"java"}, true).size());
+	}
+
+	@Test
+	public void testUnchangedFileIsNotWrittenAgain() throws Exception {
+		// contract: a printed file which already has the printed content is not written again
+		Launcher launcher = new Launcher();
+		launcher.addInputResource("./src/test/java/spoon/test/prettyprinter/testclasses/AClass.java");
+		launcher.setSourceOutputDirectory("./target/unchanged-files");
+		launcher.run();
+
+		File file = new File("./target/unchanged-files/spoon/test/prettyprinter/testclasses/AClass.java");
+		String content = FileUtils.readFileToString(file, "UTF-8");
+		assertTrue(file.setLastModified(1000));
+		launcher.prettyprint();
+		assertEquals(1000, file.lastModified());
+		assertEquals(content, FileUtils.readFileToString(file, "UTF-8"));
+
+		// the file is written again when the printed content changes
+		launcher.getFactory().Class().get(AClass.class).addComment(launcher.getFactory().createInlineComment("changed"));
+		launcher.prettyprint();
+		assertTrue(file.lastModified() != 1000);
+		assertTrue(FileUtils.readFileToString(file, "UTF-8").contains("// changed"));
+	}
+
 }
@@ -11,15 +11,23 @@ import spoon.processing.AbstractProcessor;
 import spoon.processing.ProcessorProperties;
 import spoon.processing.ProcessorPropertiesImpl;
 import spoon.processing.Property;
+import spoon.reflect.CtModel;
+import spoon.reflect.code.CtInvocation;
 import spoon.reflect.code.CtSwitch;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtConstructor;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtInterface;
 import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtPackage;
 import spoon.reflect.declaration.CtType;
+import spoon.reflect.path.CtRole;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.ParallelProcessingManager;
+import spoon.support.QueueProcessingManager;
 import spoon.support.compiler.jdt.JDTBasedSpoonCompiler;
+import spoon.support.modelobs.ChangeCollector;
+import spoon.support.modelobs.ElementKindIndex;
 import spoon.test.processing.processors.RenameProcessor;
 import spoon.test.processing.testclasses.CtClassProcessor;
 import spoon.test.processing.testclasses.CtInterfaceProcessor;
@@ -29,11 +37,14 @@ import spoon.testing.utils.ProcessorUtils;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -414,4 +425,158 @@ public class ProcessingTest {
 		assertTrue(fileContent.contains("import spoon.test.processing.testclasses.test.sub.D;"));
 		assertTrue(fileContent.contains("private D a = new D();"));
 	}
+
+	@Test
+	public void testReadOnlyProcessorsShareTraversal() {
+		// contract: consecutive read-only processors are applied in a single traversal, each element is given to all of them in turn
+		Launcher spoon = new Launcher();
+		spoon.addInputResource("./src/test/java/spoon/test/imports/testclasses");
+		spoon.buildModel();
+
+		List<String> calls = new ArrayList<>();
+		class RecordingProcessor extends AbstractProcessor<CtMethod<?>> {
+			final String name;
+			final boolean readOnly;
+			int count;
+			RecordingProcessor(String name, boolean readOnly) {
+				this.name = name;
+				this.readOnly = readOnly;
+			}
+			@Override
+			public boolean isReadOnly() {
+				return readOnly;
+			}
+			@Override
+			public void process(CtMethod<?> element) {
+				calls.add(name);
+				count++;
+			}
+		}
+		RecordingProcessor first = new RecordingProcessor("first", true);
+		RecordingProcessor second = new RecordingProcessor("second", true);
+		RecordingProcessor mutating = new RecordingProcessor("mutating", false);
+		QueueProcessingManager manager = new QueueProcessingManager(spoon.getFactory());
+		manager.addProcessor(first);
+		manager.addProcessor(second);
+		manager.addProcessor(mutating);
+		manager.process(spoon.getModel().getRootPackage());
+
+		int methodCount = spoon.getModel().getElements(new TypeFilter<>(CtMethod.class)).size();
+		assertTrue(methodCount > 1);
+		assertEquals(methodCount, first.count);
+		assertEquals(methodCount, second.count);
+		assertEquals(methodCount, mutating.count);
+		// the read-only processors are interleaved, the other one runs alone afterwards
+		assertEquals(Arrays.asList("first", "second", "first", "second"), calls.subList(0, 4));
+		assertEquals(Collections.nCopies(methodCount, "mutating"), calls.subList(2 * methodCount, 3 * methodCount));
+	}
+
+	@Test
+	public void testParallelProcessingManager() {
+		// contract: the parallel processing manager applies read-only processors to all the elements, on several threads
+		Launcher spoon = new Launcher();
+		spoon.addInputResource("./src/test/java/spoon/test/imports/testclasses");
+		spoon.buildModel();
+
+		class MethodCollector extends AbstractProcessor<CtMethod<?>> {
+			final Set<CtMethod<?>> methods = Collections.newSetFromMap(new ConcurrentHashMap<>());
+			@Override
+			public boolean isReadOnly() {
+				return true;
+			}
+			@Override
+			public void process(CtMethod<?> element) {
+				methods.add(element);
+				getEnvironment().report(this, Level.WARN, element, "method");
+			}
+		}
+		MethodCollector collector = new MethodCollector();
+		int warningCount = spoon.getEnvironment().getWarningCount();
+		ParallelProcessingManager manager = new ParallelProcessingManager(spoon.getFactory(), 4);
+		manager.addProcessor(collector);
+		manager.process(spoon.getModel().getRootPackage());
+
+		List<CtMethod<?>> methods = spoon.getModel().getElements(new TypeFilter<>(CtMethod.class));
+		assertEquals(methods.size(), collector.methods.size());
+		assertTrue(collector.methods.containsAll(methods));
+		assertEquals(warningCount + methods.size(), spoon.getEnvironment().getWarningCount());
+
+		// contract: processors which are not read-only are rejected
+		try {
+			manager.addProcessor(new RenameProcessor("A", "D"));
+			fail();
+		} catch (SpoonException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testElementKindIndex() {
+		// contract: with an ElementKindIndex, the queries on the type of the elements and the read-only processors
+		// get the same elements as a scan of the model, and follow the changes of the model
+		Launcher spoon = new Launcher();
+		spoon.addInputResource("./src/test/java/spoon/test/imports/testclasses");
+		spoon.buildModel();
+		CtModel model = spoon.getModel();
+		List<CtInvocation<?>> invocations = model.getElements(new TypeFilter<>(CtInvocation.class));
+		List<CtMethod<?>> methods = model.getElements(new TypeFilter<>(CtMethod.class));
+		List<CtPackage> packages = new ArrayList<>(model.getAllPackages());
+		List<CtType<?>> types = model.getElements(new TypeFilter<>(CtType.class));
+
+		ElementKindIndex index = new ElementKindIndex().attachTo(spoon.getFactory());
+		assertSame(index, ElementKindIndex.getElementKindIndex(spoon.getEnvironment()));
+		assertEquals(invocations, model.getElements(new TypeFilter<>(CtInvocation.class)));
+		assertEquals(methods, model.getRootPackage().filterChildren(new TypeFilter<>(CtMethod.class)).list());
+		assertEquals(packages, new ArrayList<>(model.getAllPackages()));
+		// several kinds of elements are types
+		assertEquals(types, model.getElements(new TypeFilter<>(CtType.class)));
+
+		class MethodCollector extends AbstractProcessor<CtMethod<?>> {
+			final List<CtMethod<?>> methods = new ArrayList<>();
+			@Override
+			public boolean isReadOnly() {
+				return true;
+			}
+			@Override
+			public void process(CtMethod<?> element) {
+				methods.add(element);
+			}
+		}
+		MethodCollector collector = new MethodCollector();
+		QueueProcessingManager manager = new QueueProcessingManager(spoon.getFactory());
+		manager.addProcessor(collector);
+		manager.process(model.getRootPackage());
+		assertEquals(methods, collector.methods);
+
+		// a ChangeCollector attached after the index does not detach it
+		ChangeCollector changeCollector = new ChangeCollector().attachTo(spoon.getEnvironment());
+		assertSame(index, ElementKindIndex.getElementKindIndex(spoon.getEnvironment()));
+
+		// an element added to the model is found in the order of a scan, and not anymore once it is removed
+		CtMethod<?> method = methods.get(0).clone();
+		method.setSimpleName("addedMethod");
+		methods.get(0).getDeclaringType().addMethod(method);
+		assertTrue(changeCollector.getDirectChanges(methods.get(0).getDeclaringType()).contains(CtRole.TYPE_MEMBER));
+		List<CtMethod<?>> scannedMethods = model.getRootPackage().filterChildren((CtMethod<?> m) -> true).list();
+		assertEquals(methods.size() + 1, scannedMethods.size());
+		assertEquals(scannedMethods, model.getElements(new TypeFilter<>(CtMethod.class)));
+		method.delete();
+		assertEquals(methods, model.getElements(new TypeFilter<>(CtMethod.class)));
+
+		// a query on a package gets the elements of the types of this package and of its sub-packages
+		CtPackage pkg = methods.get(0).getDeclaringType().getPackage();
+		List<CtMethod<?>> packageMethods = new ArrayList<>();
+		for (CtMethod<?> m : methods) {
+			if (m.hasParent(pkg)) {
+				packageMethods.add(m);
+			}
+		}
+		assertEquals(packageMethods, pkg.filterChildren(new TypeFilter<>(CtMethod.class)).list());
+
+		// a type removed from its package is not found anymore
+		CtType<?> removedType = methods.get(0).getTopLevelType();
+		removedType.delete();
+		assertFalse(model.getElements(new TypeFilter<>(CtType.class)).stream().anyMatch(t -> t == removedType));
+		assertFalse(model.getElements(new TypeFilter<>(CtMethod.class)).stream().anyMatch(m -> m == methods.get(0)));
+	}
 }
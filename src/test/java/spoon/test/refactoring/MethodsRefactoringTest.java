@@ -32,6 +32,7 @@ import spoon.reflect.visitor.filter.AllMethodsSameSignatureFunction;
 import spoon.reflect.visitor.filter.ExecutableReferenceFilter;
 import spoon.reflect.visitor.filter.SubInheritanceHierarchyFunction;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.modelobs.TypeHierarchyIndex;
 import spoon.test.refactoring.parameter.testclasses.IFaceB;
 import spoon.test.refactoring.parameter.testclasses.IFaceK;
 import spoon.test.refactoring.parameter.testclasses.IFaceL;
@@ -92,6 +93,35 @@ public class MethodsRefactoringTest {
 				);
 	}
 
+	@Test
+	public void testSubInheritanceHierarchyFunctionWithTypeHierarchyIndex() {
+		Factory factory = ModelUtils.build(new File("./src/test/java/spoon/test/refactoring/parameter/testclasses"));
+		new TypeHierarchyIndex().attachTo(factory);
+
+		List<String> allSubtypes = factory.Class().get(TypeA.class).map(new SubInheritanceHierarchyFunction()).map((CtType type)->type.getQualifiedName()).list();
+		checkContainsOnly(allSubtypes,
+				"spoon.test.refactoring.parameter.testclasses.TypeB",
+				"spoon.test.refactoring.parameter.testclasses.TypeB$1",
+				"spoon.test.refactoring.parameter.testclasses.TypeC");
+
+		allSubtypes = factory.Interface().get(IFaceL.class).map(new SubInheritanceHierarchyFunction()).map((CtType type)->type.getQualifiedName()).list();
+		checkContainsOnly(allSubtypes,
+				"spoon.test.refactoring.parameter.testclasses.TypeB$1Local",
+				"spoon.test.refactoring.parameter.testclasses.TypeL",
+				"spoon.test.refactoring.parameter.testclasses.TypeM"
+				);
+
+		//the index follows the changes of the model
+		CtType<?> typeC = factory.Class().get(TypeC.class);
+		assertTrue(typeC.isSubtypeOf(factory.Type().createReference(TypeA.class)));
+		typeC.setSuperclass(null);
+		assertFalse(typeC.isSubtypeOf(factory.Type().createReference(TypeA.class)));
+		allSubtypes = factory.Class().get(TypeA.class).map(new SubInheritanceHierarchyFunction()).map((CtType type)->type.getQualifiedName()).list();
+		checkContainsOnly(allSubtypes,
+				"spoon.test.refactoring.parameter.testclasses.TypeB",
+				"spoon.test.refactoring.parameter.testclasses.TypeB$1");
+	}
+
 	private void checkContainsOnly(List<String> foundNames, String... expectedNames) {
 		for (String name : expectedNames) {
 			assertTrue("The "+name+" not found", foundNames.remove(name));
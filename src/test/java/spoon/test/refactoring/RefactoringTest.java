@@ -5,12 +5,23 @@ import spoon.Launcher;
 import spoon.reflect.code.BinaryOperatorKind;
 import spoon.reflect.code.CtBinaryOperator;
 import spoon.reflect.code.CtInvocation;
+import spoon.reflect.code.CtLocalVariable;
 import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.path.CtRole;
+import spoon.reflect.reference.CtArrayTypeReference;
+import spoon.reflect.reference.CtFieldReference;
+import spoon.reflect.reference.CtReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.Query;
 import spoon.reflect.visitor.filter.AbstractFilter;
 import spoon.reflect.visitor.filter.AbstractReferenceFilter;
+import spoon.reflect.visitor.filter.FieldReferenceFunction;
 import spoon.reflect.visitor.filter.TypeFilter;
+import spoon.support.modelobs.ChangeCollector;
+import spoon.support.modelobs.ReferenceIndex;
 import spoon.test.refactoring.testclasses.AClass;
 
 import java.util.List;
@@ -111,4 +122,49 @@ public class RefactoringTest {
 		assertEquals("o", instanceofInvocation.getLeftHandOperand().toString());
 		assertEquals("spoon.test.refactoring.testclasses.AClassX", instanceofInvocation.getRightHandOperand().toString());
 	}
+
+	@Test
+	public void testRefactoringWithReferenceIndex() throws Exception {
+		// contract: the references found with a ReferenceIndex follow the changes of the model
+		final Launcher launcher = new Launcher();
+		launcher.addInputResource("src/test/java/spoon/test/refactoring/testclasses");
+		launcher.buildModel();
+		final Factory factory = launcher.getFactory();
+		final CtClass<?> aClass = factory.Class().get(AClass.class);
+		final CtField<?> field = aClass.getField("string");
+		final List<CtFieldReference<?>> scanned = field.map(new FieldReferenceFunction()).list();
+		assertEquals(1, scanned.size());
+
+		ChangeCollector changeCollector = new ChangeCollector().attachTo(factory.getEnvironment());
+		ReferenceIndex index = new ReferenceIndex().attachTo(factory);
+		assertSame(index, ReferenceIndex.getReferenceIndex(factory.getEnvironment()));
+		assertSame(changeCollector, ChangeCollector.getChangeCollector(factory.getEnvironment()));
+		assertEquals(scanned, field.map(new FieldReferenceFunction()).list());
+
+		// the references are found in the order of a scan of the model
+		CtModule unnamedModule = factory.getModel().getUnnamedModule();
+		List<CtReference> stringReferences = unnamedModule.filterChildren((CtReference r) -> "String".equals(r.getSimpleName()) && !(r instanceof CtArrayTypeReference)).list();
+		assertTrue(stringReferences.size() > 1);
+		assertEquals(stringReferences, index.getReferences(unnamedModule, "String"));
+
+		// a reference added to the model is found
+		CtLocalVariable<?> copy = factory.Code().createLocalVariable(factory.Type().STRING, "copy", factory.Code().createVariableRead(((CtField<String>) field).getReference(), false));
+		aClass.getMethodsByName("isMySubclass").get(0).getBody().insertBegin(copy);
+		assertEquals(2, field.map(new FieldReferenceFunction()).list().size());
+		assertEquals(1, aClass.getMethodsByName("isMySubclass").get(0).map(new FieldReferenceFunction(field)).list().size());
+
+		// a reference removed from the model is not found anymore, and the order of the others is kept
+		copy.delete();
+		assertEquals(scanned, field.map(new FieldReferenceFunction()).list());
+		assertEquals(stringReferences, index.getReferences(unnamedModule, "String"));
+
+		Refactoring.changeTypeName(aClass, "AClassX");
+		assertEquals(0, Query.getElements(factory, new AbstractReferenceFilter<CtTypeReference<?>>(CtTypeReference.class) {
+			@Override
+			public boolean matches(CtTypeReference<?> reference) {
+				return "AClass".equals(reference.getSimpleName());
+			}
+		}).size());
+		assertTrue(changeCollector.getChanges(aClass).contains(CtRole.NAME));
+	}
 }
@@ -1,5 +1,7 @@
 package spoon.test.serializable;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -15,8 +17,10 @@ import org.junit.Test;
 
 import spoon.Launcher;
 import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtType;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.visitor.Filter;
+import spoon.support.BinaryModelStreamer;
 import spoon.support.CompressionType;
 import spoon.support.SerializationModelStreamer;
 
@@ -61,6 +65,51 @@ public class ModelStreamerTest {
 		compareFactoryModels(factory, factoryFromFile);
 	}
 
+	@Test
+	public void testBinaryModelStreamer() throws IOException {
+		new BinaryModelStreamer().save(factory, new FileOutputStream(file));
+		Factory factoryFromFile = new BinaryModelStreamer().load(new FileInputStream(file));
+		compareFactoryModels(factory, factoryFromFile);
+	}
+
+	@Test
+	public void testBinaryModelStreamerGZipCompressionType() throws IOException {
+		factory.getEnvironment().setCompressionType(CompressionType.GZIP);
+		new BinaryModelStreamer().save(factory, new FileOutputStream(file));
+		Factory factoryFromFile = new BinaryModelStreamer().load(new FileInputStream(file));
+		compareFactoryModels(factory, factoryFromFile);
+	}
+
+	@Test
+	public void testBinaryModelStreamerKeepsPositionsAndCompilationUnits() throws IOException {
+		new BinaryModelStreamer().save(factory, new FileOutputStream(file));
+		Factory factoryFromFile = new BinaryModelStreamer().load(new FileInputStream(file));
+
+		assertEquals(factory.CompilationUnit().getMap().keySet(), factoryFromFile.CompilationUnit().getMap().keySet());
+		CtType<?> type = factory.Type().get(CtElement.class);
+		CtType<?> typeFromFile = factoryFromFile.Type().get(CtElement.class);
+		assertEquals(type.getPosition().toString(), typeFromFile.getPosition().toString());
+		assertEquals(type.getPosition().getLine(), typeFromFile.getPosition().getLine());
+		assertTrue(factoryFromFile.CompilationUnit().getMap().containsValue(typeFromFile.getPosition().getCompilationUnit()));
+		assertTrue(typeFromFile.getPosition().getCompilationUnit().getDeclaredTypes().contains(typeFromFile));
+		assertSame(factoryFromFile, typeFromFile.getFactory());
+	}
+
+	@Test
+	public void testBinaryModelStreamerLazyLoading() throws IOException {
+		new BinaryModelStreamer().save(factory, new FileOutputStream(file));
+		Factory factoryFromFile = new BinaryModelStreamer().loadLazily(new FileInputStream(file));
+
+		// the type is loaded on demand, together with its compilation unit
+		CtType<?> typeFromFile = factoryFromFile.Type().get(CtElement.class);
+		assertEquals(CtElement.class.getName(), typeFromFile.getQualifiedName());
+		assertSame(typeFromFile, typeFromFile.getPosition().getCompilationUnit().getMainType());
+		assertSame(typeFromFile, factoryFromFile.Type().get(CtElement.class));
+
+		compareFactoryModels(factory, factoryFromFile);
+		assertEquals(factory.Type().getAll().size(), factoryFromFile.Type().getAll().size());
+	}
+
 	private void compareFactoryModels(Factory factory, Factory factoryFromFile) {
 		Filter<CtElement> filter = new Filter<CtElement>() {
 			public boolean matches(CtElement element) {
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -329,4 +330,42 @@ public class SignatureTest {
 		assertNotEquals(method, method2);
 
 	}
+
+	@Test
+	public void testMemoisedSignaturesFollowModelChanges() {
+		// contract: the signatures and the member queries of a type reflect the changes of its members
+		CtClass<?> type = Launcher.parseClass("class A { int f; void m(int i) {} void n(java.util.List<String> l) {} }");
+		CtMethod<?> m = type.getMethodsByName("m").get(0);
+		CtMethod<?> n = type.getMethodsByName("n").get(0);
+		assertEquals("m(int)", m.getSignature());
+		assertTrue(type.hasMethod(m));
+
+		m.getParameters().get(0).setType(type.getFactory().Type().longPrimitiveType());
+		assertEquals("m(long)", m.getSignature());
+		assertEquals(m, type.getMethod("m", type.getFactory().Type().longPrimitiveType()));
+
+		n.getParameters().get(0).getType().setSimpleName("Set");
+		assertEquals("n(java.util.Set)", n.getSignature());
+		n.getParameters().get(0).getType().getPackage().setSimpleName("java.lang");
+		assertEquals("n(java.lang.Set)", n.getSignature());
+		assertTrue(type.hasMethod(n));
+		// building fresh references, as getReference, clone and the factories do, keeps the memoised signature
+		String signature = n.getSignature();
+		n.getReference();
+		n.clone();
+		type.getFactory().Type().createReference("java.util.Map");
+		assertSame(signature, n.getSignature());
+
+		m.setSimpleName("o");
+		assertTrue(type.getMethodsByName("m").isEmpty());
+		assertEquals(m, type.getMethodsByName("o").get(0));
+
+		type.getField("f").setSimpleName("g");
+		assertEquals(null, type.getField("f"));
+		assertNotNull(type.getField("g"));
+
+		type.removeMethod(n);
+		assertEquals(1, type.getMethods().size());
+		assertFalse(type.hasMethod(n));
+	}
 }
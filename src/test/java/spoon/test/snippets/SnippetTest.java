@@ -6,7 +6,10 @@ import spoon.compiler.SpoonResource;
 import spoon.reflect.code.CtBinaryOperator;
 import spoon.reflect.code.CtCodeSnippetExpression;
 import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.code.CtLocalVariable;
 import spoon.reflect.code.CtReturn;
+import spoon.reflect.code.CtStatement;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtMethod;
@@ -14,6 +17,9 @@ import spoon.reflect.factory.Factory;
 import spoon.support.compiler.SnippetCompilationHelper;
 import spoon.support.compiler.VirtualFile;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -94,6 +100,28 @@ public class SnippetTest {
 		assertEquals("return 3", el.toString());
 	}
 
+	@Test
+	public void testCompileSnippetsInBatch() throws Exception {
+		// contract: several snippets can be compiled with a single build, the results keep the order of the snippets
+		List<CtStatement> statements = SnippetCompilationHelper.compileStatements(Arrays.asList(
+				factory.Code().createCodeSnippetStatement("int i = 1"),
+				factory.Code().createCodeSnippetStatement("java.lang.String s = \"a\"")));
+		assertEquals(2, statements.size());
+		assertTrue(statements.get(0) instanceof CtLocalVariable);
+		assertEquals("int i = 1", statements.get(0).toString());
+		assertEquals("java.lang.String s = \"a\"", statements.get(1).toString());
+
+		List<CtExpression<?>> expressions = SnippetCompilationHelper.compileExpressions(Arrays.asList(
+				factory.Code().createCodeSnippetExpression("1 + 2"),
+				factory.Code().createCodeSnippetExpression("\"a\".length()")));
+		assertEquals(2, expressions.size());
+		assertTrue(expressions.get(0) instanceof CtBinaryOperator);
+		assertTrue(expressions.get(1) instanceof CtInvocation);
+
+		// the wrapper class is removed
+		assertEquals(null, factory.Type().get("Wrapper"));
+	}
+
 	@Test
 	public void testIssue981() throws Exception {
 		// contract: one can get the package of a string
@@ -0,0 +1,5 @@
+public class C {
+
+	// the API of C is not changed
+	int val;
+}
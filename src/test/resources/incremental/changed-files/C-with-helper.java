@@ -0,0 +1,7 @@
+public class C {
+
+	int val;
+}
+
+class CHelper {
+}
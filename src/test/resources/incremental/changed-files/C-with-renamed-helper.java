@@ -0,0 +1,8 @@
+public class C {
+
+	int val;
+}
+
+// the helper of C is renamed
+class CRenamedHelper {
+}
@@ -0,0 +1,12 @@
+package api;
+
+public class Holder {
+	static class Hidden {
+		public static class Deep {
+			public static int VALUE = 2;
+		}
+	}
+
+	public static class Nested extends Hidden {
+	}
+}
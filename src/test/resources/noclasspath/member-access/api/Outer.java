@@ -0,0 +1,7 @@
+package api;
+
+class Outer {
+	public static class Inner {
+		public static int FIELD = 1;
+	}
+}
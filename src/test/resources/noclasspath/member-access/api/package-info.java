@@ -0,0 +1,4 @@
+/**
+ * A package-info unit, which declares no type.
+ */
+package api;
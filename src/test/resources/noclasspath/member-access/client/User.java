@@ -0,0 +1,13 @@
+package client;
+
+import api.Holder.Nested;
+
+public class User {
+	int viaSubclass() {
+		return api.Sub.Inner.FIELD;
+	}
+
+	int viaImportedMemberType() {
+		return Nested.Deep.VALUE;
+	}
+}